@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+# Measures the startup of the export job in its different startup modes.
+#
+# Each run exports a job against unreachable services (see src/aot/training.properties), so it
+# measures the time from starting the JVM until the job has failed on its first Elasticsearch
+# request and the application has shut down. This includes creating all beans the job needs.
+#
+# Usage: benchmark/startup-benchmark.sh [jar] [profile] [runs]
+#   jar      the application jar, default target/dissco-export-job-0.0.1-SNAPSHOT.jar
+#   profile  the job profile, default doi_list
+#   runs     the number of runs per mode, default 10
+#
+# When the jar has been built with the aot profile (mvn -Paot -Daot.profile=<profile> package), the
+# AOT modes are measured as well.
+set -euo pipefail
+
+JAR=${1:-target/dissco-export-job-0.0.1-SNAPSHOT.jar}
+PROFILE=${2:-doi_list}
+RUNS=${3:-10}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+CONFIG="--spring.config.additional-location=file:$ROOT/src/aot/training.properties"
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/application" > /dev/null
+cd "$WORK/application"
+
+# Job run with the given JVM and application arguments, prints the elapsed time in ms
+run_job() {
+  local start end
+  start=$(date +%s%N)
+  java "$@" -jar application.jar "--spring.profiles.active=$PROFILE" "$CONFIG" \
+    > "$WORK/last-run.log" 2>&1 || true
+  end=$(date +%s%N)
+  if ! grep -q "Shutting down application" "$WORK/last-run.log"; then
+    echo "Job did not run, see the log below" >&2
+    cat "$WORK/last-run.log" >&2
+    exit 1
+  fi
+  echo $(((end - start) / 1000000))
+}
+
+# Runs a mode RUNS times after one warm-up run and prints the median and the minimum
+measure() {
+  local name=$1
+  shift
+  run_job "$@" > /dev/null
+  local times=()
+  for ((i = 0; i < RUNS; i++)); do
+    times+=("$(run_job "$@")")
+  done
+  local sorted
+  sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+  printf '%-28s median %6d ms   min %6d ms\n' "$name" \
+    "$(echo "$sorted" | sed -n "$(((RUNS + 1) / 2))p")" "$(echo "$sorted" | head -1)"
+}
+
+java -XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh \
+  -jar application.jar "--spring.profiles.active=$PROFILE" "$CONFIG" > "$WORK/training.log" 2>&1
+
+echo "Startup of the $PROFILE job, $RUNS runs per mode"
+measure "web server" -Dspring.main.web-application-type=servlet
+measure "no web server"
+measure "no web server, CDS" -XX:SharedArchiveFile=application.jsa
+if unzip -l application.jar | grep -q "__ApplicationContextInitializer"; then
+  java -XX:ArchiveClassesAtExit=application-aot.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -jar application.jar "--spring.profiles.active=$PROFILE" "$CONFIG" > "$WORK/training-aot.log" 2>&1
+  measure "no web server, AOT" -Dspring.aot.enabled=true
+  measure "no web server, AOT, CDS" -Dspring.aot.enabled=true \
+    -XX:SharedArchiveFile=application-aot.jsa
+fi
@@ -0,0 +1,74 @@
+package eu.dissco.exportjob.component;
+
+import eu.dissco.exportjob.configuration.TemplateConfiguration;
+import eu.dissco.exportjob.domain.DwcaRow;
+import eu.dissco.exportjob.service.SpecimenFixtures;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.gbif.dwc.terms.Term;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes a mapped page of DwC-A rows to the spool files of an archive session. Each iteration
+ * writes to a new session, which is discarded afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DwcaZipWriterBenchmark {
+
+  @Param({"300"})
+  private int pageSize;
+
+  private Map<Term, List<DwcaRow>> page;
+  private DwcaZipWriter dwcaZipWriter;
+  private Path zipFile;
+  private DwcaArchiveSession archiveSession;
+
+  @Setup
+  public void setup() throws IOException {
+    page = SpecimenFixtures.dwcaPage(pageSize);
+    dwcaZipWriter = new DwcaZipWriter(new TemplateConfiguration(null).metaTemplate());
+    zipFile = Files.createTempFile("dwca-benchmark", ".zip");
+  }
+
+  @Setup(Level.Iteration)
+  public void openSession() throws IOException {
+    archiveSession = dwcaZipWriter.openSession(zipFile);
+  }
+
+  @TearDown(Level.Iteration)
+  public void discardSession() throws IOException {
+    archiveSession.discard();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(zipFile);
+  }
+
+  @Benchmark
+  public void writeRecords() {
+    archiveSession.writeRecords(page);
+  }
+
+}
@@ -0,0 +1,55 @@
+package eu.dissco.exportjob.repository;
+
+import eu.dissco.exportjob.domain.dwcdp.DwcDpClasses;
+import eu.dissco.exportjob.service.SpecimenFixtures;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes the DwC-DP records of a page as the csv which insertRecords streams with COPY into the
+ * staging tables. The database side of the insert is covered by DatabaseRepositoryTest, which runs
+ * against Postgres in a container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseRepositoryBenchmark {
+
+  @Param({"300"})
+  private int pageSize;
+
+  private Map<DwcDpClasses, List<Pair<String, Object>>> page;
+  private DatabaseRepository repository;
+
+  @Setup
+  public void setup() throws IOException {
+    page = SpecimenFixtures.dwcDpPage(pageSize);
+    repository = new DatabaseRepository(null);
+  }
+
+  @Benchmark
+  public void insertRecordsCsv(Blackhole blackhole) throws IOException {
+    for (var entry : page.entrySet()) {
+      blackhole.consume(repository.toCsv(entry.getKey().getClazz(), entry.getValue()));
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+package eu.dissco.exportjob.service;
+
+import static eu.dissco.exportjob.utils.TestUtils.givenDigitalSpecimenReducedDoiList;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import eu.dissco.exportjob.properties.PipelineProperties;
+import eu.dissco.exportjob.utils.ParallelGzipOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes pages of the DOI list to the gzip stream of the upload. The compressed bytes are
+ * discarded, so only the formatting and compression are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoiListServiceBenchmark {
+
+  @Param({"1000"})
+  private int pageSize;
+
+  @Param({"1", "4"})
+  private int compressionThreads;
+
+  private List<JsonNode> page;
+  private DoiListService service;
+  private OutputStream outputStream;
+
+  @Setup
+  public void setup() {
+    page = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      page.add(givenDigitalSpecimenReducedDoiList("https://doi.org/TEST/BENCH-%06d".formatted(i),
+          "BENCH.%06d".formatted(i)));
+    }
+    service = new DoiListService(null, null, null, null, null, null, new PipelineProperties(),
+        List.of());
+  }
+
+  @Setup(Level.Iteration)
+  public void openStream() throws IOException {
+    outputStream = new ParallelGzipOutputStream(OutputStream.nullOutputStream(),
+        compressionThreads);
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeStream() throws IOException {
+    outputStream.close();
+  }
+
+  @Benchmark
+  public void writeResultsToFile() throws IOException {
+    service.writeResultsToFile(outputStream, page);
+  }
+
+}
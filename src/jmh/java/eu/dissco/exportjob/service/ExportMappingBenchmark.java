@@ -0,0 +1,64 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.schema.DigitalMedia;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Maps a page of specimens to DwC-A rows and to DwC-DP records, one specimen at a time as the
+ * concurrent mapper does on each of its threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportMappingBenchmark {
+
+  @Param({"300"})
+  private int pageSize;
+
+  private List<DigitalSpecimen> page;
+  private List<List<DigitalMedia>> media;
+  private DwcaService dwcaService;
+  private DwcDpService dwcDpService;
+
+  @Setup
+  public void setup() throws IOException {
+    var corpus = SpecimenFixtures.corpus(pageSize);
+    page = SpecimenFixtures.specimenPage(corpus);
+    media = SpecimenFixtures.mediaPage(corpus);
+    dwcaService = SpecimenFixtures.dwcaService();
+    dwcDpService = SpecimenFixtures.dwcDpService();
+  }
+
+  @Benchmark
+  public void mapToDwcaRecords(Blackhole blackhole) {
+    for (int i = 0; i < page.size(); i++) {
+      blackhole.consume(dwcaService.mapToDwcaRecords(page.get(i), media.get(i)));
+    }
+  }
+
+  @Benchmark
+  public void mapSpecimenToDwcDp(Blackhole blackhole) {
+    for (var specimen : page) {
+      blackhole.consume(dwcDpService.mapSpecimenToDwcDp(specimen));
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+package eu.dissco.exportjob.service;
+
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+
+import eu.dissco.exportjob.domain.DwcaRow;
+import eu.dissco.exportjob.domain.dwcdp.DwcDpClasses;
+import eu.dissco.exportjob.properties.PipelineProperties;
+import eu.dissco.exportjob.schema.DigitalMedia;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
+import eu.dissco.exportjob.utils.SyntheticCorpus;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.Pair;
+import org.gbif.dwc.terms.Term;
+
+/**
+ * Pages of search results for the benchmarks. A page holds all specimens of a
+ * {@link SyntheticCorpus} of the size of the page, each with a single media, so the DwC-DP
+ * identifiers are not deduplicated.
+ */
+public final class SpecimenFixtures {
+
+  private static final PipelineProperties PIPELINE_PROPERTIES = new PipelineProperties();
+  private static final int MEDIA_PER_SPECIMEN = 1;
+
+  private SpecimenFixtures() {
+  }
+
+  public static SyntheticCorpus corpus(int pageSize) throws IOException {
+    return new SyntheticCorpus(pageSize, MEDIA_PER_SPECIMEN);
+  }
+
+  public static List<DigitalSpecimen> specimenPage(SyntheticCorpus corpus) throws IOException {
+    var page = new ArrayList<DigitalSpecimen>(corpus.getSpecimenCount());
+    for (int i = 0; i < corpus.getSpecimenCount(); i++) {
+      page.add(MAPPER.treeToValue(corpus.specimen(i), DigitalSpecimen.class));
+    }
+    return page;
+  }
+
+  /*
+   * The media of each specimen of the page, in the order of the specimens
+   */
+  public static List<List<DigitalMedia>> mediaPage(SyntheticCorpus corpus) throws IOException {
+    var page = new ArrayList<List<DigitalMedia>>(corpus.getSpecimenCount());
+    for (int i = 0; i < corpus.getSpecimenCount(); i++) {
+      var media = new ArrayList<DigitalMedia>(MEDIA_PER_SPECIMEN);
+      for (int j = 0; j < MEDIA_PER_SPECIMEN; j++) {
+        media.add(MAPPER.treeToValue(corpus.media(i * MEDIA_PER_SPECIMEN + j),
+            DigitalMedia.class));
+      }
+      page.add(media);
+    }
+    return page;
+  }
+
+  static DwcaService dwcaService() {
+    return new DwcaService(null, null, null, null, null, null, null, PIPELINE_PROPERTIES,
+        List.of());
+  }
+
+  static DwcDpService dwcDpService() {
+    return new DwcDpService(null, null, null, null, null, null, null, null, null,
+        PIPELINE_PROPERTIES, null, List.of());
+  }
+
+  /*
+   * The DwC-A rows of a page, as they are handed to the archive session
+   */
+  public static Map<Term, List<DwcaRow>> dwcaPage(int pageSize) throws IOException {
+    var service = dwcaService();
+    var corpus = corpus(pageSize);
+    var specimens = specimenPage(corpus);
+    var media = mediaPage(corpus);
+    var page = new HashMap<Term, List<DwcaRow>>();
+    for (int i = 0; i < specimens.size(); i++) {
+      service.mapToDwcaRecords(specimens.get(i), media.get(i)).forEach(
+          (rowType, rows) -> page.computeIfAbsent(rowType, k -> new ArrayList<>()).addAll(rows));
+    }
+    return page;
+  }
+
+  /*
+   * The DwC-DP records of a page, as they are inserted into the temp tables
+   */
+  public static Map<DwcDpClasses, List<Pair<String, Object>>> dwcDpPage(int pageSize)
+      throws IOException {
+    var service = dwcDpService();
+    var page = new EnumMap<DwcDpClasses, List<Pair<String, Object>>>(DwcDpClasses.class);
+    for (var specimen : specimenPage(corpus(pageSize))) {
+      service.mapSpecimenToDwcDp(specimen).forEach(
+          (dwcDpClass, rows) -> page.computeIfAbsent(dwcDpClass, k -> new ArrayList<>())
+              .addAll(rows));
+    }
+    return page;
+  }
+
+}
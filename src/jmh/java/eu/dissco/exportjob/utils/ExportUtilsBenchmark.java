@@ -0,0 +1,80 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.givenSpecimen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.dissco.exportjob.domain.DwcaRowSchema;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
+import eu.dissco.exportjob.schema.Event;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.commons.lang3.tuple.Pair;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Retrieves the terms of a single specimen with the helpers shared by the DwC-A and DwC-DP
+ * mappings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportUtilsBenchmark {
+
+  private static final List<Pair<Term, Function<Event, Object>>> EVENT_TERMS = List.of(
+      Pair.of(DwcTerm.eventType, Event::getDwcEventType),
+      Pair.of(DwcTerm.fieldNumber, Event::getDwcFieldNumber),
+      Pair.of(DwcTerm.eventDate, Event::getDwcEventDate),
+      Pair.of(DwcTerm.year, Event::getDwcYear),
+      Pair.of(DwcTerm.month, Event::getDwcMonth),
+      Pair.of(DwcTerm.day, Event::getDwcDay),
+      Pair.of(DwcTerm.verbatimEventDate, Event::getDwcVerbatimEventDate),
+      Pair.of(DwcTerm.habitat, Event::getDwcHabitat),
+      Pair.of(DwcTerm.samplingProtocol, Event::getDwcSamplingProtocol),
+      Pair.of(DwcTerm.eventRemarks, Event::getDwcEventRemarks)
+  );
+  private static final DwcaRowSchema EVENT_SCHEMA = new DwcaRowSchema(DwcTerm.Event,
+      EVENT_TERMS.stream().<Term>map(Pair::getLeft).toList());
+
+  private DigitalSpecimen specimen;
+  private Event event;
+
+  @Setup
+  public void setup() throws JsonProcessingException {
+    specimen = givenSpecimen();
+    event = specimen.getOdsHasEvents().getFirst();
+  }
+
+  @Benchmark
+  public Object mapTerms() {
+    var row = EVENT_SCHEMA.newRow();
+    ExportUtils.mapTerms(event, EVENT_TERMS, row);
+    return row;
+  }
+
+  @Benchmark
+  public String retrieveIdentifier() {
+    return ExportUtils.retrieveIdentifier(specimen,
+        List.of("dwc:catalogNumber", "dwc:recordNumber"));
+  }
+
+  @Benchmark
+  public String retrieveCombinedAgentName() {
+    return ExportUtils.retrieveCombinedAgentName(event.getOdsHasAgents(), null);
+  }
+
+}
@@ -2,27 +2,31 @@ package eu.dissco.exportjob;
 
 import eu.dissco.exportjob.component.JobRequestComponent;
 import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.properties.JobProperties;
 import eu.dissco.exportjob.service.AbstractExportJobService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.stereotype.Component;
 
 @Component
 @AllArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "worker.enabled", havingValue = "false", matchIfMissing = true)
 public class ProjectRunner implements CommandLineRunner {
 
-  private final AbstractExportJobService exportJobService;
+  private final AbstractExportJobService<?, ?> exportJobService;
 
   private final ConfigurableApplicationContext context;
   private final JobRequestComponent jobRequestComponent;
+  private final JobProperties jobProperties;
 
   @Override
   public void run(String... args) {
     try {
-      var request = jobRequestComponent.getJobRequest();
+      var request = jobRequestComponent.getJobRequest(jobProperties);
       exportJobService.handleMessage(request);
     } catch (FailedProcessingException e) {
       log.error("Fatal exception occurred", e);
@@ -0,0 +1,131 @@
+package eu.dissco.exportjob;
+
+import eu.dissco.exportjob.component.JobQueue;
+import eu.dissco.exportjob.component.JobRequestComponent;
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.WorkerProperties;
+import eu.dissco.exportjob.service.AbstractExportJobService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the application as a long-running worker. Instead of exporting the single job of the job
+ * properties and exiting, the worker takes its jobs from the job queue and exports up to the
+ * configured number of jobs at the same time. The Elasticsearch client, the database pool and the
+ * JIT-compiled code are shared by all jobs, so only the first job pays for the startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "worker.enabled", havingValue = "true")
+public class WorkerRunner implements CommandLineRunner {
+
+  private final AbstractExportJobService<?, ?> exportJobService;
+  private final ConfigurableApplicationContext context;
+  private final JobRequestComponent jobRequestComponent;
+  private final JobQueue jobQueue;
+  private final WorkerProperties properties;
+
+  private volatile boolean running = true;
+
+  @Override
+  public void run(String... args) {
+    var executor = createExecutor();
+    var slots = new Semaphore(properties.getConcurrentJobs());
+    try {
+      log.info("Starting worker with {} concurrent jobs", properties.getConcurrentJobs());
+      while (running) {
+        slots.acquire();
+        var job = pollJob();
+        if (job == null) {
+          slots.release();
+          if (properties.isExitWhenIdle()
+              && slots.availablePermits() == properties.getConcurrentJobs()) {
+            log.info("Job queue is empty, stopping worker");
+            break;
+          }
+          Thread.sleep(properties.getPollInterval().toMillis());
+        } else {
+          executor.execute(() -> {
+            try {
+              handleJob(job);
+            } finally {
+              slots.release();
+            }
+          });
+        }
+      }
+    } catch (InterruptedException e) {
+      log.warn("Worker has been interrupted");
+      Thread.currentThread().interrupt();
+    } finally {
+      awaitRunningJobs(executor);
+      log.info("Shutting down application");
+      context.close();
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    running = false;
+  }
+
+  private ExecutorService createExecutor() {
+    var threadCount = new AtomicInteger();
+    return Executors.newFixedThreadPool(properties.getConcurrentJobs(),
+        runnable -> new Thread(runnable, "export-worker-" + threadCount.incrementAndGet()));
+  }
+
+  private JobProperties pollJob() {
+    try {
+      return jobQueue.poll().orElse(null);
+    } catch (IOException e) {
+      log.error("Unable to poll the job queue", e);
+      return null;
+    }
+  }
+
+  /*
+   * A failed job must not stop the worker, it is logged (and marked as failed by the service) and
+   * the worker continues with the next job.
+   */
+  void handleJob(JobProperties job) {
+    try {
+      var request = jobRequestComponent.getJobRequest(job);
+      exportJobService.handleMessage(request);
+    } catch (FailedProcessingException | RuntimeException e) {
+      log.error("Failed to export job {}", job.getJobId(), e);
+    } finally {
+      try {
+        jobQueue.complete(job.getJobId());
+      } catch (IOException e) {
+        log.error("Unable to remove job {} from the queue", job.getJobId(), e);
+      }
+    }
+  }
+
+  private static void awaitRunningJobs(ExecutorService executor) {
+    executor.shutdown();
+    try {
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.info("Waiting for the running jobs to finish");
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
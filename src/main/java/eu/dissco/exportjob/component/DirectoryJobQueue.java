@@ -0,0 +1,164 @@
+package eu.dissco.exportjob.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.WorkerProperties;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job queue on a (shared) directory, as a stand-in until the exporter backend hands out jobs. Each
+ * job is a json file with the fields of the job properties, the files are taken in the order of
+ * their names. A job is claimed by atomically renaming its file, so multiple workers can share the
+ * directory. The file is removed when the job has been handled, files which cannot be parsed or do
+ * not describe a valid job are renamed to .failed. While a job is running, the modification time
+ * of its claimed file is refreshed. A claimed file which has not been refreshed within the claim
+ * timeout belongs to a worker which has stopped, its job is queued again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "worker.enabled", havingValue = "true")
+public class DirectoryJobQueue implements JobQueue, AutoCloseable {
+
+  private static final String JOB_SUFFIX = ".json";
+  private static final String RUNNING_SUFFIX = ".running";
+  private static final String FAILED_SUFFIX = ".failed";
+
+  private final Path queueDirectory;
+  private final Duration claimTimeout;
+  private final ObjectMapper mapper;
+  private final Validator validator;
+  private final Map<UUID, Path> claimedJobs = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService claimRefresher =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("job-claim-refresher").daemon().factory());
+
+  public DirectoryJobQueue(WorkerProperties properties, ObjectMapper mapper, Validator validator) {
+    this.queueDirectory = Path.of(properties.getQueueDirectory());
+    this.claimTimeout = properties.getClaimTimeout();
+    this.mapper = mapper;
+    this.validator = validator;
+    var refreshInterval = Math.max(1, claimTimeout.toMillis() / 4);
+    claimRefresher.scheduleAtFixedRate(this::refreshClaims, refreshInterval, refreshInterval,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Optional<JobProperties> poll() throws IOException {
+    requeueStaleClaims();
+    for (var jobFile : listJobFiles(JOB_SUFFIX)) {
+      var claimedFile = jobFile.resolveSibling(jobFile.getFileName() + RUNNING_SUFFIX);
+      try {
+        Files.move(jobFile, claimedFile, StandardCopyOption.ATOMIC_MOVE);
+      } catch (NoSuchFileException e) {
+        log.debug("Job file {} has been claimed by another worker", jobFile);
+        continue;
+      }
+      var job = readJob(jobFile, claimedFile);
+      if (job.isPresent()) {
+        claimedJobs.put(job.get().getJobId(), claimedFile);
+        log.info("Claimed job {} from {}", job.get().getJobId(), jobFile);
+        return job;
+      }
+      Files.move(claimedFile, jobFile.resolveSibling(jobFile.getFileName() + FAILED_SUFFIX),
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    return Optional.empty();
+  }
+
+  private Optional<JobProperties> readJob(Path jobFile, Path claimedFile) {
+    try {
+      var job = mapper.readValue(claimedFile.toFile(), JobProperties.class);
+      var violations = validator.validate(job);
+      if (violations.isEmpty()) {
+        return Optional.of(job);
+      }
+      violations.forEach(violation -> log.error("Invalid job file {}: {} {}", jobFile,
+          violation.getPropertyPath(), violation.getMessage()));
+    } catch (IOException e) {
+      log.error("Unable to read job file {}", jobFile, e);
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public void complete(UUID jobId) throws IOException {
+    var claimedFile = claimedJobs.remove(jobId);
+    if (claimedFile != null) {
+      Files.deleteIfExists(claimedFile);
+    }
+  }
+
+  /*
+   * Touches the claimed files of the running jobs, so other workers know the jobs are still running
+   */
+  void refreshClaims() {
+    var now = FileTime.from(Instant.now());
+    for (var claimedFile : claimedJobs.values()) {
+      try {
+        Files.setLastModifiedTime(claimedFile, now);
+      } catch (IOException e) {
+        log.warn("Unable to refresh the claim {}", claimedFile, e);
+      }
+    }
+  }
+
+  /*
+   * A worker which stopped without completing its jobs leaves their claimed files behind. Once they
+   * have not been refreshed within the claim timeout, the files are renamed back, so the jobs are
+   * picked up again.
+   */
+  private void requeueStaleClaims() throws IOException {
+    var staleBefore = FileTime.from(Instant.now().minus(claimTimeout));
+    for (var claimedFile : listJobFiles(JOB_SUFFIX + RUNNING_SUFFIX)) {
+      if (claimedJobs.containsValue(claimedFile)) {
+        continue;
+      }
+      var fileName = claimedFile.getFileName().toString();
+      var jobFile = claimedFile.resolveSibling(
+          fileName.substring(0, fileName.length() - RUNNING_SUFFIX.length()));
+      try {
+        if (Files.getLastModifiedTime(claimedFile).compareTo(staleBefore) < 0) {
+          Files.move(claimedFile, jobFile, StandardCopyOption.ATOMIC_MOVE);
+          log.warn("Queued job file {} again, its claim has not been refreshed since {}", jobFile,
+              staleBefore);
+        }
+      } catch (NoSuchFileException e) {
+        log.debug("Claim {} has been completed or queued again by another worker", claimedFile);
+      }
+    }
+  }
+
+  private List<Path> listJobFiles(String suffix) throws IOException {
+    try (var files = Files.list(queueDirectory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(suffix))
+          .sorted()
+          .toList();
+    }
+  }
+
+  @Override
+  public void close() {
+    claimRefresher.shutdownNow();
+  }
+
+}
@@ -0,0 +1,226 @@
+package eu.dissco.exportjob.component;
+
+import eu.dissco.exportjob.domain.DwcaRow;
+import eu.dissco.exportjob.domain.DwcaRowSchema;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.gbif.dwc.Archive;
+import org.gbif.dwc.ArchiveField;
+import org.gbif.dwc.ArchiveFile;
+import org.gbif.dwc.TabWriter;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.DwcaTerm;
+import org.gbif.dwc.terms.Term;
+
+/**
+ * The DwC-A of a single job. Each row type has its own lane, a spool file next to the archive with
+ * its own lock, so rows of different types can be written by multiple threads at the same time.
+ * Rows of the same type are written one batch at a time. When the session is closed, the spool
+ * files are copied one after the other into the zip, followed by the eml.xml and finally the
+ * meta.xml, which can only be written when all row types are known. The zip is written
+ * sequentially, so it can be streamed to its destination without a local copy of the archive.
+ */
+@Slf4j
+public class DwcaArchiveSession {
+
+  private static final int CORE_ID_COLUMN = 0;
+  private static final Term CORE = DwcTerm.Occurrence;
+  private static final Term CORE_ID_TERM = DwcaTerm.ID;
+  private static final String EML_FILE = "eml.xml";
+  private final Map<Term, Lane> lanes = new ConcurrentHashMap<>();
+  private final Path spoolDirectory;
+  private final Template freemarker;
+  private volatile String eml;
+
+  DwcaArchiveSession(Path tempFile, Template freemarker) throws IOException {
+    this.spoolDirectory = Files.createTempDirectory(tempFile.toAbsolutePath().getParent(),
+        "dwca-");
+    this.freemarker = freemarker;
+  }
+
+  private static ArchiveField getIdField() {
+    ArchiveField field = new ArchiveField();
+    field.setIndex(CORE_ID_COLUMN);
+    return field;
+  }
+
+  private static String getDataFileName(Term rowType) {
+    return rowType.simpleName() + ".tsv";
+  }
+
+  /*
+   * Can be called by multiple threads, each row type is locked while its rows are written
+   */
+  public void writeRecords(Map<Term, List<DwcaRow>> mappedResult) {
+    for (var entry : mappedResult.entrySet()) {
+      var rowType = entry.getKey();
+      var rows = entry.getValue();
+      if (rows.isEmpty()) {
+        log.debug("Row contains no values for this type: {}", rowType.simpleName());
+        continue;
+      }
+      var lane = getLane(rowType, rows.getFirst().getSchema());
+      lane.lock.lock();
+      try {
+        for (var row : rows) {
+          lane.write(row);
+        }
+      } finally {
+        lane.lock.unlock();
+      }
+    }
+  }
+
+  public void writeEml(String eml) {
+    this.eml = eml;
+  }
+
+  private Lane getLane(Term rowType, DwcaRowSchema schema) {
+    return lanes.computeIfAbsent(rowType, type -> {
+      try {
+        return new Lane(type, schema, getSpoolPath(type));
+      } catch (IOException e) {
+        throw new IllegalStateException(
+            "Failed to create spool file for type " + type.simpleName(), e);
+      }
+    });
+  }
+
+  private Path getSpoolPath(Term rowType) {
+    return spoolDirectory.resolve(getDataFileName(rowType));
+  }
+
+  /**
+   * Writes the archive to the stream. The stream is only closed when the archive has been written
+   * completely, so the caller can still discard a partially written archive when this fails.
+   */
+  public void close(OutputStream archiveStream) throws IOException, TemplateException {
+    try {
+      var archive = new Archive();
+      var sortedLanes = lanes.values().stream()
+          .sorted(Comparator.comparing((Lane lane) -> !CORE.equals(lane.rowType))
+              .thenComparing(lane -> lane.rowType.simpleName()))
+          .toList();
+      for (var lane : sortedLanes) {
+        lane.writer.close();
+        lane.addTo(archive);
+      }
+      var zipStream = new ZipOutputStream(new BufferedOutputStream(archiveStream));
+      for (var lane : sortedLanes) {
+        var spoolFile = getSpoolPath(lane.rowType);
+        zipStream.putNextEntry(new ZipEntry(getDataFileName(lane.rowType)));
+        Files.copy(spoolFile, zipStream);
+        zipStream.closeEntry();
+        Files.delete(spoolFile);
+      }
+      if (eml != null) {
+        zipStream.putNextEntry(new ZipEntry(EML_FILE));
+        zipStream.write(eml.getBytes(StandardCharsets.UTF_8));
+        zipStream.closeEntry();
+      }
+      writeMetaFile(zipStream, archive);
+      zipStream.close();
+    } finally {
+      deleteSpoolDirectory();
+    }
+  }
+
+  /**
+   * Removes the spool files without creating the archive, used when the job fails or has no
+   * results.
+   */
+  public void discard() throws IOException {
+    try {
+      for (var lane : lanes.values()) {
+        lane.writer.close();
+      }
+    } finally {
+      deleteSpoolDirectory();
+    }
+  }
+
+  private void writeMetaFile(ZipOutputStream zipStream, Archive archive)
+      throws IOException, TemplateException {
+    zipStream.putNextEntry(new ZipEntry(Archive.META_FN));
+    archive.setMetadataLocation(Archive.META_FN);
+    var writer = new OutputStreamWriter(zipStream, StandardCharsets.UTF_8);
+    freemarker.process(archive, writer);
+    writer.flush();
+    zipStream.closeEntry();
+  }
+
+  private void deleteSpoolDirectory() throws IOException {
+    if (Files.notExists(spoolDirectory)) {
+      return;
+    }
+    try (var spoolFiles = Files.list(spoolDirectory)) {
+      for (var spoolFile : spoolFiles.toList()) {
+        Files.delete(spoolFile);
+      }
+    }
+    Files.delete(spoolDirectory);
+  }
+
+  private static final class Lane {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Term rowType;
+    private final DwcaRowSchema schema;
+    private final TabWriter writer;
+
+    private Lane(Term rowType, DwcaRowSchema schema, Path spoolFile) throws IOException {
+      this.rowType = rowType;
+      this.schema = schema;
+      this.writer = new TabWriter(new BufferedOutputStream(Files.newOutputStream(spoolFile)));
+    }
+
+    private void write(DwcaRow row) {
+      if (row.getSchema() != schema) {
+        throw new IllegalArgumentException(
+            "Input rows are not equal to the defined mapping of " + schema.getTerms().size()
+                + " columns.");
+      }
+      try {
+        writer.write(row.getValues());
+      } catch (IOException e) {
+        log.error("Failed to write row for type {}: {}", rowType.simpleName(), e.getMessage());
+      }
+    }
+
+    private void addTo(Archive archive) {
+      ArchiveFile af = ArchiveFile.buildTabFile();
+      af.setEncoding("UTF-8");
+      af.setRowType(rowType);
+      af.addLocation(getDataFileName(rowType));
+      af.setId(getIdField());
+      var terms = schema.getTerms();
+      for (int i = 0; i < terms.size(); i++) {
+        ArchiveField field = new ArchiveField();
+        field.setTerm(terms.get(i));
+        field.setIndex(i);
+        af.addField(field);
+      }
+      if (CORE.equals(rowType)) {
+        af.getId().setTerm(CORE_ID_TERM);
+        archive.setCore(af);
+      } else {
+        archive.addExtension(af);
+      }
+    }
+  }
+}
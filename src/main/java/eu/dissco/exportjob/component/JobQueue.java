@@ -0,0 +1,26 @@
+package eu.dissco.exportjob.component;
+
+import eu.dissco.exportjob.properties.JobProperties;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Source of the jobs of a worker. A job is described by the same fields as the job properties of
+ * a single job run.
+ */
+public interface JobQueue {
+
+  /**
+   * Claims the next waiting job, so no other worker picks it up.
+   *
+   * @return the job, empty when no job is waiting
+   */
+  Optional<JobProperties> poll() throws IOException;
+
+  /**
+   * Removes a claimed job from the queue once it has been handled.
+   */
+  void complete(UUID jobId) throws IOException;
+
+}
@@ -17,10 +17,9 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class JobRequestComponent {
 
-  private final JobProperties properties;
   private final ExporterBackendClient client;
 
-  public JobRequest getJobRequest() throws FailedProcessingException {
+  public JobRequest getJobRequest(JobProperties properties) throws FailedProcessingException {
     var searchParams = new ArrayList<SearchParam>();
     if (properties.getInputFields().size() != properties.getInputValues().size()) {
       log.error("Mismatch between input fields and input values for searching");
@@ -0,0 +1,37 @@
+package eu.dissco.exportjob.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import eu.dissco.exportjob.properties.MetricsProperties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the metrics of each job to its own json file in the report directory.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "metrics.report-directory")
+public class JsonFileMetricsPublisher implements MetricsPublisher {
+
+  private final Path reportDirectory;
+  private final ObjectMapper mapper;
+
+  public JsonFileMetricsPublisher(MetricsProperties properties, ObjectMapper mapper) {
+    this.reportDirectory = Path.of(properties.getReportDirectory());
+    this.mapper = mapper;
+  }
+
+  @Override
+  public void publish(JobMetricsReport report) throws IOException {
+    Files.createDirectories(reportDirectory);
+    var reportFile = reportDirectory.resolve(report.jobId() + "-metrics.json");
+    mapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+    log.info("Written metrics of job {} to {}", report.jobId(), reportFile);
+  }
+
+}
@@ -0,0 +1,14 @@
+package eu.dissco.exportjob.component;
+
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import java.io.IOException;
+
+/**
+ * Destination of the metrics of a job, the report is published once when the job ends. A job
+ * publishes to all configured publishers, failing to publish does not fail the job.
+ */
+public interface MetricsPublisher {
+
+  void publish(JobMetricsReport report) throws IOException;
+
+}
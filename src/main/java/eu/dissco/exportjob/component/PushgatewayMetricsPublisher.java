@@ -0,0 +1,143 @@
+package eu.dissco.exportjob.component;
+
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import eu.dissco.exportjob.domain.JobMetricsReport.MeterSnapshot;
+import eu.dissco.exportjob.properties.MetricsProperties;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes the metrics of each job to a Prometheus pushgateway in the text exposition format. The
+ * metrics of a job are grouped by the job id, so pushing them replaces only the metrics of the same
+ * job. Each statistic of a meter becomes its own metric, for example export_stage_total for the
+ * total time of a stage. The meters of the process are labelled with scope="process", as they have
+ * the same names as the meters of the job but add up all jobs of the process. The samples are
+ * grouped by metric, each metric is preceded by its type.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "metrics.pushgateway-url")
+public class PushgatewayMetricsPublisher implements MetricsPublisher {
+
+  private static final Pattern INVALID_NAME_CHARACTERS = Pattern.compile("[^a-zA-Z0-9_]");
+  private static final String SCOPE_TAG = "scope";
+  private static final Set<String> COUNTER_STATISTICS = Set.of("count", "total");
+  private static final String COUNTER = "counter";
+  private static final String GAUGE = "gauge";
+
+  private final MetricsProperties properties;
+  private final HttpClient httpClient;
+
+  public PushgatewayMetricsPublisher(MetricsProperties properties) {
+    this(properties, HttpClient.newHttpClient());
+  }
+
+  PushgatewayMetricsPublisher(MetricsProperties properties, HttpClient httpClient) {
+    this.properties = properties;
+    this.httpClient = httpClient;
+  }
+
+  private static String sanitize(String name) {
+    return INVALID_NAME_CHARACTERS.matcher(name).replaceAll("_");
+  }
+
+  private static String escape(String labelValue) {
+    return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  @Override
+  public void publish(JobMetricsReport report) throws IOException {
+    var uri = URI.create(properties.getPushgatewayUrl().replaceAll("/+$", "")
+        + "/metrics/job/" + sanitize(properties.getPushgatewayJob())
+        + "/job_id/" + report.jobId());
+    var request = HttpRequest.newBuilder(uri)
+        .header("Content-Type", "text/plain; version=0.0.4")
+        .PUT(BodyPublishers.ofString(format(report), StandardCharsets.UTF_8))
+        .build();
+    try {
+      var response = httpClient.send(request, BodyHandlers.ofString());
+      if (response.statusCode() / 100 != 2) {
+        throw new IOException("Pushgateway responded with status " + response.statusCode()
+            + ": " + response.body());
+      }
+      log.info("Pushed metrics of job {} to {}", report.jobId(), uri);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while pushing metrics", e);
+    }
+  }
+
+  /*
+   * The exposition format requires all samples of a metric to be in one group, the samples of the
+   * job and process meters with the same name are therefore collected per metric first
+   */
+  String format(JobMetricsReport report) {
+    var families = new LinkedHashMap<String, MetricFamily>();
+    var jobTags = Map.of("job.type", report.jobType());
+    addSample(families, "export.job.duration.seconds", GAUGE, jobTags, report.durationSeconds());
+    addSample(families, "export.job.records", GAUGE, jobTags, report.records());
+    addSample(families, "export.job.records.per.second", GAUGE, jobTags,
+        report.recordsPerSecond());
+    for (var meter : report.meters()) {
+      addMeter(families, meter, meter.tags());
+    }
+    for (var meter : report.processMeters()) {
+      var processTags = new TreeMap<>(meter.tags());
+      processTags.put(SCOPE_TAG, "process");
+      addMeter(families, meter, processTags);
+    }
+    var body = new StringBuilder();
+    families.forEach((name, family) -> body.append("# TYPE ").append(name).append(' ')
+        .append(family.type()).append('\n').append(family.samples()));
+    return body.toString();
+  }
+
+  private static void addMeter(Map<String, MetricFamily> families, MeterSnapshot meter,
+      Map<String, String> tags) {
+    for (var measurement : meter.measurements().entrySet()) {
+      var type = COUNTER_STATISTICS.contains(measurement.getKey()) ? COUNTER : GAUGE;
+      addSample(families, meter.name() + "." + measurement.getKey(), type, tags,
+          measurement.getValue());
+    }
+  }
+
+  private static void addSample(Map<String, MetricFamily> families, String name, String type,
+      Map<String, String> tags, double value) {
+    var familyName = sanitize(name);
+    var samples = families.computeIfAbsent(familyName,
+        key -> new MetricFamily(type, new StringBuilder())).samples();
+    samples.append(familyName);
+    if (!tags.isEmpty()) {
+      samples.append(tags.entrySet().stream()
+          .map(tag -> sanitize(tag.getKey()) + "=\"" + escape(tag.getValue()) + "\"")
+          .collect(Collectors.joining(",", "{", "}")));
+    }
+    samples.append(' ').append(formatValue(value)).append('\n');
+  }
+
+  private static String formatValue(double value) {
+    if (Double.isInfinite(value)) {
+      return value > 0 ? "+Inf" : "-Inf";
+    }
+    return Double.toString(value);
+  }
+
+  private record MetricFamily(String type, StringBuilder samples) {
+
+  }
+
+}
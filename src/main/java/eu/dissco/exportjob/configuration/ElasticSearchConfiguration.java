@@ -8,11 +8,17 @@ import co.elastic.clients.transport.rest5_client.low_level.Rest5Client;
 import co.elastic.clients.transport.rest5_client.low_level.Rest5ClientBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import eu.dissco.exportjob.repository.ElasticsearchResponseSizes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.BaseUnits;
 import java.util.Base64;
 import lombok.RequiredArgsConstructor;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
 import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,8 +26,11 @@ import org.springframework.context.annotation.Configuration;
 @RequiredArgsConstructor
 public class ElasticSearchConfiguration {
 
+  static final String RESPONSE_BYTES_METRIC = "export.elasticsearch.response.bytes";
+
   private final ElasticSearchProperties properties;
   private final ObjectMapper mapper;
+  private final ElasticsearchResponseSizes responseSizes;
 
   @Bean
   public ElasticsearchClient elasticsearchClient() {
@@ -31,10 +40,38 @@ public class ElasticSearchConfiguration {
         .builder(new HttpHost(properties.getHostname(), properties.getPort()))
         .setDefaultHeaders(new Header[]{
             new BasicHeader("Authorization", "Basic " + creds)
-        });
+        })
+        .setHttpClientConfigCallback(
+            httpClient -> httpClient.addResponseInterceptorLast(
+                responseBytesInterceptor(responseSizes)));
     ElasticsearchTransport transport = new Rest5ClientTransport(restClient.build(),
-        new JacksonJsonpMapper());
+        new JacksonJsonpMapper(mapper));
     return new ElasticsearchClient(transport);
   }
 
+  /*
+   * Records the size of the responses as sent by Elasticsearch, responses without a content
+   * length are not recorded. The size of the response to a tagged request is also passed to the
+   * request.
+   */
+  private static HttpResponseInterceptor responseBytesInterceptor(
+      ElasticsearchResponseSizes responseSizes) {
+    var responseBytes = DistributionSummary.builder(RESPONSE_BYTES_METRIC)
+        .description("Size of the responses of Elasticsearch")
+        .baseUnit(BaseUnits.BYTES)
+        .register(Metrics.globalRegistry);
+    return (response, entity, context) -> {
+      if (entity == null || entity.getContentLength() < 0) {
+        return;
+      }
+      responseBytes.record(entity.getContentLength());
+      var request = HttpCoreContext.cast(context).getRequest();
+      var requestId = request == null ? null
+          : request.getFirstHeader(ElasticsearchResponseSizes.REQUEST_ID_HEADER);
+      if (requestId != null) {
+        responseSizes.record(requestId.getValue(), entity.getContentLength());
+      }
+    };
+  }
+
 }
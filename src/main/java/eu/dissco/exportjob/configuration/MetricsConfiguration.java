@@ -0,0 +1,23 @@
+package eu.dissco.exportjob.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+  /*
+   * The global registry only records into the registries added to it. This registry keeps the
+   * meters of the process, which are added to the report of each job.
+   */
+  @Bean
+  public MeterRegistry processMeterRegistry() {
+    var registry = new SimpleMeterRegistry();
+    Metrics.addRegistry(registry);
+    return registry;
+  }
+
+}
@@ -8,6 +8,7 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
 
 @Configuration
 @RequiredArgsConstructor
@@ -23,4 +24,13 @@ public class S3Configuration {
         .region(Region.EU_WEST_2)
         .build();
   }
+
+  /*
+   * The transfer manager is shared by all jobs of a worker. It does not close the client it was
+   * given, the client is closed by the application context when it shuts down.
+   */
+  @Bean
+  public S3TransferManager s3TransferManager(S3AsyncClient s3Client) {
+    return S3TransferManager.builder().s3Client(s3Client).build();
+  }
 }
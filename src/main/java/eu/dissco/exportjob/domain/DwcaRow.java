@@ -0,0 +1,30 @@
+package eu.dissco.exportjob.domain;
+
+import lombok.Getter;
+import org.gbif.dwc.terms.Term;
+
+/**
+ * A single row of a DwC-A data file, the values are stored in the columns of its schema so the row
+ * can be written without any conversion.
+ */
+public class DwcaRow {
+
+  @Getter
+  private final DwcaRowSchema schema;
+  @Getter
+  private final String[] values;
+
+  DwcaRow(DwcaRowSchema schema) {
+    this.schema = schema;
+    this.values = new String[schema.getTerms().size()];
+  }
+
+  public void set(Term term, String value) {
+    values[schema.column(term)] = value;
+  }
+
+  public String get(Term term) {
+    return values[schema.column(term)];
+  }
+
+}
@@ -0,0 +1,50 @@
+package eu.dissco.exportjob.domain;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.gbif.dwc.terms.Term;
+
+/**
+ * The fixed columns of a row type in the DwC-A. The column of each term is resolved once when the
+ * schema is created, rows of the schema store their values by column.
+ */
+public class DwcaRowSchema {
+
+  @Getter
+  private final Term rowType;
+  @Getter
+  private final List<Term> terms;
+  private final Map<Term, Integer> columns = new HashMap<>();
+
+  public DwcaRowSchema(Term rowType, List<Term> terms) {
+    if (terms.isEmpty()) {
+      throw new IllegalArgumentException(
+          "The schema for row type: " + rowType.simpleName() + " must not be empty.");
+    }
+    this.rowType = rowType;
+    this.terms = List.copyOf(terms);
+    for (int i = 0; i < terms.size(); i++) {
+      if (columns.putIfAbsent(terms.get(i), i) != null) {
+        throw new IllegalArgumentException(
+            "Term " + terms.get(i).simpleName() + " is defined twice for row type: "
+                + rowType.simpleName());
+      }
+    }
+  }
+
+  public DwcaRow newRow() {
+    return new DwcaRow(this);
+  }
+
+  int column(Term term) {
+    var column = columns.get(term);
+    if (column == null) {
+      throw new IllegalArgumentException(
+          "Term " + term.simpleName() + " is not part of row type: " + rowType.simpleName());
+    }
+    return column;
+  }
+
+}
@@ -0,0 +1,13 @@
+package eu.dissco.exportjob.domain;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import java.util.List;
+import java.util.UUID;
+
+public record JobCheckpoint(
+    UUID jobId,
+    List<FieldValue> searchAfter,
+    long resultsProcessed
+) {
+
+}
@@ -0,0 +1,29 @@
+package eu.dissco.exportjob.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record JobMetricsReport(
+    UUID jobId,
+    String jobType,
+    double durationSeconds,
+    long records,
+    double recordsPerSecond,
+    List<MeterSnapshot> meters,
+    List<MeterSnapshot> processMeters
+) {
+
+  /*
+   * The measurements of a meter at the end of the job, keyed by statistic, times are in seconds
+   */
+  public record MeterSnapshot(
+      String name,
+      Map<String, String> tags,
+      String type,
+      Map<String, Double> measurements
+  ) {
+
+  }
+
+}
@@ -0,0 +1,18 @@
+package eu.dissco.exportjob.domain;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import java.util.List;
+
+public record SearchPage<T>(
+    List<T> results,
+    List<FieldValue> searchAfter,
+    long tookMillis,
+    int pageSize,
+    long responseBytes
+) {
+
+  public SearchPage(List<T> results, List<FieldValue> searchAfter) {
+    this(results, searchAfter, 0, results.size(), -1);
+  }
+
+}
@@ -15,4 +15,8 @@ public class DwcDpProperties {
 
   @Positive
   private int dbPageSize = 10000;
+
+  // Number of DwC-DP classes that are written to csv concurrently, each uses its own connection
+  @Positive
+  private int postProcessThreads = 4;
 }
@@ -1,9 +1,13 @@
 package eu.dissco.exportjob.properties;
 
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import java.time.Duration;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -27,6 +31,35 @@ public class ElasticSearchProperties {
   @NotBlank
   private String digitalMediaObjectIndex = "digital-media";
 
+  // Page size of the first search request, when adaptive page size is enabled it is adapted after
   @NotNull
   private int pageSize = 300;
+
+  // Adapt the page size to the latency of the search requests and the free heap
+  private boolean adaptivePageSize = true;
+
+  // Bounds of the adapted page size
+  @Positive
+  private int minPageSize = 50;
+
+  @Positive
+  @Max(10000)
+  private int maxPageSize = 5000;
+
+  // Latency of a single search request the page size is adapted to
+  @NotNull
+  private Duration targetPageLatency = Duration.ofSeconds(2);
+
+  // Maximum size of the response of a single search request the page size is adapted to
+  @Positive
+  private long targetPageBytes = 16 * 1024 * 1024;
+
+  // Minimal free fraction of the heap, below it the page size is halved
+  @DecimalMin("0.0")
+  @DecimalMax("1.0")
+  private double minHeapHeadroom = 0.25;
+
+  // Keep alive of the point in time used when searching with multiple slices
+  @NotBlank
+  private String pitKeepAlive = "5m";
 }
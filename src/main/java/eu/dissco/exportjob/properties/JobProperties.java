@@ -5,12 +5,14 @@ import java.util.List;
 import java.util.UUID;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 @Data
 @Validated
 @ConfigurationProperties(prefix = "job")
+@ConditionalOnProperty(name = "worker.enabled", havingValue = "false", matchIfMissing = true)
 public class JobProperties {
 
   @NotNull
@@ -0,0 +1,23 @@
+package eu.dissco.exportjob.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "metrics")
+public class MetricsProperties {
+
+  // Directory to which the metrics of each job are written as json when the job ends
+  private String reportDirectory;
+
+  // Prometheus pushgateway to which the metrics of each job are pushed when the job ends
+  private String pushgatewayUrl;
+
+  // Job label of the metrics pushed to the pushgateway
+  @NotBlank
+  private String pushgatewayJob = "export-job";
+
+}
@@ -0,0 +1,54 @@
+package eu.dissco.exportjob.properties;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "pipeline")
+public class PipelineProperties {
+
+  // Number of search pages that can be prefetched while the current page is being processed
+  @Positive
+  private int queueDepth = 2;
+
+  // Number of slices of a point in time that are retrieved concurrently, 1 disables slicing
+  @Positive
+  private int slices = 1;
+
+  // Minimum number of results per slice, smaller exports are retrieved with fewer slices
+  @Positive
+  private int minSliceSize = 10000;
+
+  // Number of pages after which the search_after cursor of a resumable export is checkpointed
+  @Positive
+  private int checkpointInterval = 10;
+
+  // Checkpoints which have not been updated for this long are removed with their temp tables
+  @NotNull
+  private Duration checkpointMaxAge = Duration.ofDays(7);
+
+  // Map the search results of a page concurrently on virtual threads
+  private boolean concurrentMapping = true;
+
+  // Number of threads used to compress the gzip output of the DOI list export
+  @Positive
+  private int compressionThreads = 4;
+
+  // Number of digital media retrieved in a single request
+  @Positive
+  private int mediaBatchSize = 500;
+
+  // Number of digital media kept in memory, media shared by multiple specimens are retrieved once
+  @Positive
+  private int mediaCacheSize = 10000;
+
+  // Number of media requests that run concurrently
+  @Positive
+  private int mediaThreads = 2;
+
+}
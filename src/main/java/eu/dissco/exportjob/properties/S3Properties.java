@@ -1,6 +1,8 @@
 package eu.dissco.exportjob.properties;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -18,4 +20,12 @@ public class S3Properties {
 
   @NotBlank
   private String bucketName;
+
+  // Size of the parts of a streaming upload, S3 requires at least 5MiB for all but the last part
+  @Min(5 * 1024 * 1024)
+  private int partSize = 8 * 1024 * 1024;
+
+  // Number of parts of a streaming upload which can be uploading at the same time
+  @Positive
+  private int maxPendingParts = 4;
 }
@@ -0,0 +1,41 @@
+package eu.dissco.exportjob.properties;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "worker")
+@ConditionalOnProperty(name = "worker.enabled", havingValue = "true")
+public class WorkerProperties {
+
+  // Run as a long-running worker which takes its jobs from the queue instead of the job properties
+  private boolean enabled = false;
+
+  // Directory in which the job files are queued, see DirectoryJobQueue
+  @NotBlank
+  private String queueDirectory;
+
+  // Number of jobs which are exported at the same time
+  @Positive
+  private int concurrentJobs = 2;
+
+  // Time to wait before polling the queue again when it is empty
+  @NotNull
+  private Duration pollInterval = Duration.ofSeconds(10);
+
+  // Claimed job files which have not been refreshed for this long are of a worker which has
+  // stopped, their jobs are queued again
+  @NotNull
+  private Duration claimTimeout = Duration.ofMinutes(10);
+
+  // Stop the worker as soon as the queue is empty and all jobs have finished
+  private boolean exitWhenIdle = false;
+
+}
@@ -0,0 +1,120 @@
+package eu.dissco.exportjob.repository;
+
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adapts the page size of the search requests to the previous pages of the same documents. The
+ * latency is measured from sending the request until the documents have been parsed, the time
+ * Elasticsearch took to execute the search is reported by Elasticsearch. Fast pages grow the page
+ * size, pages of which the latency or the time Elasticsearch took is too long shrink it
+ * proportionally. Elasticsearch may take half of the target latency, the rest is left for the
+ * transfer and parsing of the page. The size of the responses limits the page size to the number of
+ * documents which fit in the target page bytes, so pages of small documents grow larger than pages
+ * of full specimens. When the free fraction of the heap drops below the configured headroom, the
+ * page size is halved regardless. The page size always stays within the configured bounds.
+ */
+@Slf4j
+class AdaptivePageSizer {
+
+  private static final double GROWTH_FACTOR = 1.5;
+  private static final double MIN_SHRINK_FACTOR = 0.5;
+
+  private final boolean enabled;
+  private final int minPageSize;
+  private final int maxPageSize;
+  private final long targetLatencyNanos;
+  private final long targetPageBytes;
+  private final double minHeapHeadroom;
+  private final DoubleSupplier heapHeadroom;
+  private final AtomicInteger pageSize;
+
+  AdaptivePageSizer(ElasticSearchProperties properties) {
+    this(properties, AdaptivePageSizer::currentHeapHeadroom);
+  }
+
+  AdaptivePageSizer(ElasticSearchProperties properties, DoubleSupplier heapHeadroom) {
+    this.enabled = properties.isAdaptivePageSize();
+    this.minPageSize = properties.getMinPageSize();
+    this.maxPageSize = properties.getMaxPageSize();
+    this.targetLatencyNanos = properties.getTargetPageLatency().toNanos();
+    this.targetPageBytes = properties.getTargetPageBytes();
+    this.minHeapHeadroom = properties.getMinHeapHeadroom();
+    this.heapHeadroom = heapHeadroom;
+    this.pageSize = new AtomicInteger(enabled ? clamp(properties.getPageSize())
+        : properties.getPageSize());
+  }
+
+  /*
+   * The heap in use is taken from the usage of the heap pools after their last collection. The
+   * current usage also counts the garbage which has not been collected yet, which would shrink the
+   * page size whenever a collection is due instead of when the live data does not fit.
+   */
+  private static double currentHeapHeadroom() {
+    var used = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getCollectionUsage)
+        .filter(Objects::nonNull)
+        .mapToLong(MemoryUsage::getUsed)
+        .sum();
+    return 1.0 - (double) used / Runtime.getRuntime().maxMemory();
+  }
+
+  int getPageSize() {
+    return pageSize.get();
+  }
+
+  /*
+   * Pages which returned fewer documents than requested are the last page of a search, their
+   * latency and size say nothing about a full page and they are ignored.
+   */
+  void recordPage(SearchPage<?> searchPage, long latencyNanos) {
+    var returnedSize = searchPage.results().size();
+    if (!enabled || returnedSize < searchPage.pageSize()) {
+      return;
+    }
+    var newSize = pageSize.updateAndGet(
+        current -> clamp(nextPageSize(current, searchPage, latencyNanos)));
+    log.debug("Page of {} documents ({} bytes) took {} ms, {} ms in Elasticsearch, "
+            + "next page size is {}", returnedSize, searchPage.responseBytes(),
+        latencyNanos / 1_000_000, searchPage.tookMillis(), newSize);
+  }
+
+  /*
+   * The load of a page is its latency relative to the target latency or the time Elasticsearch
+   * took relative to half of the target latency, whichever is higher
+   */
+  private int nextPageSize(int current, SearchPage<?> searchPage, long latencyNanos) {
+    if (heapHeadroom.getAsDouble() < minHeapHeadroom) {
+      return (int) (current * MIN_SHRINK_FACTOR);
+    }
+    var tookNanos = TimeUnit.MILLISECONDS.toNanos(searchPage.tookMillis());
+    var load = Math.max((double) latencyNanos / targetLatencyNanos,
+        (double) tookNanos / (targetLatencyNanos / 2));
+    var nextSize = current;
+    if (load > 1.5) {
+      nextSize = (int) (current * Math.max(MIN_SHRINK_FACTOR, 1 / load));
+    } else if (load < 0.5) {
+      nextSize = (int) Math.ceil(current * GROWTH_FACTOR);
+    }
+    if (searchPage.responseBytes() > 0) {
+      var bytesPerDocument = (double) searchPage.responseBytes() / searchPage.results().size();
+      nextSize = (int) Math.min(nextSize, targetPageBytes / bytesPerDocument);
+    }
+    return nextSize;
+  }
+
+  private int clamp(int size) {
+    return Math.clamp(size, minPageSize, maxPageSize);
+  }
+
+}
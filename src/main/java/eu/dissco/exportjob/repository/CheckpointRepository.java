@@ -0,0 +1,132 @@
+package eu.dissco.exportjob.repository;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.dissco.exportjob.Profiles;
+import eu.dissco.exportjob.domain.JobCheckpoint;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.JSONB;
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stores the search_after cursor of the last committed page of a job, so a restarted job with the
+ * same id can resume from there. The table is created by the job itself when it does not exist yet.
+ */
+@Slf4j
+@Repository
+@Profile(Profiles.DWC_DP)
+@RequiredArgsConstructor
+public class CheckpointRepository {
+
+  private static final Table<Record> CHECKPOINT = DSL.table(DSL.name("export_job_checkpoint"));
+  private static final Field<UUID> JOB_ID = DSL.field(DSL.name("job_id"), SQLDataType.UUID);
+  private static final Field<JSONB> SEARCH_AFTER = DSL.field(DSL.name("search_after"),
+      SQLDataType.JSONB);
+  private static final Field<Long> RESULTS_PROCESSED = DSL.field(DSL.name("results_processed"),
+      SQLDataType.BIGINT);
+  private static final Field<Instant> UPDATED = DSL.field(DSL.name("updated"),
+      SQLDataType.INSTANT);
+
+  private final DSLContext context;
+  private final ObjectMapper mapper;
+
+  @PostConstruct
+  public void createTable() {
+    context.createTableIfNotExists(CHECKPOINT)
+        .column(JOB_ID.getName(), SQLDataType.UUID.notNull())
+        .column(SEARCH_AFTER.getName(), SQLDataType.JSONB.notNull())
+        .column(RESULTS_PROCESSED.getName(), SQLDataType.BIGINT.notNull())
+        .column(UPDATED.getName(), SQLDataType.INSTANT.notNull())
+        .constraint(DSL.primaryKey(JOB_ID))
+        .execute();
+  }
+
+  public Optional<JobCheckpoint> getCheckpoint(UUID jobId) {
+    return context.select(SEARCH_AFTER, RESULTS_PROCESSED)
+        .from(CHECKPOINT)
+        .where(JOB_ID.eq(jobId))
+        .fetchOptional(dbRecord -> new JobCheckpoint(jobId,
+            toSearchAfter(dbRecord.get(SEARCH_AFTER)), dbRecord.get(RESULTS_PROCESSED)));
+  }
+
+  public void saveCheckpoint(JobCheckpoint checkpoint) {
+    var searchAfter = toJsonb(checkpoint.searchAfter());
+    var now = Instant.now();
+    context.insertInto(CHECKPOINT)
+        .set(JOB_ID, checkpoint.jobId())
+        .set(SEARCH_AFTER, searchAfter)
+        .set(RESULTS_PROCESSED, checkpoint.resultsProcessed())
+        .set(UPDATED, now)
+        .onConflict(JOB_ID)
+        .doUpdate()
+        .set(SEARCH_AFTER, searchAfter)
+        .set(RESULTS_PROCESSED, checkpoint.resultsProcessed())
+        .set(UPDATED, now)
+        .execute();
+  }
+
+  public List<UUID> getJobIdsUpdatedBefore(Instant updatedBefore) {
+    return context.select(JOB_ID)
+        .from(CHECKPOINT)
+        .where(UPDATED.lt(updatedBefore))
+        .fetch(JOB_ID);
+  }
+
+  public void deleteCheckpoint(UUID jobId) {
+    context.deleteFrom(CHECKPOINT).where(JOB_ID.eq(jobId)).execute();
+  }
+
+  /*
+   * The sort values are stored as a json array of their plain values
+   */
+  private JSONB toJsonb(List<FieldValue> searchAfter) {
+    try {
+      return JSONB.valueOf(mapper.writeValueAsString(
+          searchAfter.stream().map(value -> value.isNull() ? null : value._get()).toList()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to serialise the search_after cursor", e);
+    }
+  }
+
+  private List<FieldValue> toSearchAfter(JSONB jsonb) {
+    try {
+      var searchAfter = new ArrayList<FieldValue>();
+      for (var node : mapper.readTree(jsonb.data())) {
+        searchAfter.add(toFieldValue(node));
+      }
+      return searchAfter;
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to parse the search_after cursor", e);
+    }
+  }
+
+  private static FieldValue toFieldValue(JsonNode node) {
+    if (node.isIntegralNumber()) {
+      return FieldValue.of(node.asLong());
+    } else if (node.isNumber()) {
+      return FieldValue.of(node.asDouble());
+    } else if (node.isBoolean()) {
+      return FieldValue.of(node.asBoolean());
+    } else if (node.isNull()) {
+      return FieldValue.NULL;
+    }
+    return FieldValue.of(node.asText());
+  }
+
+}
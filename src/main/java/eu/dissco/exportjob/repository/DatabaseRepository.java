@@ -1,18 +1,25 @@
 package eu.dissco.exportjob.repository;
 
+import com.opencsv.CSVWriter;
 import eu.dissco.exportjob.Profiles;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jooq.DSLContext;
+import org.jooq.DataType;
 import org.jooq.Field;
-import org.jooq.Query;
 import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.postgresql.PGConnection;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
@@ -22,16 +29,23 @@ import org.springframework.stereotype.Repository;
 @RequiredArgsConstructor
 public class DatabaseRepository {
 
-  private final Field<String> uniqueIDField = DSL.field("id", String.class);
-  private final Field<byte[]> dataField = DSL.field("data", byte[].class);
+  private static final Map<Class<?>, DataType<?>> COLUMN_TYPES = Map.of(
+      String.class, SQLDataType.CLOB,
+      Integer.class, SQLDataType.INTEGER,
+      Double.class, SQLDataType.DOUBLE,
+      Boolean.class, SQLDataType.BOOLEAN
+  );
+
+  private final Field<String> uniqueIDField = DSL.field(DSL.name("id"), String.class);
+  private final Map<Class<?>, List<java.lang.reflect.Field>> beanFields = new ConcurrentHashMap<>();
 
   private final DSLContext context;
 
-  public void createTable(String tableName) {
+  public void createTable(String tableName, Class<?> clazz) {
     dropTable(tableName);
     context.createTable(tableName)
         .column(uniqueIDField)
-        .column(dataField)
+        .columns(getColumns(clazz))
         .execute();
     context.createUniqueIndex().on(tableName, "id").execute();
   }
@@ -40,33 +54,95 @@ public class DatabaseRepository {
     context.dropTableIfExists(tempTableName).execute();
   }
 
-  public void insertRecords(String tableName, List<Pair<String, Object>> value) throws IOException {
-    var queries = new ArrayList<Query>();
-    for (Pair<String, Object> pair : value) {
-      Query query = createQuery(tableName, pair);
-      queries.add(query);
-    }
-    context.batch(queries).execute();
-  }
-
-  private Query createQuery(String tableName, Pair<String, Object> stringObjectPair)
+  /*
+   * The records are streamed with COPY into a temporary staging table, which is dropped at the end
+   * of the transaction. From there they are inserted into the table, skipping ids which are already
+   * present.
+   */
+  public void insertRecords(String tableName, Class<?> clazz, List<Pair<String, Object>> records)
       throws IOException {
-    try (var baos = new ByteArrayOutputStream();
-        var out = new ObjectOutputStream(baos)) {
-      out.writeObject(stringObjectPair.getRight());
-      return context.insertInto(DSL.table("\"" + tableName + "\""))
-          .columns(uniqueIDField, dataField)
-          .values(stringObjectPair.getLeft(), baos.toByteArray())
-          .onConflictDoNothing();
-    }
+    var stagingTable = DSL.table(DSL.name(tableName + "_staging"));
+    var copyStatement = "COPY \"" + tableName + "_staging\" (" + getColumnNames(clazz)
+        + ") FROM STDIN (FORMAT csv)";
+    var csv = toCsv(clazz, records);
+    context.transaction(configuration -> {
+      var transactionContext = DSL.using(configuration);
+      transactionContext.createTemporaryTable(stagingTable)
+          .as(transactionContext.selectFrom(DSL.table(DSL.name(tableName))))
+          .withNoData()
+          .onCommitDrop()
+          .execute();
+      transactionContext.connection(connection -> connection.unwrap(PGConnection.class)
+          .getCopyAPI().copyIn(copyStatement, new StringReader(csv)));
+      transactionContext.insertInto(DSL.table(DSL.name(tableName)))
+          .select(transactionContext.select(DSL.asterisk()).distinctOn(uniqueIDField)
+              .from(stagingTable))
+          .onConflictDoNothing()
+          .execute();
+    });
   }
 
-  public List<byte[]> getRecords(String tableName, int start, int limit) {
+  /*
+   * Keyset pagination over the unique id index, the next page starts after the last id of the
+   * previous page. This avoids rescanning the skipped rows on each page.
+   */
+  public <T> List<Pair<String, T>> getRecords(String tableName, Class<T> clazz, String lastId,
+      int limit) {
+    var fields = new ArrayList<Field<?>>();
+    fields.add(uniqueIDField);
+    fields.addAll(getColumns(clazz));
     return context
-        .select(dataField)
-        .from(tableName)
-        .offset(start)
+        .select(fields)
+        .from(DSL.table(DSL.name(tableName)))
+        .where(lastId == null ? DSL.noCondition() : uniqueIDField.gt(lastId))
+        .orderBy(uniqueIDField)
         .limit(limit)
-        .fetch().getValues(dataField);
+        .fetch(dbRecord -> Pair.of(dbRecord.get(uniqueIDField), dbRecord.into(clazz)));
+  }
+
+  String toCsv(Class<?> clazz, List<Pair<String, Object>> records) throws IOException {
+    var fields = getBeanFields(clazz);
+    var writer = new StringWriter();
+    try (var csvWriter = new CSVWriter(writer)) {
+      for (var pair : records) {
+        var row = new String[fields.size() + 1];
+        row[0] = pair.getLeft();
+        for (int i = 0; i < fields.size(); i++) {
+          var value = fields.get(i).get(pair.getRight());
+          row[i + 1] = value == null ? null : String.valueOf(value);
+        }
+        csvWriter.writeNext(row);
+      }
+    } catch (IllegalAccessException e) {
+      throw new IOException("Unable to read the record values", e);
+    }
+    return writer.toString();
+  }
+
+  private String getColumnNames(Class<?> clazz) {
+    var columns = new ArrayList<String>();
+    columns.add(uniqueIDField.getName());
+    getBeanFields(clazz).forEach(field -> columns.add(field.getName()));
+    return columns.stream().map(column -> "\"" + column + "\"").collect(Collectors.joining(", "));
+  }
+
+  private List<Field<?>> getColumns(Class<?> clazz) {
+    return getBeanFields(clazz).stream()
+        .<Field<?>>map(field -> DSL.field(DSL.name(field.getName()),
+            COLUMN_TYPES.getOrDefault(field.getType(), SQLDataType.CLOB)))
+        .toList();
+  }
+
+  private List<java.lang.reflect.Field> getBeanFields(Class<?> clazz) {
+    return beanFields.computeIfAbsent(clazz, beanClass -> {
+      var fields = new ArrayList<java.lang.reflect.Field>();
+      for (var field : beanClass.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          field.setAccessible(true);
+          fields.add(field);
+        }
+      }
+      return fields;
+    });
   }
 }
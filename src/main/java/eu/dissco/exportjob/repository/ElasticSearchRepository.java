@@ -1,31 +1,48 @@
 package eu.dissco.exportjob.repository;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.get.GetResult;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.dissco.exportjob.domain.SearchPage;
 import eu.dissco.exportjob.domain.SearchParam;
 import eu.dissco.exportjob.domain.TargetType;
 import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import eu.dissco.exportjob.schema.DigitalMedia;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import lombok.RequiredArgsConstructor;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class ElasticSearchRepository {
 
   private static final String SORT_BY = "dcterms:identifier.keyword";
+  private static final String SHARD_DOC = "_shard_doc";
   private final ElasticsearchClient client;
   private final ElasticSearchProperties properties;
+  private final ElasticsearchResponseSizes responseSizes;
+  private final Map<List<String>, AdaptivePageSizer> pageSizers = new ConcurrentHashMap<>();
+
+  public ElasticSearchRepository(ElasticsearchClient client, ElasticSearchProperties properties,
+      ElasticsearchResponseSizes responseSizes) {
+    this.client = client;
+    this.properties = properties;
+    this.responseSizes = responseSizes;
+  }
 
   private static List<Query> generateQuery(List<SearchParam> searchParams) {
     var qList = new ArrayList<Query>();
@@ -50,50 +67,163 @@ public class ElasticSearchRepository {
     return qList;
   }
 
-  public List<JsonNode> getTargetObjects(List<SearchParam> searchParams, TargetType targetType,
-      String lastId, List<String> targetFields)
-      throws IOException {
+  public <T> SearchPage<T> getTargetObjects(List<SearchParam> searchParams,
+      TargetType targetType, List<FieldValue> searchAfter, List<String> targetFields,
+      Class<T> documentClass) throws IOException {
     var query = generateQuery(searchParams);
     var index = getIndex(targetType);
 
-    return retrieveObjects(lastId, properties.getPageSize(), targetFields, index, query);
+    return retrieveObjects(searchAfter, targetFields, index, query, documentClass);
+  }
+
+  /*
+   * The page size is adapted separately for each set of target fields, as the size of the
+   * documents depends on the fields. Jobs of the same profile share their page sizer, jobs of
+   * different profiles do not affect each other.
+   */
+  private AdaptivePageSizer pageSizer(List<String> targetFields) {
+    return pageSizers.computeIfAbsent(Objects.requireNonNullElse(targetFields, List.of()),
+        fields -> new AdaptivePageSizer(properties));
+  }
+
+  /*
+   * Counts the objects matching the search once, so the pages of the search itself do not need to
+   * track the total number of hits
+   */
+  public long countTargetObjects(List<SearchParam> searchParams, TargetType targetType)
+      throws IOException {
+    var query = generateQuery(searchParams);
+    var response = client.count(count -> count
+        .index(getIndex(targetType))
+        .query(q -> q.bool(b -> b.must(query))));
+    return response.count();
+  }
+
+  /*
+   * Retrieves the media with a single multi get request, media which do not exist are skipped.
+   * The media are keyed by the id of their document, which is the id by which they are requested.
+   * Their @id can differ from it, for example by the prefix of the DOI.
+   */
+  public Map<String, DigitalMedia> getTargetMediaById(List<String> mediaIds) throws IOException {
+    if (mediaIds.isEmpty()) {
+      return Map.of();
+    }
+    var response = client.mget(mget -> mget
+        .index(properties.getDigitalMediaObjectIndex())
+        .ids(mediaIds), DigitalMedia.class);
+    return response.docs().stream()
+        .filter(MultiGetResponseItem::isResult)
+        .map(MultiGetResponseItem::result)
+        .filter(GetResult::found)
+        .filter(result -> result.source() != null)
+        .collect(Collectors.toMap(GetResult::id, GetResult::source, (a, b) -> a,
+            LinkedHashMap::new));
+  }
+
+  public String openPointInTime(TargetType targetType) throws IOException {
+    var response = client.openPointInTime(pit -> pit
+        .index(getIndex(targetType))
+        .keepAlive(t -> t.time(properties.getPitKeepAlive())));
+    log.info("Opened point in time for index {}", getIndex(targetType));
+    return response.id();
   }
 
-  public List<JsonNode> getTargetMediaById(List<String> mediaIds) throws IOException {
-    var queries = mediaIds.stream().map(media -> new Query.Builder()
-        .ids(id -> id.values(mediaIds))
-        .build()).toList();
-    var index = properties.getDigitalMediaObjectIndex();
-    return retrieveObjects(null, null, null, index, queries);
+  public void closePointInTime(String pitId) throws IOException {
+    client.closePointInTime(pit -> pit.id(pitId));
   }
 
-  private List<JsonNode> retrieveObjects(String lastId, Integer pageSize, List<String> targetFields,
-      String index, List<Query> query) throws IOException {
+  /*
+   * Retrieves a page of a single slice of the point in time. Each slice is sorted on _shard_doc,
+   * the returned searchAfter is the cursor for the next page of the same slice.
+   */
+  public <T> SearchPage<T> getTargetObjectsSlice(List<SearchParam> searchParams, String pitId,
+      int sliceId, int sliceMax, List<FieldValue> searchAfter, List<String> targetFields,
+      Class<T> documentClass) throws IOException {
+    var query = generateQuery(searchParams);
+    var pageSizer = pageSizer(targetFields);
+    var pageSize = pageSizer.getPageSize();
+    var searchRequestBuilder = new SearchRequest.Builder()
+        .pit(pit -> pit.id(pitId).keepAlive(t -> t.time(properties.getPitKeepAlive())))
+        .slice(slice -> slice.id(String.valueOf(sliceId)).max(sliceMax))
+        .query(q -> q.bool(b -> b.must(query)))
+        .trackTotalHits(t -> t.enabled(Boolean.FALSE))
+        .size(pageSize)
+        .sort(s -> s.field(f -> f.field(SHARD_DOC).order(SortOrder.Asc)));
+    if (searchAfter != null) {
+      searchRequestBuilder.searchAfter(searchAfter);
+    }
+    if (targetFields != null) {
+      searchRequestBuilder
+          .source(sourceConfig -> sourceConfig
+              .filter(filter -> filter.includes(targetFields)));
+    }
+    return search(searchRequestBuilder.build(), pageSizer, pageSize, searchAfter, documentClass);
+  }
+
+  private <T> SearchPage<T> retrieveObjects(List<FieldValue> searchAfter,
+      List<String> targetFields, String index, List<Query> query, Class<T> documentClass)
+      throws IOException {
+    var pageSizer = pageSizer(targetFields);
+    var pageSize = pageSizer.getPageSize();
     var searchRequestBuilder = new SearchRequest.Builder()
         .index(index)
         .query(
             q -> q.bool(b -> b.must(query)))
-        .trackTotalHits(t -> t.enabled(Boolean.TRUE))
-        .size(properties.getPageSize())
+        .trackTotalHits(t -> t.enabled(Boolean.FALSE))
+        .size(pageSize)
         .sort(s -> s.field(f -> f.field(SORT_BY).order(SortOrder.Desc)));
-    if (pageSize != null) {
-      searchRequestBuilder.size(pageSize);
-    }
-    if (lastId != null) {
-      searchRequestBuilder
-          .searchAfter(sa -> sa.stringValue(lastId));
+    if (searchAfter != null) {
+      searchRequestBuilder.searchAfter(searchAfter);
     }
     if (targetFields != null) {
       searchRequestBuilder
           .source(sourceConfig -> sourceConfig
               .filter(filter -> filter.includes(targetFields)));
     }
-    var searchResult = client.search(searchRequestBuilder.build(), ObjectNode.class);
-    return searchResult.hits().hits().stream()
+    return search(searchRequestBuilder.build(), pageSizer, pageSize, searchAfter, documentClass);
+  }
+
+  /*
+   * The latency of each page is measured including the parsing of the documents. The request is
+   * tagged with a request id, by which the size of its response is taken from the response sizes.
+   */
+  private <T> SearchPage<T> search(SearchRequest searchRequest, AdaptivePageSizer pageSizer,
+      int pageSize, List<FieldValue> searchAfter, Class<T> documentClass) throws IOException {
+    var requestId = UUID.randomUUID().toString();
+    var start = System.nanoTime();
+    SearchResponse<T> searchResponse;
+    long responseBytes;
+    try {
+      searchResponse = client
+          .withTransportOptions(options -> options
+              .addHeader(ElasticsearchResponseSizes.REQUEST_ID_HEADER, requestId))
+          .search(searchRequest, documentClass);
+    } finally {
+      responseBytes = responseSizes.take(requestId);
+    }
+    var searchPage = toSearchPage(searchResponse, searchAfter, pageSize, responseBytes);
+    pageSizer.recordPage(searchPage, System.nanoTime() - start);
+    return searchPage;
+  }
+
+  /*
+   * The _source of each hit is parsed by the client straight into the document class. The sort
+   * values of the last hit are the cursor for the next page. The time Elasticsearch took to execute
+   * the search is kept, so it can be told apart from the transfer and parsing of the page.
+   */
+  private static <T> SearchPage<T> toSearchPage(SearchResponse<T> searchResponse,
+      List<FieldValue> searchAfter, int pageSize, long responseBytes) {
+    var hits = searchResponse.hits().hits();
+    if (hits.isEmpty()) {
+      return new SearchPage<>(List.of(), searchAfter, searchResponse.took(), pageSize,
+          responseBytes);
+    }
+    var results = hits.stream()
         .map(Hit::source)
         .filter(Objects::nonNull)
-        .map(JsonNode.class::cast)
         .toList();
+    return new SearchPage<>(results, hits.getLast().sort(), searchResponse.took(), pageSize,
+        responseBytes);
   }
 
   private String getIndex(TargetType targetType) {
@@ -101,8 +231,4 @@ public class ElasticSearchRepository {
         : properties.getDigitalMediaObjectIndex();
   }
 
-  public void shutdown() throws IOException {
-    client._transport().close();
-  }
-
 }
@@ -0,0 +1,32 @@
+package eu.dissco.exportjob.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Passes the size of an Elasticsearch response from the http client to the request which sent it.
+ * The size is only known to a response interceptor of the http client, which sees the http
+ * messages but not the search. Requests which want to know the size of their response are tagged
+ * with a request id header, the interceptor records the size by that id.
+ */
+@Component
+public class ElasticsearchResponseSizes {
+
+  public static final String REQUEST_ID_HEADER = "X-Export-Request-Id";
+
+  private final Map<String, Long> responseBytes = new ConcurrentHashMap<>();
+
+  public void record(String requestId, long bytes) {
+    responseBytes.put(requestId, bytes);
+  }
+
+  /*
+   * Returns -1 when the size is unknown, for example because the response had no content length
+   */
+  public long take(String requestId) {
+    var bytes = responseBytes.remove(requestId);
+    return bytes == null ? -1 : bytes;
+  }
+
+}
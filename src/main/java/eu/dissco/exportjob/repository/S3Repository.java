@@ -18,13 +18,14 @@ import software.amazon.awssdk.transfer.s3.S3TransferManager;
 public class S3Repository {
 
   private final S3AsyncClient s3Client;
+  private final S3TransferManager transferManager;
   private final DateTimeFormatter formatter;
   private final S3Properties properties;
 
   public String uploadResults(File file, UUID jobId, String fileExtension) throws S3UploadException {
     log.info("Uploading results to S3");
     var key = getDate() + "/" + jobId + fileExtension;
-    try (var transferManager = S3TransferManager.builder().s3Client(s3Client).build()) {
+    try {
       var upload = transferManager
           .uploadFile(uploadFileRequest -> uploadFileRequest
               .putObjectRequest(putObjectRequest -> putObjectRequest
@@ -33,21 +34,28 @@ public class S3Repository {
               .source(file));
       upload.completionFuture().join();
       log.info("Successfully uploaded results to S3");
-      var url = s3Client.utilities().getUrl(
+      return s3Client.utilities().getUrl(
               builder -> builder
                   .bucket(properties.getBucketName())
                   .key(key))
           .toString();
-      s3Client.close();
-      return url;
-    }
-    catch (Exception e){
+    } catch (Exception e) {
       log.error("An error has occurred of type {}", e.getClass(), e);
-      s3Client.close();
       throw new S3UploadException();
     }
   }
 
+  /*
+   * Opens a stream which uploads the results while they are being written, the upload is completed
+   * when the stream is closed.
+   */
+  public S3UploadOutputStream openUpload(UUID jobId, String fileExtension) {
+    var key = getDate() + "/" + jobId + fileExtension;
+    log.info("Streaming results to S3 with key {}", key);
+    return new S3UploadOutputStream(s3Client, properties.getBucketName(), key,
+        properties.getPartSize(), properties.getMaxPendingParts());
+  }
+
   private String getDate() {
     return formatter.format(Instant.now());
   }
@@ -0,0 +1,185 @@
+package eu.dissco.exportjob.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * Output stream which uploads the written bytes to S3 while they are being written. The bytes are
+ * buffered in parts, as soon as a part is full it is uploaded as part of a multipart upload. The
+ * number of parts that are uploading at the same time is bounded, when the limit is reached the
+ * writer waits for the oldest part to finish. Closing the stream uploads the last part and completes
+ * the upload. When all bytes fit in a single part, they are uploaded with a single put request.
+ */
+@Slf4j
+public class S3UploadOutputStream extends OutputStream {
+
+  private final S3AsyncClient s3Client;
+  private final String bucketName;
+  private final String key;
+  private final int partSize;
+  private final int maxPendingParts;
+  private final List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+  private final Deque<CompletableFuture<CompletedPart>> pendingParts = new ArrayDeque<>();
+  private byte[] buffer;
+  private int bufferLength = 0;
+  private long size = 0;
+  private String uploadId;
+  private boolean closed = false;
+  private boolean aborted = false;
+
+  S3UploadOutputStream(S3AsyncClient s3Client, String bucketName, String key, int partSize,
+      int maxPendingParts) {
+    this.s3Client = s3Client;
+    this.bucketName = bucketName;
+    this.key = key;
+    this.partSize = partSize;
+    this.maxPendingParts = maxPendingParts;
+    this.buffer = new byte[partSize];
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  /*
+   * Bytes written after the upload has been aborted are discarded, so the stream can still be
+   * closed by the writers wrapping it.
+   */
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (aborted) {
+      return;
+    }
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    size += length;
+    while (length > 0) {
+      var copyLength = Math.min(length, partSize - bufferLength);
+      System.arraycopy(bytes, offset, buffer, bufferLength, copyLength);
+      bufferLength += copyLength;
+      offset += copyLength;
+      length -= copyLength;
+      if (bufferLength == partSize) {
+        uploadPart();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed || aborted) {
+      return;
+    }
+    closed = true;
+    try {
+      if (uploadId == null) {
+        s3Client.putObject(PutObjectRequest.builder().bucket(bucketName).key(key).build(),
+            AsyncRequestBody.fromBytesUnsafe(Arrays.copyOf(buffer, bufferLength))).join();
+      } else {
+        if (bufferLength > 0) {
+          uploadPart();
+        }
+        var completedParts = parts.stream().map(CompletableFuture::join).toList();
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .uploadId(uploadId)
+            .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+            .build()).join();
+      }
+      log.info("Successfully uploaded {} to S3", key);
+    } catch (CompletionException e) {
+      abort();
+      throw new IOException("Failed to upload " + key + " to S3", e.getCause());
+    }
+  }
+
+  /**
+   * Aborts the multipart upload, if one has been started. No object is created in the bucket.
+   */
+  public void abort() {
+    if (aborted) {
+      return;
+    }
+    aborted = true;
+    buffer = null;
+    if (uploadId != null) {
+      log.info("Aborting upload of {} to S3", key);
+      parts.forEach(part -> part.cancel(true));
+      try {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .uploadId(uploadId)
+            .build()).join();
+      } catch (CompletionException e) {
+        log.error("Failed to abort upload {} of {}", uploadId, key, e.getCause());
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes written to the stream
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public String getUrl() {
+    return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(key)).toString();
+  }
+
+  private void uploadPart() throws IOException {
+    try {
+      if (uploadId == null) {
+        uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .build()).join().uploadId();
+      }
+      var partNumber = parts.size() + 1;
+      var partBytes = bufferLength == partSize ? buffer : Arrays.copyOf(buffer, bufferLength);
+      var part = s3Client.uploadPart(UploadPartRequest.builder()
+                  .bucket(bucketName)
+                  .key(key)
+                  .uploadId(uploadId)
+                  .partNumber(partNumber)
+                  .build(),
+              AsyncRequestBody.fromBytesUnsafe(partBytes))
+          .thenApply(response -> CompletedPart.builder()
+              .partNumber(partNumber)
+              .eTag(response.eTag())
+              .build());
+      parts.add(part);
+      pendingParts.addLast(part);
+      buffer = new byte[partSize];
+      bufferLength = 0;
+      while (pendingParts.size() > maxPendingParts) {
+        pendingParts.removeFirst().join();
+      }
+    } catch (CompletionException e) {
+      abort();
+      throw new IOException("Failed to upload part of " + key + " to S3", e.getCause());
+    }
+  }
+
+}
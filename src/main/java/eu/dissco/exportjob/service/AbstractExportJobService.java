@@ -1,23 +1,30 @@
 package eu.dissco.exportjob.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import eu.dissco.exportjob.Profiles;
+import eu.dissco.exportjob.component.MetricsPublisher;
+import eu.dissco.exportjob.domain.JobCheckpoint;
 import eu.dissco.exportjob.domain.JobRequest;
 import eu.dissco.exportjob.domain.JobStateEndpoint;
 import eu.dissco.exportjob.exceptions.FailedProcessingException;
 import eu.dissco.exportjob.exceptions.S3UploadException;
 import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
+import eu.dissco.exportjob.service.JobMetrics.Stage;
 import eu.dissco.exportjob.web.ExporterBackendClient;
-import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.env.Environment;
@@ -26,7 +33,7 @@ import org.springframework.stereotype.Service;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public abstract class AbstractExportJobService {
+public abstract class AbstractExportJobService<T, C extends JobContext> {
 
   protected static final String ID_FIELD = "dcterms:identifier";
   protected static final String PHYSICAL_ID_FIELD = "ods:physicalSpecimenID";
@@ -38,57 +45,196 @@ public abstract class AbstractExportJobService {
   protected final ElasticSearchRepository elasticSearchRepository;
   protected final IndexProperties indexProperties;
   private final ExporterBackendClient exporterBackendClient;
-  private final S3Repository s3Repository;
+  protected final S3Repository s3Repository;
   private final Environment environment;
   private final SourceSystemRepository sourceSystemRepository;
+  protected final PipelineProperties pipelineProperties;
+  private final List<MetricsPublisher> metricsPublishers;
 
   public void handleMessage(JobRequest jobRequest) throws FailedProcessingException {
+    var metrics = new JobMetrics(jobRequest.jobId(), jobType());
+    var jobContext = createJobContext(jobRequest, tempFile(jobRequest), metrics);
     try {
       exporterBackendClient.updateJobState(jobRequest.jobId(), JobStateEndpoint.RUNNING);
-      var uploadData = processRequest(jobRequest);
+      var uploadData = processRequest(jobContext);
       if (uploadData) {
-        postProcessResults(jobRequest);
-        var url = s3Repository.uploadResults(new File(indexProperties.getTempFileLocation()),
-            jobRequest.jobId(), extensionMap.get(environment.getActiveProfiles()[0]));
+        postProcessResults(jobContext);
+        var url = uploadResults(jobContext);
         log.info("S3 results available at {}", url);
         exporterBackendClient.markJobAsComplete(jobRequest.jobId(), url);
       } else {
         log.warn("No results found for job {}", jobRequest.jobId());
         exporterBackendClient.markJobAsComplete(jobRequest.jobId(), null);
       }
+      deleteCheckpoint(jobRequest);
       log.info("Successfully completed job {}", jobRequest.jobId());
     } catch (IOException | S3UploadException | FailedProcessingException e) {
       log.error("An error has occurred", e);
       exporterBackendClient.updateJobState(jobRequest.jobId(), JobStateEndpoint.FAILED);
+    } finally {
+      cleanupJob(jobContext);
+      publishMetrics(metrics);
     }
   }
 
-  protected boolean processRequest(JobRequest jobRequest)
+  /*
+   * The metrics are published after the job has been marked as complete or failed, a failure to
+   * publish them is only logged
+   */
+  private void publishMetrics(JobMetrics metrics) {
+    metrics.close();
+    var report = metrics.report();
+    log.info("Job {} processed {} search results in {} seconds, {} results per second",
+        report.jobId(), report.records(), Math.round(report.durationSeconds()),
+        Math.round(report.recordsPerSecond()));
+    for (var metricsPublisher : metricsPublishers) {
+      try {
+        metricsPublisher.publish(report);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Unable to publish the metrics of job {}", report.jobId(), e);
+      }
+    }
+  }
+
+  /*
+   * Each job writes to its own temp file next to the configured location, so concurrent jobs of a
+   * worker do not overwrite each other
+   */
+  private Path tempFile(JobRequest jobRequest) {
+    var location = Path.of(indexProperties.getTempFileLocation());
+    return location.resolveSibling(jobRequest.jobId() + "-" + location.getFileName());
+  }
+
+  protected boolean processRequest(C jobContext)
       throws IOException, FailedProcessingException {
-    String lastId = null;
-    writeHeaderToFile();
-    boolean keepSearching = true;
-    long resultsProcessed = 0L;
+    var jobRequest = jobContext.getJobRequest();
+    writeHeaderToFile(jobContext);
+    var checkpoint = loadCheckpoint(jobRequest);
+    long resultsProcessed = checkpoint.map(JobCheckpoint::resultsProcessed).orElse(0L);
+    var searchAfter = checkpoint.map(JobCheckpoint::searchAfter).orElse(null);
+    checkpoint.ifPresent(c -> log.info("Resuming job {} after {} processed search results",
+        jobRequest.jobId(), c.resultsProcessed()));
     var targetFields = targetFields();
-    while (keepSearching) {
-      log.info("Paginating over elastic, resultsProcessed: {}", resultsProcessed);
-      var searchResult = elasticSearchRepository.getTargetObjects(jobRequest.searchParams(),
-          jobRequest.targetType(), lastId, targetFields);
-      if (searchResult.isEmpty()) {
-        keepSearching = false;
-      } else {
-        processSearchResults(searchResult);
-        lastId = searchResult.getLast().get(ID_FIELD).asText();
-        resultsProcessed += searchResult.size();
+    var expectedResults = elasticSearchRepository.countTargetObjects(jobRequest.searchParams(),
+        jobRequest.targetType());
+    log.info("Expecting {} search results for job {}", expectedResults, jobRequest.jobId());
+    var slices = checkpoint.isPresent() ? 1 : determineSlices(expectedResults);
+    if (slices > 1 && isResumable()) {
+      log.warn("Job {} is retrieved in {} slices, it is not checkpointed and cannot be resumed "
+          + "after a restart", jobRequest.jobId(), slices);
+    }
+    var pitId = slices > 1 ? elasticSearchRepository.openPointInTime(jobRequest.targetType())
+        : null;
+    try (var pipeline = new SearchResultPipeline<>(
+        pitId == null ? List.of(pageSupplier(jobContext, targetFields, searchAfter))
+            : slicedPageSuppliers(jobContext, targetFields, pitId, slices),
+        pipelineProperties.getQueueDepth())) {
+      var metrics = jobContext.getMetrics();
+      metrics.gaugeQueueDepth(pipeline::queuedPages);
+      var pagesProcessed = 0;
+      var searchPage = pipeline.nextPage();
+      while (!searchPage.results().isEmpty()) {
+        log.info("Paginating over elastic, resultsProcessed: {} of {}", resultsProcessed,
+            expectedResults);
+        metrics.recordProcessedPage(searchPage.results().size(), pipeline.queuedPages());
+        processSearchResults(jobContext, searchPage.results());
+        resultsProcessed += searchPage.results().size();
+        searchAfter = searchPage.searchAfter();
+        if (pitId == null && ++pagesProcessed % pipelineProperties.getCheckpointInterval() == 0) {
+          saveCheckpoint(new JobCheckpoint(jobRequest.jobId(), searchAfter, resultsProcessed));
+        }
+        searchPage = pipeline.nextPage();
+      }
+      if (pitId == null && pagesProcessed % pipelineProperties.getCheckpointInterval() != 0) {
+        saveCheckpoint(new JobCheckpoint(jobRequest.jobId(), searchAfter, resultsProcessed));
+      }
+    } finally {
+      if (pitId != null) {
+        elasticSearchRepository.closePointInTime(pitId);
       }
     }
-    elasticSearchRepository.shutdown();
     log.info("Processed {} search results", resultsProcessed);
     return resultsProcessed > 0;
   }
 
+  /*
+   * Slicing only pays off for large exports, each slice should at least have minSliceSize results
+   */
+  private int determineSlices(long expectedResults) {
+    var slices = (int) Math.min(pipelineProperties.getSlices(),
+        expectedResults / pipelineProperties.getMinSliceSize());
+    return Math.max(1, slices);
+  }
+
+  private SearchResultPipeline.PageSupplier<T> pageSupplier(C jobContext,
+      List<String> targetFields, List<FieldValue> resumeAfter) {
+    var jobRequest = jobContext.getJobRequest();
+    var searchAfter = new AtomicReference<>(resumeAfter);
+    return () -> {
+      var start = System.nanoTime();
+      var searchPage = elasticSearchRepository.getTargetObjects(jobRequest.searchParams(),
+          jobRequest.targetType(), searchAfter.get(), targetFields, documentClass());
+      jobContext.getMetrics().recordSearchPage(System.nanoTime() - start, searchPage);
+      searchAfter.set(searchPage.searchAfter());
+      prefetch(jobContext, searchPage.results());
+      return searchPage;
+    };
+  }
+
+  private List<SearchResultPipeline.PageSupplier<T>> slicedPageSuppliers(C jobContext,
+      List<String> targetFields, String pitId, int slices) {
+    var jobRequest = jobContext.getJobRequest();
+    var pageSuppliers = new ArrayList<SearchResultPipeline.PageSupplier<T>>();
+    for (int sliceId = 0; sliceId < slices; sliceId++) {
+      var slice = sliceId;
+      var searchAfter = new AtomicReference<List<FieldValue>>();
+      pageSuppliers.add(() -> {
+        var start = System.nanoTime();
+        var searchPage = elasticSearchRepository.getTargetObjectsSlice(jobRequest.searchParams(),
+            pitId, slice, slices, searchAfter.get(), targetFields, documentClass());
+        jobContext.getMetrics().recordSearchPage(System.nanoTime() - start, searchPage);
+        searchAfter.set(searchPage.searchAfter());
+        prefetch(jobContext, searchPage.results());
+        return searchPage;
+      });
+    }
+    return pageSuppliers;
+  }
+
+  protected String uploadResults(C jobContext) throws S3UploadException {
+    var file = jobContext.getTempFile().toFile();
+    var start = System.nanoTime();
+    var url = s3Repository.uploadResults(file, jobContext.getJobRequest().jobId(),
+        fileExtension());
+    jobContext.getMetrics().record(Stage.UPLOAD, System.nanoTime() - start);
+    jobContext.getMetrics().recordBytes(Stage.UPLOAD, file.length());
+    return url;
+  }
+
+  /*
+   * Called when the job has finished, whether it succeeded or not
+   */
+  protected void cleanupJob(C jobContext) {
+    try {
+      Files.deleteIfExists(jobContext.getTempFile());
+    } catch (IOException e) {
+      log.warn("Unable to remove temp file {}", jobContext.getTempFile(), e);
+    }
+  }
+
+  protected String fileExtension() {
+    return extensionMap.get(environment.getActiveProfiles()[0]);
+  }
+
   protected String writeEmlFile(JobRequest jobRequest, FileSystem fs)
       throws FailedProcessingException, IOException {
+    var eml = retrieveEml(jobRequest);
+    var sourceSystemFile = fs.getPath("eml.xml");
+    Files.writeString(sourceSystemFile, eml, StandardCharsets.UTF_8);
+    return eml;
+  }
+
+  protected String retrieveEml(JobRequest jobRequest) throws FailedProcessingException {
     var sourceSystemOptional = jobRequest.searchParams().stream()
         .filter(param -> param.inputField().contains("ods:sourceSystemID"))
         .findFirst();
@@ -98,20 +244,55 @@ public abstract class AbstractExportJobService {
     }
     var sourceSystemId = sourceSystemOptional.get().inputValue();
     log.info("Retrieving EML for source system ID: {}", sourceSystemId);
-    var eml = sourceSystemRepository.getEmlBySourceSystemId(sourceSystemId);
-    var sourceSystemFile = fs.getPath("eml.xml");
-    Files.writeString(sourceSystemFile, eml, StandardCharsets.UTF_8);
-    return eml;
+    return sourceSystemRepository.getEmlBySourceSystemId(sourceSystemId);
   }
 
-  protected abstract void writeHeaderToFile() throws IOException;
+  /*
+   * Called on the producer thread as soon as a page has been retrieved, before it is queued. Can be
+   * used to start retrieving related objects while the previous pages are being processed.
+   */
+  protected void prefetch(C jobContext, List<T> searchResults) {
+    // No related objects are retrieved by default
+  }
 
-  protected abstract void postProcessResults(JobRequest jobRequest)
+  /*
+   * Exports which keep their intermediate results outside the job can resume from the last
+   * checkpoint after a restart. Checkpoints are only written when the search is not sliced, as the
+   * point in time of a sliced search does not survive a restart.
+   */
+  protected boolean isResumable() {
+    return false;
+  }
+
+  protected Optional<JobCheckpoint> loadCheckpoint(JobRequest jobRequest) {
+    return Optional.empty();
+  }
+
+  protected void saveCheckpoint(JobCheckpoint checkpoint) {
+    // Exports are not resumable by default
+  }
+
+  protected void deleteCheckpoint(JobRequest jobRequest) {
+    // Exports are not resumable by default
+  }
+
+  protected abstract C createJobContext(JobRequest jobRequest, Path tempFile, JobMetrics metrics);
+
+  /*
+   * The job type by which the metrics of the job are tagged
+   */
+  protected abstract String jobType();
+
+  protected abstract void writeHeaderToFile(C jobContext) throws IOException;
+
+  protected abstract void postProcessResults(C jobContext)
       throws IOException, FailedProcessingException;
 
-  protected abstract void processSearchResults(List<JsonNode> searchResults)
+  protected abstract void processSearchResults(C jobContext, List<T> searchResults)
       throws IOException, FailedProcessingException;
 
   protected abstract List<String> targetFields();
 
+  protected abstract Class<T> documentClass();
+
 }
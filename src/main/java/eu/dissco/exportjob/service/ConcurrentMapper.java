@@ -0,0 +1,54 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Maps the search results of a page concurrently. Each result is mapped on its own virtual thread
+ * into a fragment which only belongs to that result, so the mapping functions do not share any
+ * mutable state. The virtual threads run on a carrier pool with one thread per core. The fragments
+ * are returned in the order of the search results, so merging them gives the same output as
+ * mapping the results one by one.
+ */
+class ConcurrentMapper {
+
+  private final boolean concurrent;
+
+  ConcurrentMapper(boolean concurrent) {
+    this.concurrent = concurrent;
+  }
+
+  /**
+   * @return the fragment of each source, in the order of the sources
+   */
+  <S, R> List<R> map(List<S> sources, Function<S, R> mapping) throws FailedProcessingException {
+    if (!concurrent || sources.size() < 2) {
+      return sources.stream().map(mapping).toList();
+    }
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures = new ArrayList<Future<R>>(sources.size());
+      for (var source : sources) {
+        futures.add(executor.submit(() -> mapping.apply(source)));
+      }
+      var fragments = new ArrayList<R>(sources.size());
+      for (var future : futures) {
+        fragments.add(future.get());
+      }
+      return fragments;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new FailedProcessingException("Failed to map search results", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FailedProcessingException("Interrupted while mapping search results", e);
+    }
+  }
+
+}
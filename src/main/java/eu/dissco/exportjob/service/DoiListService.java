@@ -2,17 +2,24 @@ package eu.dissco.exportjob.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import eu.dissco.exportjob.Profiles;
+import eu.dissco.exportjob.component.MetricsPublisher;
 import eu.dissco.exportjob.domain.JobRequest;
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
 import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
+import eu.dissco.exportjob.repository.S3UploadOutputStream;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
+import eu.dissco.exportjob.service.JobMetrics.Stage;
+import eu.dissco.exportjob.utils.ParallelGzipOutputStream;
 import eu.dissco.exportjob.web.ExporterBackendClient;
-import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
@@ -21,54 +28,134 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @Service
 @Profile(Profiles.DOI_LIST)
-public class DoiListService extends AbstractExportJobService {
+public class DoiListService extends
+    AbstractExportJobService<JsonNode, DoiListService.DoiListJobContext> {
 
   private static final byte[] HEADER = (ID_FIELD + "," + PHYSICAL_ID_FIELD).getBytes(
       StandardCharsets.UTF_8);
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   public DoiListService(
       ElasticSearchRepository elasticSearchRepository, ExporterBackendClient exporterBackendClient,
-      S3Repository s3Repository, IndexProperties indexProperties, Environment environment, SourceSystemRepository sourceSystemRepository) {
-    super(elasticSearchRepository, indexProperties, exporterBackendClient, s3Repository, environment, sourceSystemRepository);
+      S3Repository s3Repository, IndexProperties indexProperties, Environment environment,
+      SourceSystemRepository sourceSystemRepository, PipelineProperties pipelineProperties,
+      List<MetricsPublisher> metricsPublishers) {
+    super(elasticSearchRepository, indexProperties, exporterBackendClient, s3Repository,
+        environment, sourceSystemRepository, pipelineProperties, metricsPublishers);
   }
 
   @Override
-  protected void postProcessResults(JobRequest jobRequest) {
-    log.debug("This method is not required for DOI List exports");
+  protected String jobType() {
+    return Profiles.DOI_LIST;
   }
 
-  protected void writeHeaderToFile() throws IOException {
-    try (
-        var byteOutputStream = new FileOutputStream(indexProperties.getTempFileLocation());
-        var gzip = new GZIPOutputStream(byteOutputStream)) {
-      gzip.write(HEADER, 0, HEADER.length);
-      gzip.flush();
+  @Override
+  protected DoiListJobContext createJobContext(JobRequest jobRequest, Path tempFile,
+      JobMetrics metrics) {
+    return new DoiListJobContext(jobRequest, tempFile, metrics);
+  }
+
+  @Override
+  protected boolean processRequest(DoiListJobContext jobContext)
+      throws IOException, FailedProcessingException {
+    jobContext.upload = s3Repository.openUpload(jobContext.getJobRequest().jobId(),
+        fileExtension());
+    var hasResults = false;
+    try {
+      hasResults = super.processRequest(jobContext);
+      return hasResults;
+    } finally {
+      if (!hasResults) {
+        jobContext.upload.abort();
+        closeOutputStream(jobContext);
+      }
     }
   }
 
-  protected void processSearchResults(List<JsonNode> searchResults) throws IOException {
+  /*
+   * Closing the stream compresses the last block and uploads the last part, the upload stage only
+   * covers this last part as the other parts are uploaded while the results are written
+   */
+  @Override
+  protected void postProcessResults(DoiListJobContext jobContext) throws IOException {
+    var start = System.nanoTime();
+    closeOutputStream(jobContext);
+    jobContext.getMetrics().record(Stage.UPLOAD, System.nanoTime() - start);
+    jobContext.getMetrics().recordBytes(Stage.UPLOAD, jobContext.upload.getSize());
+  }
+
+  @Override
+  protected String uploadResults(DoiListJobContext jobContext) {
+    return jobContext.upload.getUrl();
+  }
+
+  /*
+   * Opens a single gzip stream which stays open for all pages of the job, it is finished and
+   * closed in postProcessResults. The blocks of the stream are compressed concurrently and
+   * uploaded to S3 while the results are being written, so no local file is needed.
+   */
+  @Override
+  protected void writeHeaderToFile(DoiListJobContext jobContext) throws IOException {
+    closeOutputStream(jobContext);
+    var metrics = jobContext.getMetrics();
+    jobContext.outputStream = new BufferedOutputStream(new ParallelGzipOutputStream(
+        jobContext.upload, pipelineProperties.getCompressionThreads(),
+        nanos -> metrics.record(Stage.COMPRESS, nanos)), BUFFER_SIZE);
+    jobContext.outputStream.write(HEADER, 0, HEADER.length);
+  }
+
+  @Override
+  protected void processSearchResults(DoiListJobContext jobContext, List<JsonNode> searchResults)
+      throws IOException {
     if (searchResults.isEmpty()) {
       return;
     }
-    writeResultsToFile(searchResults);
+    var start = System.nanoTime();
+    writeResultsToFile(jobContext.outputStream, searchResults);
+    jobContext.getMetrics().record(Stage.WRITE, System.nanoTime() - start, searchResults.size());
+  }
+
+  void writeResultsToFile(OutputStream outputStream, List<JsonNode> searchResults)
+      throws IOException {
+    for (var result : searchResults) {
+      var col = ("\n" + result.get(ID_FIELD).asText() + ","
+          + result.get(PHYSICAL_ID_FIELD).asText()).getBytes(StandardCharsets.UTF_8);
+      outputStream.write(col, 0, col.length);
+    }
   }
 
-  private void writeResultsToFile(List<JsonNode> searchResults) throws IOException {
-    try (
-        var byteOutputStream = new FileOutputStream(indexProperties.getTempFileLocation(), true);
-        var gzip = new GZIPOutputStream(byteOutputStream)) {
-      for (var result : searchResults) {
-        var col = ("\n" + result.get(ID_FIELD).asText() + "," + result.get(PHYSICAL_ID_FIELD).asText())
-            .getBytes(StandardCharsets.UTF_8);
-        gzip.write(col, 0, col.length);
+  private void closeOutputStream(DoiListJobContext jobContext) throws IOException {
+    if (jobContext.outputStream != null) {
+      try {
+        jobContext.outputStream.close();
+      } finally {
+        jobContext.outputStream = null;
       }
-      gzip.flush();
     }
   }
 
-  protected List<String> targetFields(){
-   return List.of(ID_FIELD, PHYSICAL_ID_FIELD);
+  @Override
+  protected List<String> targetFields() {
+    return List.of(ID_FIELD, PHYSICAL_ID_FIELD);
   }
 
+  @Override
+  protected Class<JsonNode> documentClass() {
+    return JsonNode.class;
+  }
+
+  /*
+   * The multipart upload of the job and the gzip stream which is written to it
+   */
+  static class DoiListJobContext extends JobContext {
+
+    private S3UploadOutputStream upload;
+    private OutputStream outputStream;
+
+    DoiListJobContext(JobRequest jobRequest, Path tempFile, JobMetrics metrics) {
+      super(jobRequest, tempFile, metrics);
+    }
+
+  }
 
 }
@@ -26,14 +26,13 @@ import static eu.dissco.exportjob.domain.dwcdp.DwcDpClasses.USAGE_POLICY;
 import static eu.dissco.exportjob.utils.ExportUtils.EXCLUDE_IDENTIFIERS;
 import static eu.dissco.exportjob.utils.ExportUtils.EXCLUDE_RELATIONSHIPS;
 import static eu.dissco.exportjob.utils.ExportUtils.convertValueToString;
+import static eu.dissco.exportjob.utils.ExportUtils.getMediaIds;
 import static eu.dissco.exportjob.utils.ExportUtils.parseAgentDate;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveCombinedAgentId;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveCombinedAgentName;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveCombinedCitation;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveIdentifier;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.bean.StatefulBeanToCsv;
 import com.opencsv.bean.StatefulBeanToCsvBuilder;
 import com.opencsv.exceptions.CsvDataTypeMismatchException;
@@ -41,6 +40,8 @@ import com.opencsv.exceptions.CsvRequiredFieldEmptyException;
 import eu.dissco.exportjob.Profiles;
 import eu.dissco.exportjob.component.CsvHeaderStrategy;
 import eu.dissco.exportjob.component.DataPackageComponent;
+import eu.dissco.exportjob.component.MetricsPublisher;
+import eu.dissco.exportjob.domain.JobCheckpoint;
 import eu.dissco.exportjob.domain.JobRequest;
 import eu.dissco.exportjob.domain.dwcdp.DwCDpMaterial;
 import eu.dissco.exportjob.domain.dwcdp.DwcDpAgent;
@@ -69,7 +70,8 @@ import eu.dissco.exportjob.domain.dwcdp.DwcDpUsagePolicy;
 import eu.dissco.exportjob.exceptions.FailedProcessingException;
 import eu.dissco.exportjob.properties.DwcDpProperties;
 import eu.dissco.exportjob.properties.IndexProperties;
-import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
+import eu.dissco.exportjob.repository.CheckpointRepository;
 import eu.dissco.exportjob.repository.DatabaseRepository;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
@@ -82,24 +84,27 @@ import eu.dissco.exportjob.schema.Event;
 import eu.dissco.exportjob.schema.Identification;
 import eu.dissco.exportjob.schema.Identifier;
 import eu.dissco.exportjob.schema.OdsHasRole;
+import eu.dissco.exportjob.service.JobMetrics.Stage;
 import eu.dissco.exportjob.web.ExporterBackendClient;
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.context.annotation.Profile;
@@ -110,27 +115,41 @@ import org.springframework.util.DigestUtils;
 @Slf4j
 @Service
 @Profile(Profiles.DWC_DP)
-public class DwcDpService extends AbstractExportJobService {
+public class DwcDpService extends
+    AbstractExportJobService<DigitalSpecimen, DwcDpService.DwcDpJobContext> {
+
+  // The fields of the specimen which are read by the mapping, all other fields are not retrieved
+  private static final List<String> SOURCE_FIELDS = List.of(
+      "@id", "dcterms:accessRights", "dcterms:identifier", "dcterms:license",
+      "dcterms:rightsHolder", "dwc:collectionCode", "dwc:collectionID", "dwc:dataGeneralizations",
+      "dwc:datasetID", "dwc:datasetName", "dwc:disposition", "dwc:informationWithheld",
+      "dwc:organismID", "dwc:organismName", "dwc:organismQuantity", "dwc:organismQuantityType",
+      "dwc:organismRemarks", "dwc:organismScope", "dwc:preparations", "dwc:verbatimLabel",
+      "ods:hasAssertions", "ods:hasChronometricAges", "ods:hasCitations",
+      "ods:hasEntityRelationships", "ods:hasEvents", "ods:hasIdentifications",
+      "ods:hasIdentifiers", "ods:organisationCode", "ods:organisationID",
+      "ods:ownerOrganisationCode", "ods:physicalSpecimenID", "ods:topicDiscipline");
 
-  private final ObjectMapper objectMapper;
   private final DatabaseRepository databaseRepository;
-  private final JobProperties jobProperties;
   private final DwcDpProperties dwcDpProperties;
   private final DataPackageComponent dataPackageComponent;
+  private final CheckpointRepository checkpointRepository;
+  private final ConcurrentMapper concurrentMapper;
 
   public DwcDpService(
       ElasticSearchRepository elasticSearchRepository, ExporterBackendClient exporterBackendClient,
-      S3Repository s3Repository, IndexProperties indexProperties, ObjectMapper objectMapper,
-      DatabaseRepository databaseRepository, JobProperties jobProperties,
-      DwcDpProperties dwcDpProperties, Environment environment,
-      SourceSystemRepository sourceSystemRepository, DataPackageComponent dataPackageComponent) {
+      S3Repository s3Repository, IndexProperties indexProperties,
+      DatabaseRepository databaseRepository, DwcDpProperties dwcDpProperties, Environment environment,
+      SourceSystemRepository sourceSystemRepository, DataPackageComponent dataPackageComponent,
+      PipelineProperties pipelineProperties, CheckpointRepository checkpointRepository,
+      List<MetricsPublisher> metricsPublishers) {
     super(elasticSearchRepository, indexProperties, exporterBackendClient, s3Repository,
-        environment, sourceSystemRepository);
-    this.objectMapper = objectMapper;
+        environment, sourceSystemRepository, pipelineProperties, metricsPublishers);
     this.databaseRepository = databaseRepository;
-    this.jobProperties = jobProperties;
     this.dwcDpProperties = dwcDpProperties;
     this.dataPackageComponent = dataPackageComponent;
+    this.checkpointRepository = checkpointRepository;
+    this.concurrentMapper = new ConcurrentMapper(pipelineProperties.isConcurrentMapping());
   }
 
   private static Map<DwcDpClasses, List<Pair<String, Object>>> getTableMap() {
@@ -161,26 +180,9 @@ public class DwcDpService extends AbstractExportJobService {
     return tableMap;
   }
 
-  private static void writeRecordsToFile(DwcDpClasses value, List<byte[]> records, FileSystem fs,
-      boolean skipHeader)
-      throws IOException, ClassNotFoundException, CsvDataTypeMismatchException, CsvRequiredFieldEmptyException {
-    var path = fs.getPath(value.getFileName());
-    try (var writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
-        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-      var csvWriter = getCsvWriter(writer, value.getClazz(), skipHeader);
-      for (byte[] byteArray : records) {
-        var bais = new ByteArrayInputStream(byteArray);
-        var objectis = new ObjectInputStream(bais);
-        var object = objectis.readObject();
-        csvWriter.write(object);
-      }
-    }
-  }
-
-  private static StatefulBeanToCsv<Object> getCsvWriter(BufferedWriter writer, Class<?> clazz,
-      boolean skipHeader) {
+  private static StatefulBeanToCsv<Object> getCsvWriter(BufferedWriter writer, Class<?> clazz) {
     return new StatefulBeanToCsvBuilder<>(writer).withMappingStrategy(
-        new CsvHeaderStrategy<>((Class<Object>) clazz, skipHeader)).build();
+        new CsvHeaderStrategy<>((Class<Object>) clazz, false)).build();
   }
 
   private void mapRelationship(DigitalSpecimen digitalSpecimen,
@@ -220,41 +222,95 @@ public class DwcDpService extends AbstractExportJobService {
         .add(Pair.of(generateHashID(dwcDpIdentifier.toString()), dwcDpIdentifier));
   }
 
-  @PostConstruct()
-  public void setup() {
+  /*
+   * The temp tables belong to a single job. When the job has a checkpoint it is resumed, the temp
+   * tables then already contain the records of the pages up to the checkpoint and are kept.
+   */
+  void setup(UUID jobId) {
+    removeStaleCheckpoints(jobId);
+    if (checkpointRepository.getCheckpoint(jobId).isPresent()) {
+      log.info("Resuming job {}, keeping the existing temp tables", jobId);
+      return;
+    }
     for (DwcDpClasses value : DwcDpClasses.values()) {
-      var tableName = getTempTableName(value);
+      var tableName = getTempTableName(jobId, value);
       log.info("Creating table {}", tableName);
-      databaseRepository.createTable(tableName);
+      databaseRepository.createTable(tableName, value.getClazz());
     }
   }
 
-  @PreDestroy
-  public void cleanup() {
+  /*
+   * A job which did not complete keeps its checkpoint and its temp tables, so it can be resumed
+   * when it is restarted
+   */
+  void cleanup(UUID jobId) {
+    if (checkpointRepository.getCheckpoint(jobId).isPresent()) {
+      log.info("Keeping the temp tables of job {} to resume from its checkpoint", jobId);
+      return;
+    }
     for (DwcDpClasses value : DwcDpClasses.values()) {
-      var tableName = getTempTableName(value);
+      var tableName = getTempTableName(jobId, value);
       log.info("Cleaning up table {}", tableName);
       databaseRepository.dropTable(tableName);
     }
   }
 
-  private String getTempTableName(DwcDpClasses value) {
-    return "temp_table_" + jobProperties.getJobId().toString().substring(0, 8) + "_"
+  /*
+   * Failed jobs keep their checkpoint and temp tables, but not every failed job is restarted. The
+   * checkpoints which have not been updated within the maximum age are removed together with the
+   * temp tables of their job.
+   */
+  private void removeStaleCheckpoints(UUID jobId) {
+    var updatedBefore = Instant.now().minus(pipelineProperties.getCheckpointMaxAge());
+    for (var staleJobId : checkpointRepository.getJobIdsUpdatedBefore(updatedBefore)) {
+      if (staleJobId.equals(jobId)) {
+        continue;
+      }
+      log.info("Removing the stale checkpoint and temp tables of job {}", staleJobId);
+      for (DwcDpClasses value : DwcDpClasses.values()) {
+        databaseRepository.dropTable(getTempTableName(staleJobId, value));
+      }
+      checkpointRepository.deleteCheckpoint(staleJobId);
+    }
+  }
+
+  /*
+   * Uses the full job id, so concurrent jobs never share a table. Postgres truncates identifiers
+   * to 63 characters, which the name with the longest class name just fits in.
+   */
+  private static String getTempTableName(UUID jobId, DwcDpClasses value) {
+    return "tmp" + jobId.toString().replace("-", "") + "_"
         + value.getClassName().replace("-", "_");
   }
 
   @Override
-  protected void postProcessResults(JobRequest jobRequest) throws FailedProcessingException {
-    var zipFile = new File(indexProperties.getTempFileLocation());
-    try (var fs = FileSystems.newFileSystem(zipFile.toPath(), Map.of("create", "true"))) {
-      var filesContainingRecords = new HashSet<DwcDpClasses>();
+  protected String jobType() {
+    return Profiles.DWC_DP;
+  }
+
+  @Override
+  protected DwcDpJobContext createJobContext(JobRequest jobRequest, Path tempFile,
+      JobMetrics metrics) {
+    return new DwcDpJobContext(jobRequest, tempFile, metrics);
+  }
+
+  @Override
+  protected void postProcessResults(DwcDpJobContext jobContext)
+      throws FailedProcessingException {
+    var jobRequest = jobContext.getJobRequest();
+    Path spoolDirectory = null;
+    try (var fs = FileSystems.newFileSystem(jobContext.getTempFile(),
+        Map.of("create", "true"))) {
+      spoolDirectory = Files.createTempDirectory(jobContext.getTempFile().getParent(), "dwc-dp-");
+      var filesContainingRecords = spoolDwcDpClasses(jobRequest.jobId(), spoolDirectory,
+          jobContext.getMetrics());
+      var start = System.nanoTime();
       for (DwcDpClasses value : DwcDpClasses.values()) {
-        var containsRecords = postProcessDwcDpClass(value, fs,
-            filesContainingRecords.contains(value));
-        if (containsRecords) {
-          filesContainingRecords.add(value);
+        if (filesContainingRecords.contains(value)) {
+          Files.copy(spoolDirectory.resolve(value.getFileName()), fs.getPath(value.getFileName()));
         }
       }
+      jobContext.getMetrics().record(Stage.COMPRESS, System.nanoTime() - start);
       if (Boolean.TRUE.equals(jobRequest.isSourceSystemJob())) {
         var eml = writeEmlFile(jobRequest, fs);
         writeDataPackageFile(eml, fs, filesContainingRecords);
@@ -262,65 +318,181 @@ public class DwcDpService extends AbstractExportJobService {
     } catch (IOException ex) {
       log.error("Failed to create zip file", ex);
       throw new FailedProcessingException("Unable to create zip file");
+    } finally {
+      deleteSpoolDirectory(spoolDirectory);
+    }
+  }
+
+  /*
+   * Each DwC-DP class is read from its own temp table and written to its own csv file in the spool
+   * directory, the classes are processed concurrently.
+   */
+  private Set<DwcDpClasses> spoolDwcDpClasses(UUID jobId, Path spoolDirectory,
+      JobMetrics metrics) throws FailedProcessingException {
+    var executor = Executors.newFixedThreadPool(dwcDpProperties.getPostProcessThreads(),
+        Thread.ofPlatform().name("dwc-dp-spool-", 0).factory());
+    try {
+      var futures = new EnumMap<DwcDpClasses, Future<Boolean>>(DwcDpClasses.class);
+      for (DwcDpClasses value : DwcDpClasses.values()) {
+        futures.put(value, executor.submit(
+            () -> postProcessDwcDpClass(jobId, value, value.getClazz(), spoolDirectory,
+                metrics)));
+      }
+      var filesContainingRecords = EnumSet.noneOf(DwcDpClasses.class);
+      for (var future : futures.entrySet()) {
+        if (Boolean.TRUE.equals(future.getValue().get())) {
+          filesContainingRecords.add(future.getKey());
+        }
+      }
+      return filesContainingRecords;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof FailedProcessingException failedProcessingException) {
+        throw failedProcessingException;
+      }
+      throw new FailedProcessingException("Failed to write records to csv", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FailedProcessingException("Interrupted while writing records to csv", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void deleteSpoolDirectory(Path spoolDirectory) {
+    if (spoolDirectory == null) {
+      return;
+    }
+    try (var files = Files.list(spoolDirectory)) {
+      for (var file : files.toList()) {
+        Files.delete(file);
+      }
+      Files.delete(spoolDirectory);
+    } catch (IOException e) {
+      log.warn("Unable to remove spool directory {}", spoolDirectory, e);
     }
   }
 
   private void writeDataPackageFile(String eml, FileSystem fs,
-      HashSet<DwcDpClasses> filesContainingRecords) throws IOException, FailedProcessingException {
+      Set<DwcDpClasses> filesContainingRecords) throws IOException, FailedProcessingException {
     var dataPackageString = dataPackageComponent.formatDataPackage(eml, filesContainingRecords);
     var dataPackageFile = fs.getPath("data-package.json");
     Files.writeString(dataPackageFile, dataPackageString, StandardCharsets.UTF_8);
   }
 
 
-  private boolean postProcessDwcDpClass(DwcDpClasses value, FileSystem fs, boolean skipHeader)
-      throws FailedProcessingException {
-    int start = 0;
-    boolean continueLoop = true;
-    boolean containsRecords = false;
-    while (continueLoop) {
-      log.info("Retrieving records from table {}, stating at {} with limit {}", value,
-          start, dwcDpProperties.getDbPageSize());
-      var tableName = getTempTableName(value);
-      List<byte[]> records = databaseRepository.getRecords(tableName, start,
-          dwcDpProperties.getDbPageSize());
-      if (records != null && !records.isEmpty()) {
-        containsRecords = true;
+  /*
+   * Streams all records of a class into its csv file. The file is only created when the table
+   * contains records, it is opened once and the header is written once for all pages.
+   */
+  private <T> boolean postProcessDwcDpClass(UUID jobId, DwcDpClasses value, Class<T> clazz,
+      Path spoolDirectory, JobMetrics metrics) throws FailedProcessingException {
+    var tableName = getTempTableName(jobId, value);
+    var pageSize = dwcDpProperties.getDbPageSize();
+    log.info("Retrieving records from table {} with page size {}", value, pageSize);
+    var start = System.nanoTime();
+    var records = databaseRepository.getRecords(tableName, clazz, null, pageSize);
+    if (records == null || records.isEmpty()) {
+      metrics.record(Stage.READ, System.nanoTime() - start);
+      return false;
+    }
+    metrics.record(Stage.READ, System.nanoTime() - start, records.size());
+    try (var writer = Files.newBufferedWriter(spoolDirectory.resolve(value.getFileName()),
+        StandardCharsets.UTF_8)) {
+      var csvWriter = getCsvWriter(writer, clazz);
+      while (records != null && !records.isEmpty()) {
         log.info("Writing {} records to csv: {}", records.size(), value.getFileName());
-        try {
-          writeRecordsToFile(value, records, fs, skipHeader);
-        } catch (IOException | CsvDataTypeMismatchException | CsvRequiredFieldEmptyException |
-                 ClassNotFoundException e) {
-          log.error("Failed to write records to zipFile", e);
-          throw new FailedProcessingException("Failed to write records to zipFile");
+        start = System.nanoTime();
+        for (var dbRecord : records) {
+          csvWriter.write(dbRecord.getRight());
         }
-        if (records.size() < dwcDpProperties.getDbPageSize()) {
-          continueLoop = false;
+        metrics.record(Stage.WRITE, System.nanoTime() - start, records.size());
+        if (records.size() < pageSize) {
+          records = List.of();
         } else {
-          start += dwcDpProperties.getDbPageSize();
+          start = System.nanoTime();
+          records = databaseRepository.getRecords(tableName, clazz, records.getLast().getLeft(),
+              pageSize);
+          metrics.record(Stage.READ, System.nanoTime() - start, records.size());
         }
-      } else {
-        continueLoop = false;
       }
+    } catch (IOException | CsvDataTypeMismatchException | CsvRequiredFieldEmptyException e) {
+      log.error("Failed to write records to csv", e);
+      throw new FailedProcessingException("Failed to write records to csv");
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean processRequest(DwcDpJobContext jobContext)
+      throws IOException, FailedProcessingException {
+    setup(jobContext.getJobRequest().jobId());
+    try (var resolver = new MediaResolver(elasticSearchRepository,
+        pipelineProperties.getMediaBatchSize(), pipelineProperties.getMediaCacheSize(),
+        pipelineProperties.getMediaThreads())) {
+      jobContext.mediaResolver = resolver;
+      return super.processRequest(jobContext);
+    } finally {
+      jobContext.mediaResolver = null;
+    }
+  }
+
+  @Override
+  protected void cleanupJob(DwcDpJobContext jobContext) {
+    super.cleanupJob(jobContext);
+    cleanup(jobContext.getJobRequest().jobId());
+  }
+
+  @Override
+  protected boolean isResumable() {
+    return true;
+  }
+
+  @Override
+  protected Optional<JobCheckpoint> loadCheckpoint(JobRequest jobRequest) {
+    return checkpointRepository.getCheckpoint(jobRequest.jobId());
+  }
+
+  @Override
+  protected void saveCheckpoint(JobCheckpoint checkpoint) {
+    checkpointRepository.saveCheckpoint(checkpoint);
+  }
+
+  @Override
+  protected void deleteCheckpoint(JobRequest jobRequest) {
+    checkpointRepository.deleteCheckpoint(jobRequest.jobId());
+  }
+
+  @Override
+  protected void prefetch(DwcDpJobContext jobContext, List<DigitalSpecimen> searchResults) {
+    var resolver = jobContext.mediaResolver;
+    if (resolver != null) {
+      resolver.prefetch(getMediaIds(searchResults));
     }
-    return containsRecords;
   }
 
   @Override
-  protected void writeHeaderToFile() {
+  protected void writeHeaderToFile(DwcDpJobContext jobContext) {
     log.debug("This method is not required for DwC-DP exports");
   }
 
   @Override
-  protected void processSearchResults(List<JsonNode> searchResult) throws IOException {
+  protected void processSearchResults(DwcDpJobContext jobContext,
+      List<DigitalSpecimen> searchResult) throws IOException, FailedProcessingException {
+    var metrics = jobContext.getMetrics();
     var results = getTableMap();
+    var start = System.nanoTime();
     mapSpecimenToDwcDp(results, searchResult);
-    addMediaToDwcDp(results);
-    pushResultToTempTables(results);
+    metrics.record(Stage.MAP, System.nanoTime() - start, searchResult.size());
+    addMediaToDwcDp(jobContext.mediaResolver, metrics, results);
+    start = System.nanoTime();
+    pushResultToTempTables(jobContext.getJobRequest().jobId(), results);
+    metrics.record(Stage.INSERT, System.nanoTime() - start,
+        results.values().stream().mapToLong(List::size).sum());
   }
 
-  private void addMediaToDwcDp(Map<DwcDpClasses, List<Pair<String, Object>>> results)
-      throws IOException {
+  private void addMediaToDwcDp(MediaResolver mediaResolver, JobMetrics metrics,
+      Map<DwcDpClasses, List<Pair<String, Object>>> results)
+      throws IOException, FailedProcessingException {
     var mediaList = results.get(MATERIAL_MEDIA).stream().map(Pair::getRight)
         .map(DwcDpMaterialMedia.class::cast).map(
             DwcDpMaterialMedia::getMediaID).toList();
@@ -328,43 +500,63 @@ public class DwcDpService extends AbstractExportJobService {
     if (mediaList.isEmpty()) {
       return;
     }
-    var mediaSearchResult = elasticSearchRepository.getTargetMediaById(mediaList);
+    var start = System.nanoTime();
+    var mediaSearchResult = mediaResolver.resolve(mediaList);
+    metrics.record(Stage.MEDIA, System.nanoTime() - start, mediaSearchResult.size());
+    start = System.nanoTime();
     mapMediaToDwcDp(results, mediaSearchResult);
+    metrics.record(Stage.MAP, System.nanoTime() - start);
   }
 
-  private void pushResultToTempTables(Map<DwcDpClasses, List<Pair<String, Object>>> results)
-      throws IOException {
+  private void pushResultToTempTables(UUID jobId,
+      Map<DwcDpClasses, List<Pair<String, Object>>> results) throws IOException {
     log.info("Pushing results to temp tables");
     for (var dwcDpClassesListEntry : results.entrySet()) {
-      var tableName = getTempTableName(dwcDpClassesListEntry.getKey());
+      var tableName = getTempTableName(jobId, dwcDpClassesListEntry.getKey());
       if (!dwcDpClassesListEntry.getValue().isEmpty()) {
-        databaseRepository.insertRecords(tableName, dwcDpClassesListEntry.getValue());
+        databaseRepository.insertRecords(tableName, dwcDpClassesListEntry.getKey().getClazz(),
+            dwcDpClassesListEntry.getValue());
       }
     }
   }
 
   @Override
   protected List<String> targetFields() {
-    return List.of();
+    return SOURCE_FIELDS;
   }
 
+  @Override
+  protected Class<DigitalSpecimen> documentClass() {
+    return DigitalSpecimen.class;
+  }
+
+  /*
+   * Each specimen is mapped into its own table map, the table maps are merged in the order of the
+   * specimens
+   */
   private void mapSpecimenToDwcDp(
-      Map<DwcDpClasses, List<Pair<String, Object>>> results, List<JsonNode> searchResult) {
-    searchResult.stream().map(json -> objectMapper.convertValue(json, DigitalSpecimen.class))
-        .forEach(
-            digitalSpecimen -> {
-              var eventId = mapEvent(digitalSpecimen, results);
-              mapMaterial(digitalSpecimen, results, eventId);
-              mapChronometricAge(digitalSpecimen, results, eventId);
-              mapIdentifiers(digitalSpecimen, results);
-              mapOccurrence(digitalSpecimen, results, eventId);
-              mapIdentification(digitalSpecimen, results);
-              mapRelationships(digitalSpecimen, results);
-              mapMaterialMedia(digitalSpecimen, results);
-              mapMaterialAssertion(digitalSpecimen, results);
-              mapMaterialReference(digitalSpecimen, results);
-            }
-        );
+      Map<DwcDpClasses, List<Pair<String, Object>>> results, List<DigitalSpecimen> searchResult)
+      throws FailedProcessingException {
+    var fragments = concurrentMapper.map(searchResult, this::mapSpecimenToDwcDp);
+    for (var fragment : fragments) {
+      fragment.forEach((dwcDpClass, rows) -> results.get(dwcDpClass).addAll(rows));
+    }
+  }
+
+  Map<DwcDpClasses, List<Pair<String, Object>>> mapSpecimenToDwcDp(
+      DigitalSpecimen digitalSpecimen) {
+    var results = getTableMap();
+    var eventId = mapEvent(digitalSpecimen, results);
+    mapMaterial(digitalSpecimen, results, eventId);
+    mapChronometricAge(digitalSpecimen, results, eventId);
+    mapIdentifiers(digitalSpecimen, results);
+    mapOccurrence(digitalSpecimen, results, eventId);
+    mapIdentification(digitalSpecimen, results);
+    mapRelationships(digitalSpecimen, results);
+    mapMaterialMedia(digitalSpecimen, results);
+    mapMaterialAssertion(digitalSpecimen, results);
+    mapMaterialReference(digitalSpecimen, results);
+    return results;
   }
 
   private void mapChronometricAge(DigitalSpecimen digitalSpecimen,
@@ -532,50 +724,49 @@ public class DwcDpService extends AbstractExportJobService {
   }
 
   private void mapMediaToDwcDp(Map<DwcDpClasses, List<Pair<String, Object>>> results,
-      List<JsonNode> searchResult) {
-    searchResult.stream().map(json -> objectMapper.convertValue(json, DigitalMedia.class))
-        .forEach(media -> {
-          var dpMedia = new DwcDpMedia();
-          dpMedia.setMediaID(media.getId());
-          if (media.getDctermsType() != null) {
-            dpMedia.setMediaType(media.getDctermsType().toString());
-          }
-          dpMedia.setDescription(media.getDctermsDescription());
-          dpMedia.setTitle(media.getDctermsTitle());
-          dpMedia.setLanguage(media.getDctermsLanguage());
-          dpMedia.setDescription(media.getDctermsDescription());
-          dpMedia.setMetadataLanguageIRI(media.getAcMetadataLanguage());
-          dpMedia.setMetadataLanguageLiteral(media.getAcMetadataLanguageLiteral());
-          dpMedia.setSubtypeIRI(media.getAcSubtype());
-          dpMedia.setSubtypeLiteral(media.getAcSubtypeLiteral());
-          dpMedia.setComments(media.getAcComments());
-          dpMedia.setAccessURI(media.getAcAccessURI());
-          dpMedia.setFormat(media.getDctermsFormat());
-          dpMedia.setAvailable(media.getDctermsAvailable());
-          dpMedia.setComments(media.getAcComments());
-          dpMedia.setSubjectCategorySource(media.getAcSubjectCategoryVocabulary());
-          dpMedia.setDescription(media.getDctermsDescription());
-          dpMedia.setTag(String.join(", ", media.getAcTag()));
-          dpMedia.setCreateDate(media.getXmpCreateDate());
-          dpMedia.setSubjectOrientationIRI(media.getAcSubjectOrientation());
-          dpMedia.setSubjectOrientationLiteral(media.getAcSubjectOrientationLiteral());
-          dpMedia.setSubjectPartIRI(media.getAcSubjectPart());
-          dpMedia.setSubjectPartLiteral(media.getAcSubjectPartLiteral());
-          dpMedia.setFrameRate(media.getAcFrameRate());
-          dpMedia.setResourceCreationTechnique(media.getAcResourceCreationTechnique());
-          dpMedia.setTimeOfDay(media.getAcTimeOfDay());
-          dpMedia.setCaptureDevice(media.getAcCaptureDevice());
-          dpMedia.setResourceCreationTechnique(media.getAcResourceCreationTechnique());
-          dpMedia.setModified(media.getDctermsModified());
-          dpMedia.setLanguage(media.getDctermsLanguage());
-          dpMedia.setVariantLiteral(media.getAcVariantLiteral());
-          dpMedia.setVariantIRI(media.getAcVariant());
-          dpMedia.setVariantDescription(media.getAcVariantDescription());
-          dpMedia.setPixelXDimension(media.getExifPixelXDimension());
-          dpMedia.setPixelYDimension(media.getExifPixelYDimension());
-          mapUsagePolicyMedia(media, results);
-          results.get(MEDIA).add(Pair.of(dpMedia.getMediaID(), dpMedia));
-        });
+      List<DigitalMedia> searchResult) {
+    for (var media : searchResult) {
+      var dpMedia = new DwcDpMedia();
+      dpMedia.setMediaID(media.getId());
+      if (media.getDctermsType() != null) {
+        dpMedia.setMediaType(media.getDctermsType().toString());
+      }
+      dpMedia.setDescription(media.getDctermsDescription());
+      dpMedia.setTitle(media.getDctermsTitle());
+      dpMedia.setLanguage(media.getDctermsLanguage());
+      dpMedia.setDescription(media.getDctermsDescription());
+      dpMedia.setMetadataLanguageIRI(media.getAcMetadataLanguage());
+      dpMedia.setMetadataLanguageLiteral(media.getAcMetadataLanguageLiteral());
+      dpMedia.setSubtypeIRI(media.getAcSubtype());
+      dpMedia.setSubtypeLiteral(media.getAcSubtypeLiteral());
+      dpMedia.setComments(media.getAcComments());
+      dpMedia.setAccessURI(media.getAcAccessURI());
+      dpMedia.setFormat(media.getDctermsFormat());
+      dpMedia.setAvailable(media.getDctermsAvailable());
+      dpMedia.setComments(media.getAcComments());
+      dpMedia.setSubjectCategorySource(media.getAcSubjectCategoryVocabulary());
+      dpMedia.setDescription(media.getDctermsDescription());
+      dpMedia.setTag(String.join(", ", media.getAcTag()));
+      dpMedia.setCreateDate(media.getXmpCreateDate());
+      dpMedia.setSubjectOrientationIRI(media.getAcSubjectOrientation());
+      dpMedia.setSubjectOrientationLiteral(media.getAcSubjectOrientationLiteral());
+      dpMedia.setSubjectPartIRI(media.getAcSubjectPart());
+      dpMedia.setSubjectPartLiteral(media.getAcSubjectPartLiteral());
+      dpMedia.setFrameRate(media.getAcFrameRate());
+      dpMedia.setResourceCreationTechnique(media.getAcResourceCreationTechnique());
+      dpMedia.setTimeOfDay(media.getAcTimeOfDay());
+      dpMedia.setCaptureDevice(media.getAcCaptureDevice());
+      dpMedia.setResourceCreationTechnique(media.getAcResourceCreationTechnique());
+      dpMedia.setModified(media.getDctermsModified());
+      dpMedia.setLanguage(media.getDctermsLanguage());
+      dpMedia.setVariantLiteral(media.getAcVariantLiteral());
+      dpMedia.setVariantIRI(media.getAcVariant());
+      dpMedia.setVariantDescription(media.getAcVariantDescription());
+      dpMedia.setPixelXDimension(media.getExifPixelXDimension());
+      dpMedia.setPixelYDimension(media.getExifPixelYDimension());
+      mapUsagePolicyMedia(media, results);
+      results.get(MEDIA).add(Pair.of(dpMedia.getMediaID(), dpMedia));
+    }
   }
 
   private void mapUsagePolicyMedia(DigitalMedia media,
@@ -997,4 +1188,18 @@ public class DwcDpService extends AbstractExportJobService {
   private String generateHashID(String objectString) {
     return DigestUtils.md5DigestAsHex(objectString.getBytes(StandardCharsets.UTF_8));
   }
+
+  /*
+   * The media resolver of the pages of the job
+   */
+  static class DwcDpJobContext extends JobContext {
+
+    private volatile MediaResolver mediaResolver;
+
+    DwcDpJobContext(JobRequest jobRequest, Path tempFile, JobMetrics metrics) {
+      super(jobRequest, tempFile, metrics);
+    }
+
+  }
+
 }
@@ -3,40 +3,50 @@ package eu.dissco.exportjob.service;
 import static eu.dissco.exportjob.utils.ExportUtils.EXCLUDE_IDENTIFIERS;
 import static eu.dissco.exportjob.utils.ExportUtils.EXCLUDE_RELATIONSHIPS;
 import static eu.dissco.exportjob.utils.ExportUtils.convertValueToString;
+import static eu.dissco.exportjob.utils.ExportUtils.getMediaIds;
+import static eu.dissco.exportjob.utils.ExportUtils.mapTerms;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveCombinedAgentId;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveCombinedAgentName;
 import static eu.dissco.exportjob.utils.ExportUtils.retrieveIdentifier;
-import static eu.dissco.exportjob.utils.ExportUtils.retrieveTerm;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.dissco.exportjob.Profiles;
+import eu.dissco.exportjob.component.DwcaArchiveSession;
 import eu.dissco.exportjob.component.DwcaZipWriter;
+import eu.dissco.exportjob.component.MetricsPublisher;
+import eu.dissco.exportjob.domain.DwcaRow;
+import eu.dissco.exportjob.domain.DwcaRowSchema;
 import eu.dissco.exportjob.domain.JobRequest;
 import eu.dissco.exportjob.exceptions.FailedProcessingException;
 import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
+import eu.dissco.exportjob.repository.S3UploadOutputStream;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
-import eu.dissco.exportjob.schema.Agent;
 import eu.dissco.exportjob.schema.Assertion;
 import eu.dissco.exportjob.schema.Citation;
 import eu.dissco.exportjob.schema.DigitalMedia;
 import eu.dissco.exportjob.schema.DigitalSpecimen;
 import eu.dissco.exportjob.schema.EntityRelationship;
+import eu.dissco.exportjob.schema.Event;
+import eu.dissco.exportjob.schema.GeologicalContext;
+import eu.dissco.exportjob.schema.Georeference;
 import eu.dissco.exportjob.schema.Identification;
 import eu.dissco.exportjob.schema.Identifier;
+import eu.dissco.exportjob.schema.Location;
 import eu.dissco.exportjob.schema.TaxonIdentification;
+import eu.dissco.exportjob.service.JobMetrics.Stage;
 import eu.dissco.exportjob.web.ExporterBackendClient;
 import freemarker.template.TemplateException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.gbif.dwc.terms.AcTerm;
@@ -57,42 +67,243 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @Service
 @Profile(Profiles.DWCA)
-public class DwcaService extends AbstractExportJobService {
-
-  public static final Pair<Predicate<DigitalSpecimen>, Function<DigitalSpecimen, Object>> EVENT_FUNCTIONS =
-      Pair.of(ds -> ds.getOdsHasEvents() == null || ds.getOdsHasEvents().isEmpty(),
-          ds -> ds.getOdsHasEvents().getFirst());
-  public static final Pair<Predicate<DigitalSpecimen>, Function<DigitalSpecimen, Object>> LOCATION_FUNCTIONS =
-      Pair.of(EVENT_FUNCTIONS.getLeft().or(
-              ds -> ds.getOdsHasEvents().getFirst().getOdsHasLocation() == null),
-          ds -> ds.getOdsHasEvents().getFirst().getOdsHasLocation());
-  public static final Pair<Predicate<DigitalSpecimen>, Function<DigitalSpecimen, Object>> GEOLOGICAL_CONTEXT_FUNCTIONS =
-      Pair.of(LOCATION_FUNCTIONS.getLeft()
-              .or(ds -> ds.getOdsHasEvents().getFirst().getOdsHasLocation().getOdsHasGeologicalContext()
-                  == null),
-          ds -> ds.getOdsHasEvents().getFirst().getOdsHasLocation().getOdsHasGeologicalContext());
-  public static final Pair<Predicate<DigitalSpecimen>, Function<DigitalSpecimen, Object>> GEOREFERENCE_FUNCTIONS =
-      Pair.of(LOCATION_FUNCTIONS.getLeft().or(ds ->
-              ds.getOdsHasEvents().getFirst().getOdsHasLocation().getOdsHasGeoreference() == null),
-          ds -> ds.getOdsHasEvents().getFirst().getOdsHasLocation().getOdsHasGeoreference());
-
+public class DwcaService extends
+    AbstractExportJobService<DigitalSpecimen, DwcaService.DwcaJobContext> {
+
+  // The fields of the specimen which are read by the mapping, all other fields are not retrieved
+  private static final List<String> SOURCE_FIELDS = List.of(
+      "@id", "dcterms:accessRights", "dcterms:license", "dcterms:modified", "dcterms:rightsHolder",
+      "dwc:basisOfRecord", "dwc:collectionCode", "dwc:collectionID", "dwc:dataGeneralizations",
+      "dwc:datasetID", "dwc:datasetName", "dwc:disposition", "dwc:informationWithheld",
+      "dwc:organismID", "dwc:organismName", "dwc:organismQuantity", "dwc:organismQuantityType",
+      "dwc:organismRemarks", "dwc:organismScope", "dwc:preparations", "dwc:verbatimLabel",
+      "ods:hasAgents", "ods:hasAssertions", "ods:hasChronometricAges", "ods:hasCitations",
+      "ods:hasEntityRelationships", "ods:hasEvents", "ods:hasIdentifications",
+      "ods:hasIdentifiers", "ods:organisationCode", "ods:organisationID",
+      "ods:ownerOrganisationCode", "ods:physicalSpecimenID");
   private static final String OCCURRENCE_ID = "dwc:occurrenceID";
   private static final String UNIT_GUID = "abcd:unitGUID";
   private static final String UNIT_ID = "abcd:unitID";
 
+  // The terms of the occurrence file which are retrieved from the first event of the specimen,
+  // and from its location, georeference and geological context
+  private static final List<Pair<Term, Function<Event, Object>>> EVENT_TERMS = List.of(
+      Pair.of(DwcTerm.sex, Event::getDwcSex),
+      Pair.of(DwcTerm.lifeStage, Event::getDwcLifeStage),
+      Pair.of(DwcTerm.reproductiveCondition, Event::getDwcReproductiveCondition),
+      Pair.of(DwcTerm.caste, Event::getDwcCaste),
+      Pair.of(DwcTerm.behavior, Event::getDwcBehavior),
+      Pair.of(DwcTerm.vitality, Event::getDwcVitality),
+      Pair.of(DwcTerm.establishmentMeans, Event::getDwcEstablishmentMeans),
+      Pair.of(DwcTerm.degreeOfEstablishment, Event::getDwcDegreeOfEstablishment),
+      Pair.of(DwcTerm.pathway, Event::getDwcPathway),
+      Pair.of(DwcTerm.georeferenceVerificationStatus, Event::getDwcGeoreferenceVerificationStatus),
+      Pair.of(DwcTerm.eventType, Event::getDwcEventType),
+      Pair.of(DwcTerm.fieldNumber, Event::getDwcFieldNumber),
+      Pair.of(DwcTerm.eventDate, Event::getDwcEventDate),
+      Pair.of(DwcTerm.eventTime, Event::getDwcEventTime),
+      Pair.of(DwcTerm.startDayOfYear, Event::getDwcStartDayOfYear),
+      Pair.of(DwcTerm.endDayOfYear, Event::getDwcEndDayOfYear),
+      Pair.of(DwcTerm.year, Event::getDwcYear),
+      Pair.of(DwcTerm.month, Event::getDwcMonth),
+      Pair.of(DwcTerm.day, Event::getDwcDay),
+      Pair.of(DwcTerm.verbatimEventDate, Event::getDwcVerbatimEventDate),
+      Pair.of(DwcTerm.habitat, Event::getDwcHabitat),
+      Pair.of(DwcTerm.samplingProtocol, Event::getDwcSamplingProtocol),
+      Pair.of(DwcTerm.sampleSizeValue, Event::getDwcSampleSizeValue),
+      Pair.of(DwcTerm.sampleSizeUnit, Event::getDwcSampleSizeUnit),
+      Pair.of(DwcTerm.samplingEffort, Event::getDwcSamplingEffort),
+      Pair.of(DwcTerm.fieldNotes, Event::getDwcFieldNotes),
+      Pair.of(DwcTerm.eventRemarks, Event::getDwcEventRemarks)
+  );
+
+  private static final List<Pair<Term, Function<Location, Object>>> LOCATION_TERMS = List.of(
+      Pair.of(DwcTerm.locationID, Location::getId),
+      Pair.of(DwcTerm.higherGeography, Location::getDwcHigherGeography),
+      Pair.of(DwcTerm.higherGeographyID, Location::getDwcHigherGeographyID),
+      Pair.of(DwcTerm.continent, Location::getDwcContinent),
+      Pair.of(DwcTerm.waterBody, Location::getDwcWaterBody),
+      Pair.of(DwcTerm.island, Location::getDwcIsland),
+      Pair.of(DwcTerm.islandGroup, Location::getDwcIslandGroup),
+      Pair.of(DwcTerm.country, Location::getDwcCountry),
+      Pair.of(DwcTerm.countryCode, Location::getDwcCountryCode),
+      Pair.of(DwcTerm.stateProvince, Location::getDwcStateProvince),
+      Pair.of(DwcTerm.county, Location::getDwcCounty),
+      Pair.of(DwcTerm.municipality, Location::getDwcMunicipality),
+      Pair.of(DwcTerm.locality, Location::getDwcLocality),
+      Pair.of(DwcTerm.verbatimLocality, Location::getDwcVerbatimLocality),
+      Pair.of(DwcTerm.minimumElevationInMeters, Location::getDwcMinimumElevationInMeters),
+      Pair.of(DwcTerm.maximumElevationInMeters, Location::getDwcMaximumElevationInMeters),
+      Pair.of(DwcTerm.verbatimElevation, Location::getDwcVerbatimElevation),
+      Pair.of(DwcTerm.minimumDepthInMeters, Location::getDwcMinimumDepthInMeters),
+      Pair.of(DwcTerm.maximumDepthInMeters, Location::getDwcMaximumDepthInMeters),
+      Pair.of(DwcTerm.verbatimDepth, Location::getDwcVerbatimDepth),
+      Pair.of(DwcTerm.maximumDistanceAboveSurfaceInMeters,
+          Location::getDwcMaximumDistanceAboveSurfaceInMeters),
+      Pair.of(DwcTerm.minimumDistanceAboveSurfaceInMeters,
+          Location::getDwcMinimumDistanceAboveSurfaceInMeters),
+      Pair.of(DwcTerm.locationAccordingTo, Location::getDwcLocationAccordingTo),
+      Pair.of(DwcTerm.locationRemarks, Location::getDwcLocationRemarks)
+  );
+
+  private static final List<Pair<Term, Function<Georeference, Object>>> GEOREFERENCE_TERMS =
+      List.of(
+          Pair.of(DwcTerm.decimalLatitude, Georeference::getDwcDecimalLatitude),
+          Pair.of(DwcTerm.decimalLongitude, Georeference::getDwcDecimalLongitude),
+          Pair.of(DwcTerm.geodeticDatum, Georeference::getDwcGeodeticDatum),
+          Pair.of(DwcTerm.coordinateUncertaintyInMeters,
+              Georeference::getDwcCoordinateUncertaintyInMeters),
+          Pair.of(DwcTerm.coordinatePrecision, Georeference::getDwcCoordinatePrecision),
+          Pair.of(DwcTerm.pointRadiusSpatialFit, Georeference::getDwcPointRadiusSpatialFit),
+          Pair.of(DwcTerm.verbatimCoordinates, Georeference::getDwcVerbatimCoordinates),
+          Pair.of(DwcTerm.verbatimLatitude, Georeference::getDwcVerbatimLatitude),
+          Pair.of(DwcTerm.verbatimLongitude, Georeference::getDwcVerbatimLongitude),
+          Pair.of(DwcTerm.verbatimCoordinateSystem, Georeference::getDwcVerbatimCoordinateSystem),
+          Pair.of(DwcTerm.verbatimSRS, Georeference::getDwcVerbatimSRS),
+          Pair.of(DwcTerm.footprintWKT, Georeference::getDwcFootprintWKT),
+          Pair.of(DwcTerm.footprintSRS, Georeference::getDwcFootprintSRS),
+          Pair.of(DwcTerm.footprintSpatialFit, Georeference::getDwcFootprintSpatialFit),
+          Pair.of(DwcTerm.georeferencedBy,
+              georeference -> retrieveCombinedAgentName(georeference.getOdsHasAgents(), null)),
+          Pair.of(DwcTerm.georeferencedDate, Georeference::getDwcGeoreferencedDate),
+          Pair.of(DwcTerm.georeferenceProtocol, Georeference::getDwcGeoreferenceProtocol),
+          Pair.of(DwcTerm.georeferenceSources, Georeference::getDwcGeoreferenceSources),
+          Pair.of(DwcTerm.georeferenceRemarks, Georeference::getDwcGeoreferenceRemarks)
+      );
+
+  private static final List<Pair<Term, Function<GeologicalContext, Object>>>
+      GEOLOGICAL_CONTEXT_TERMS = List.of(
+          Pair.of(DwcTerm.geologicalContextID, GeologicalContext::getId),
+          Pair.of(DwcTerm.earliestEonOrLowestEonothem,
+              GeologicalContext::getDwcEarliestEonOrLowestEonothem),
+          Pair.of(DwcTerm.latestEonOrHighestEonothem,
+              GeologicalContext::getDwcLatestEonOrHighestEonothem),
+          Pair.of(DwcTerm.earliestEraOrLowestErathem,
+              GeologicalContext::getDwcEarliestEraOrLowestErathem),
+          Pair.of(DwcTerm.latestEraOrHighestErathem,
+              GeologicalContext::getDwcLatestEraOrHighestErathem),
+          Pair.of(DwcTerm.earliestPeriodOrLowestSystem,
+              GeologicalContext::getDwcEarliestPeriodOrLowestSystem),
+          Pair.of(DwcTerm.latestPeriodOrHighestSystem,
+              GeologicalContext::getDwcLatestPeriodOrHighestSystem),
+          Pair.of(DwcTerm.earliestEpochOrLowestSeries,
+              GeologicalContext::getDwcEarliestEpochOrLowestSeries),
+          Pair.of(DwcTerm.latestEpochOrHighestSeries,
+              GeologicalContext::getDwcLatestEpochOrHighestSeries),
+          Pair.of(DwcTerm.earliestAgeOrLowestStage,
+              GeologicalContext::getDwcEarliestAgeOrLowestStage),
+          Pair.of(DwcTerm.latestAgeOrHighestStage,
+              GeologicalContext::getDwcLatestAgeOrHighestStage),
+          Pair.of(DwcTerm.lowestBiostratigraphicZone,
+              GeologicalContext::getDwcLowestBiostratigraphicZone),
+          Pair.of(DwcTerm.highestBiostratigraphicZone,
+              GeologicalContext::getDwcHighestBiostratigraphicZone),
+          Pair.of(DwcTerm.lithostratigraphicTerms,
+              GeologicalContext::getDwcLithostratigraphicTerms),
+          Pair.of(DwcTerm.group, GeologicalContext::getDwcGroup),
+          Pair.of(DwcTerm.formation, GeologicalContext::getDwcFormation),
+          Pair.of(DwcTerm.member, GeologicalContext::getDwcMember),
+          Pair.of(DwcTerm.bed, GeologicalContext::getDwcBed)
+      );
+
+  // The columns of each file in the archive, the occurrence file includes the term tables above
+  private static final DwcaRowSchema OCCURRENCE_SCHEMA = new DwcaRowSchema(DwcTerm.Occurrence,
+      Stream.<List<Term>>of(List.of(
+          DwcaTerm.ID, DwcTerm.institutionID, DwcTerm.collectionID, DwcTerm.datasetID,
+          DwcTerm.institutionCode, DwcTerm.collectionCode, DwcTerm.datasetName,
+          DwcTerm.ownerInstitutionCode, DwcTerm.basisOfRecord, DcTerm.license, DcTerm.type,
+          DcTerm.modified, DcTerm.rightsHolder, DcTerm.accessRights, DwcTerm.informationWithheld,
+          DwcTerm.dataGeneralizations, DwcTerm.occurrenceID, DwcTerm.catalogNumber,
+          DwcTerm.recordedBy, DwcTerm.recordNumber, DwcTerm.recordedByID, DwcTerm.organismQuantity,
+          DwcTerm.organismQuantityType, DwcTerm.preparations, DwcTerm.disposition,
+          DwcTerm.organismID, DwcTerm.organismName, DwcTerm.organismScope, DwcTerm.organismRemarks,
+          DwcTerm.materialEntityID, DwcTerm.verbatimLabel),
+          termsOf(EVENT_TERMS), List.of(DwcTerm.eventID), termsOf(LOCATION_TERMS),
+          termsOf(GEOREFERENCE_TERMS), termsOf(GEOLOGICAL_CONTEXT_TERMS))
+          .flatMap(List::stream).toList());
+
+  private static final DwcaRowSchema IDENTIFICATION_SCHEMA = new DwcaRowSchema(
+      DwcTerm.Identification, List.of(
+          DwcaTerm.ID, DwcTerm.identificationID, DwcTerm.verbatimIdentification,
+          DwcTerm.identificationQualifier, DwcTerm.typeStatus, DwcTerm.identifiedBy,
+          DwcTerm.identifiedByID, DwcTerm.dateIdentified, DwcTerm.identificationVerificationStatus,
+          DwcTerm.identificationRemarks, DwcTerm.taxonID, DwcTerm.scientificNameID,
+          DwcTerm.acceptedNameUsageID, DwcTerm.scientificName, DwcTerm.acceptedNameUsage,
+          DwcTerm.originalNameUsage, DwcTerm.namePublishedInYear, DwcTerm.kingdom, DwcTerm.phylum,
+          DwcTerm.class_, DwcTerm.order, DwcTerm.superfamily, DwcTerm.family, DwcTerm.subfamily,
+          DwcTerm.tribe, DwcTerm.subtribe, DwcTerm.genus, DwcTerm.genericName, DwcTerm.subgenus,
+          DwcTerm.infragenericEpithet, DwcTerm.specificEpithet, DwcTerm.infraspecificEpithet,
+          DwcTerm.cultivarEpithet, DwcTerm.taxonRank, DwcTerm.verbatimTaxonRank,
+          DwcTerm.scientificNameAuthorship, DwcTerm.vernacularName, DwcTerm.nomenclaturalCode,
+          DwcTerm.taxonomicStatus, DwcTerm.nomenclaturalStatus, DwcTerm.taxonRemarks));
+
+  private static final DwcaRowSchema IDENTIFIER_SCHEMA = new DwcaRowSchema(
+      GbifTerm.Identifier, List.of(
+          DwcaTerm.ID, DcTerm.identifier, DcTerm.title, DcTerm.subject, DcTerm.format,
+          DwcTerm.datasetID));
+
+  private static final DwcaRowSchema REFERENCE_SCHEMA = new DwcaRowSchema(
+      GbifTerm.Reference, List.of(
+          DwcaTerm.ID, DcTerm.identifier, DcTerm.bibliographicCitation, DcTerm.title,
+          DcTerm.creator, DcTerm.date, DcTerm.description, DcTerm.type));
+
+  private static final DwcaRowSchema RELATIONSHIP_SCHEMA = new DwcaRowSchema(
+      DwcTerm.ResourceRelationship, List.of(
+          DwcaTerm.ID, DwcTerm.resourceRelationshipID, DwcTerm.resourceID,
+          DwcTerm.relationshipOfResourceID, DwcTerm.relatedResourceID,
+          DwcTerm.relationshipOfResource, DwcTerm.relationshipAccordingTo,
+          DwcTerm.relationshipEstablishedDate, DwcTerm.relationshipRemarks));
+
+  private static final DwcaRowSchema MULTIMEDIA_SCHEMA = new DwcaRowSchema(
+      AcTerm.Multimedia, List.of(
+          DwcaTerm.ID, DcTerm.identifier, DcTerm.type, DcTerm.format, AcTerm.subtypeLiteral,
+          AcTerm.subtype, DcTerm.title, DcTerm.modified, AcTerm.metadataLanguageLiteral,
+          AcTerm.metadataLanguage, AcTerm.comments, DcTerm.available, DcTerm.rights,
+          XmpRightsTerm.UsageTerms, XmpRightsTerm.WebStatement, DcTerm.source, XmpTerm.CreateDate,
+          DcTerm.description, DcTerm.language, AcTerm.subjectCategoryVocabulary, AcTerm.tag,
+          AcTerm.timeOfDay, AcTerm.digitizationDate, AcTerm.captureDevice,
+          AcTerm.resourceCreationTechnique, AcTerm.accessURI, AcTerm.frameRate,
+          AcTerm.variantLiteral, AcTerm.variant, AcTerm.variantDescription,
+          ExifTerm.PixelXDimension, ExifTerm.PixelYDimension));
+
+  private static final DwcaRowSchema CHRONOMETRIC_AGE_SCHEMA = new DwcaRowSchema(
+      ChronoTerm.ChronometricAge, List.of(
+          DwcaTerm.ID, ChronoTerm.chronometricAgeID, ChronoTerm.verbatimChronometricAge,
+          ChronoTerm.chronometricAgeProtocol, ChronoTerm.uncalibratedChronometricAge,
+          ChronoTerm.chronometricAgeConversionProtocol, ChronoTerm.earliestChronometricAge,
+          ChronoTerm.earliestChronometricAgeReferenceSystem, ChronoTerm.latestChronometricAge,
+          ChronoTerm.latestChronometricAgeReferenceSystem,
+          ChronoTerm.chronometricAgeUncertaintyInYears, ChronoTerm.chronometricAgeUncertaintyMethod,
+          ChronoTerm.materialDated, ChronoTerm.materialDatedID,
+          ChronoTerm.materialDatedRelationship, ChronoTerm.chronometricAgeDeterminedBy,
+          ChronoTerm.chronometricAgeDeterminedDate, ChronoTerm.chronometricAgeReferences,
+          ChronoTerm.chronometricAgeRemarks));
+
+  private static final DwcaRowSchema ASSERTION_SCHEMA = new DwcaRowSchema(
+      DwcTerm.MeasurementOrFact, List.of(
+          DwcaTerm.ID, DwcTerm.measurementID, DwcTerm.occurrenceID, DwcTerm.measurementType,
+          ObisTerm.measurementTypeID, DwcTerm.measurementValue, ObisTerm.measurementValueID,
+          DwcTerm.measurementAccuracy, DwcTerm.measurementUnit, ObisTerm.measurementUnitID,
+          DwcTerm.measurementDeterminedDate, DwcTerm.measurementDeterminedBy,
+          DwcTerm.measurementRemarks));
 
-  private final ObjectMapper objectMapper;
   private final DwcaZipWriter dwcaZipWriter;
+  private final ConcurrentMapper concurrentMapper;
 
   public DwcaService(
       ElasticSearchRepository elasticSearchRepository, ExporterBackendClient exporterBackendClient,
-      S3Repository s3Repository, IndexProperties indexProperties, ObjectMapper objectMapper,
+      S3Repository s3Repository, IndexProperties indexProperties,
       Environment environment, SourceSystemRepository sourceSystemRepository,
-      DwcaZipWriter dwcaZipWriter) {
+      DwcaZipWriter dwcaZipWriter, PipelineProperties pipelineProperties,
+      List<MetricsPublisher> metricsPublishers) {
     super(elasticSearchRepository, indexProperties, exporterBackendClient, s3Repository,
-        environment, sourceSystemRepository);
-    this.objectMapper = objectMapper;
+        environment, sourceSystemRepository, pipelineProperties, metricsPublishers);
     this.dwcaZipWriter = dwcaZipWriter;
+    this.concurrentMapper = new ConcurrentMapper(pipelineProperties.isConcurrentMapping());
+  }
+
+  private static List<Term> termsOf(List<? extends Pair<Term, ?>> termTable) {
+    return termTable.stream().<Term>map(Pair::getLeft).toList();
   }
 
   private static String getStringValue(Object object) {
@@ -103,63 +314,148 @@ public class DwcaService extends AbstractExportJobService {
   }
 
   @Override
-  protected void writeHeaderToFile() throws IOException {
+  protected String jobType() {
+    return Profiles.DWCA;
+  }
+
+  @Override
+  protected DwcaJobContext createJobContext(JobRequest jobRequest, Path tempFile,
+      JobMetrics metrics) {
+    return new DwcaJobContext(jobRequest, tempFile, metrics);
+  }
+
+  @Override
+  protected boolean processRequest(DwcaJobContext jobContext)
+      throws IOException, FailedProcessingException {
+    jobContext.archiveSession = dwcaZipWriter.openSession(jobContext.getTempFile());
+    var hasResults = false;
+    try (var resolver = new MediaResolver(elasticSearchRepository,
+        pipelineProperties.getMediaBatchSize(), pipelineProperties.getMediaCacheSize(),
+        pipelineProperties.getMediaThreads())) {
+      jobContext.mediaResolver = resolver;
+      hasResults = super.processRequest(jobContext);
+      return hasResults;
+    } finally {
+      jobContext.mediaResolver = null;
+      if (!hasResults) {
+        jobContext.archiveSession.discard();
+      }
+    }
+  }
+
+  @Override
+  protected void prefetch(DwcaJobContext jobContext, List<DigitalSpecimen> searchResults) {
+    var resolver = jobContext.mediaResolver;
+    if (resolver != null) {
+      resolver.prefetch(getMediaIds(searchResults));
+    }
+  }
+
+  @Override
+  protected void writeHeaderToFile(DwcaJobContext jobContext) throws IOException {
     log.debug("This method is not required for DWCA exports");
   }
 
+  /*
+   * The archive is written straight to a multipart upload, its parts are uploaded while the spool
+   * files are being compressed, so the compress stage includes the upload of the archive
+   */
   @Override
-  protected void postProcessResults(JobRequest jobRequest)
+  protected void postProcessResults(DwcaJobContext jobContext)
       throws IOException, FailedProcessingException {
+    var jobRequest = jobContext.getJobRequest();
     if (Boolean.TRUE.equals(jobRequest.isSourceSystemJob())) {
-      writeEmlFile(jobRequest, dwcaZipWriter.getFileSystem());
+      try {
+        jobContext.archiveSession.writeEml(retrieveEml(jobRequest));
+      } catch (FailedProcessingException e) {
+        jobContext.archiveSession.discard();
+        throw e;
+      }
     }
+    jobContext.upload = s3Repository.openUpload(jobRequest.jobId(), fileExtension());
+    var start = System.nanoTime();
+    var closed = false;
     try {
-      dwcaZipWriter.close();
+      jobContext.archiveSession.close(jobContext.upload);
+      closed = true;
     } catch (TemplateException e) {
       throw new FailedProcessingException("Failed to create the metadata file", e);
+    } catch (RuntimeException e) {
+      throw new FailedProcessingException("Failed to write the archive", e);
+    } finally {
+      if (!closed) {
+        jobContext.upload.abort();
+      }
     }
+    jobContext.getMetrics().record(Stage.COMPRESS, System.nanoTime() - start);
+    jobContext.getMetrics().recordBytes(Stage.UPLOAD, jobContext.upload.getSize());
   }
 
   @Override
-  protected void processSearchResults(List<JsonNode> searchResults)
-      throws IOException, FailedProcessingException {
-    var digitalSpecimenList = searchResults.stream()
-        .map(json -> objectMapper.convertValue(json, DigitalSpecimen.class)).toList();
-    var digitalMediaList = elasticSearchRepository.getTargetMediaById(
-            getMediaIds(digitalSpecimenList)).stream()
-        .map(json -> objectMapper.convertValue(json, DigitalMedia.class)).toList();
+  protected String uploadResults(DwcaJobContext jobContext) {
+    return jobContext.upload.getUrl();
+  }
+
+  @Override
+  protected void processSearchResults(DwcaJobContext jobContext,
+      List<DigitalSpecimen> digitalSpecimenList) throws IOException, FailedProcessingException {
+    var metrics = jobContext.getMetrics();
+    var start = System.nanoTime();
+    var digitalMediaList = jobContext.mediaResolver.resolve(getMediaIds(digitalSpecimenList));
+    metrics.record(Stage.MEDIA, System.nanoTime() - start, digitalMediaList.size());
+    start = System.nanoTime();
     var specimenToDigitalMediaMapping = createSpecimenToMediaMapping(digitalSpecimenList,
         digitalMediaList);
     var mappedResult = mapToDwcaRecords(digitalSpecimenList, specimenToDigitalMediaMapping);
-    dwcaZipWriter.writeRecords(mappedResult);
+    metrics.record(Stage.MAP, System.nanoTime() - start, digitalSpecimenList.size());
+    start = System.nanoTime();
+    jobContext.archiveSession.writeRecords(mappedResult);
+    metrics.record(Stage.WRITE, System.nanoTime() - start, countRows(mappedResult));
+  }
+
+  private static long countRows(Map<Term, List<DwcaRow>> mappedResult) {
+    return mappedResult.values().stream().mapToLong(List::size).sum();
   }
 
-  private Map<Term, List<List<Pair<Term, String>>>> mapToDwcaRecords(
+  /*
+   * Each specimen is mapped into its own fragment, the fragments are merged in the order of the
+   * specimens
+   */
+  private Map<Term, List<DwcaRow>> mapToDwcaRecords(
       List<DigitalSpecimen> digitalSpecimenList,
       Map<String, List<DigitalMedia>> specimenToDigitalMediaMapping)
       throws FailedProcessingException {
-    var mappedList = new HashMap<Term, List<List<Pair<Term, String>>>>();
-    var occurrenceList = new ArrayList<List<Pair<Term, String>>>();
-    var identificationList = new ArrayList<List<Pair<Term, String>>>();
-    var referenceList = new ArrayList<List<Pair<Term, String>>>();
-    var identifierList = new ArrayList<List<Pair<Term, String>>>();
-    var relationshipList = new ArrayList<List<Pair<Term, String>>>();
-    var digitalMediaList = new ArrayList<List<Pair<Term, String>>>();
-    var assertionList = new ArrayList<List<Pair<Term, String>>>();
-    var chronometricAgeList = new ArrayList<List<Pair<Term, String>>>();
-    for (var digitalSpecimen : digitalSpecimenList) {
-      addOccurrence(digitalSpecimen, occurrenceList);
-      addIdentifications(digitalSpecimen, identificationList, referenceList);
-      addIdentifiers(digitalSpecimen, identifierList);
-      addRelationships(digitalSpecimen, relationshipList);
-      addReference(digitalSpecimen.getOdsHasCitations(), digitalSpecimen.getId(), referenceList);
-      addAnnotation(digitalSpecimen, assertionList);
-      addChronometricAge(digitalSpecimen, chronometricAgeList);
-      var media = specimenToDigitalMediaMapping.get(digitalSpecimen.getId());
-      if (media != null && !media.isEmpty()) {
-        addDigitalMedia(specimenToDigitalMediaMapping.get(digitalSpecimen.getId()),
-            digitalSpecimen.getId(), digitalMediaList);
-      }
+    var fragments = concurrentMapper.map(digitalSpecimenList,
+        digitalSpecimen -> mapToDwcaRecords(digitalSpecimen,
+            specimenToDigitalMediaMapping.get(digitalSpecimen.getId())));
+    var mappedList = new HashMap<Term, List<DwcaRow>>();
+    for (var fragment : fragments) {
+      fragment.forEach((rowType, rows) -> mappedList.computeIfAbsent(rowType,
+          k -> new ArrayList<>()).addAll(rows));
+    }
+    return mappedList;
+  }
+
+  Map<Term, List<DwcaRow>> mapToDwcaRecords(DigitalSpecimen digitalSpecimen,
+      List<DigitalMedia> media) {
+    var mappedList = new HashMap<Term, List<DwcaRow>>();
+    var occurrenceList = new ArrayList<DwcaRow>();
+    var identificationList = new ArrayList<DwcaRow>();
+    var referenceList = new ArrayList<DwcaRow>();
+    var identifierList = new ArrayList<DwcaRow>();
+    var relationshipList = new ArrayList<DwcaRow>();
+    var digitalMediaList = new ArrayList<DwcaRow>();
+    var assertionList = new ArrayList<DwcaRow>();
+    var chronometricAgeList = new ArrayList<DwcaRow>();
+    addOccurrence(digitalSpecimen, occurrenceList);
+    addIdentifications(digitalSpecimen, identificationList, referenceList);
+    addIdentifiers(digitalSpecimen, identifierList);
+    addRelationships(digitalSpecimen, relationshipList);
+    addReference(digitalSpecimen.getOdsHasCitations(), digitalSpecimen.getId(), referenceList);
+    addAnnotation(digitalSpecimen, assertionList);
+    addChronometricAge(digitalSpecimen, chronometricAgeList);
+    if (media != null && !media.isEmpty()) {
+      addDigitalMedia(media, digitalSpecimen.getId(), digitalMediaList);
     }
     mappedList.put(DwcTerm.Occurrence, occurrenceList);
     mappedList.put(DwcTerm.Identification, identificationList);
@@ -172,258 +468,55 @@ public class DwcaService extends AbstractExportJobService {
   }
 
   private void addChronometricAge(DigitalSpecimen digitalSpecimen,
-      ArrayList<List<Pair<Term, String>>> chronometricAgeList) {
+      List<DwcaRow> chronometricAgeList) {
     if (digitalSpecimen.getOdsHasChronometricAges() != null
         && !digitalSpecimen.getOdsHasChronometricAges().isEmpty()) {
       for (var chronometricAge : digitalSpecimen.getOdsHasChronometricAges()) {
-        var chronometricAgeRecord = new ArrayList<Pair<Term, String>>();
-        chronometricAgeRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeID,
-            chronometricAge.getChronoChronometricAgeID()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.verbatimChronometricAge,
-            chronometricAge.getChronoVerbatimChronometricAge()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeProtocol,
-            chronometricAge.getChronoChronometricAgeProtocol()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.uncalibratedChronometricAge,
-            chronometricAge.getChronoUncalibratedChronometricAge()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeConversionProtocol,
-            chronometricAge.getChronoChronometricAgeConversionProtocol()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.earliestChronometricAge,
-            convertValueToString(chronometricAge.getChronoEarliestChronometricAge())));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.earliestChronometricAgeReferenceSystem,
-            chronometricAge.getChronoEarliestChronometricAgeReferenceSystem()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.latestChronometricAge,
-            convertValueToString(chronometricAge.getChronoLatestChronometricAge())));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.latestChronometricAgeReferenceSystem,
-            chronometricAge.getChronoLatestChronometricAgeReferenceSystem()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeUncertaintyInYears,
-            getStringValue(chronometricAge.getChronoChronometricAgeUncertaintyInYears())));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeUncertaintyMethod,
-            chronometricAge.getChronoChronometricAgeUncertaintyMethod()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.materialDated,
-            chronometricAge.getChronoMaterialDated()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.materialDatedID,
-            chronometricAge.getChronoMaterialDatedID()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.materialDatedRelationship,
-            chronometricAge.getChronoMaterialDatedRelationship()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeDeterminedBy, retrieveCombinedAgentName(chronometricAge.getOdsHasAgents(), null)));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeDeterminedDate,
-            chronometricAge.getChronoChronometricAgeDeterminedDate()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeReferences,
-            chronometricAge.getChronoChronometricAgeReferences()));
-        chronometricAgeRecord.add(Pair.of(ChronoTerm.chronometricAgeRemarks,
-            chronometricAge.getChronoChronometricAgeRemarks()));
+        var chronometricAgeRecord = CHRONOMETRIC_AGE_SCHEMA.newRow();
+        chronometricAgeRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeID,
+            chronometricAge.getChronoChronometricAgeID());
+        chronometricAgeRecord.set(ChronoTerm.verbatimChronometricAge,
+            chronometricAge.getChronoVerbatimChronometricAge());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeProtocol,
+            chronometricAge.getChronoChronometricAgeProtocol());
+        chronometricAgeRecord.set(ChronoTerm.uncalibratedChronometricAge,
+            chronometricAge.getChronoUncalibratedChronometricAge());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeConversionProtocol,
+            chronometricAge.getChronoChronometricAgeConversionProtocol());
+        chronometricAgeRecord.set(ChronoTerm.earliestChronometricAge,
+            convertValueToString(chronometricAge.getChronoEarliestChronometricAge()));
+        chronometricAgeRecord.set(ChronoTerm.earliestChronometricAgeReferenceSystem,
+            chronometricAge.getChronoEarliestChronometricAgeReferenceSystem());
+        chronometricAgeRecord.set(ChronoTerm.latestChronometricAge,
+            convertValueToString(chronometricAge.getChronoLatestChronometricAge()));
+        chronometricAgeRecord.set(ChronoTerm.latestChronometricAgeReferenceSystem,
+            chronometricAge.getChronoLatestChronometricAgeReferenceSystem());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeUncertaintyInYears,
+            getStringValue(chronometricAge.getChronoChronometricAgeUncertaintyInYears()));
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeUncertaintyMethod,
+            chronometricAge.getChronoChronometricAgeUncertaintyMethod());
+        chronometricAgeRecord.set(ChronoTerm.materialDated,
+            chronometricAge.getChronoMaterialDated());
+        chronometricAgeRecord.set(ChronoTerm.materialDatedID,
+            chronometricAge.getChronoMaterialDatedID());
+        chronometricAgeRecord.set(ChronoTerm.materialDatedRelationship,
+            chronometricAge.getChronoMaterialDatedRelationship());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeDeterminedBy,
+            retrieveCombinedAgentName(chronometricAge.getOdsHasAgents(), null));
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeDeterminedDate,
+            chronometricAge.getChronoChronometricAgeDeterminedDate());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeReferences,
+            chronometricAge.getChronoChronometricAgeReferences());
+        chronometricAgeRecord.set(ChronoTerm.chronometricAgeRemarks,
+            chronometricAge.getChronoChronometricAgeRemarks());
         chronometricAgeList.add(chronometricAgeRecord);
       }
     }
   }
 
-  private void mapEvent(DigitalSpecimen digitalSpecimen,
-      ArrayList<Pair<Term, String>> occurrenceRecord)
-      throws FailedProcessingException {
-    occurrenceRecord.add(Pair.of(DwcTerm.sex,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcSex")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.lifeStage,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcLifeStage")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.reproductiveCondition,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS,
-                "getDwcReproductiveCondition")));
-    occurrenceRecord.add(Pair.of(DwcTerm.caste,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcCaste")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.behavior,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcBehavior")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.vitality,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcVitality")));
-    occurrenceRecord.add(Pair.of(DwcTerm.establishmentMeans,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEstablishmentMeans")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.degreeOfEstablishment,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS,
-                "getDwcDegreeOfEstablishment")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.pathway,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcPathway")));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferenceVerificationStatus,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS,
-            "getDwcGeoreferenceVerificationStatus")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.eventType,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEventType")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.fieldNumber,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcFieldNumber")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.eventDate,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEventDate")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.eventTime,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEventTime")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.startDayOfYear,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcStartDayOfYear")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.endDayOfYear,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEndDayOfYear")));
-    occurrenceRecord.add(Pair.of(DwcTerm.year,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcYear")));
-    occurrenceRecord.add(Pair.of(DwcTerm.month,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcMonth")));
-    occurrenceRecord.add(Pair.of(DwcTerm.day,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcDay")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimEventDate,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcVerbatimEventDate")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.habitat,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcHabitat")));
-    occurrenceRecord.add(Pair.of(DwcTerm.samplingProtocol,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcSamplingProtocol")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.sampleSizeValue,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcSampleSizeValue")));
-    occurrenceRecord.add(Pair.of(DwcTerm.sampleSizeUnit,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcSampleSizeUnit")));
-    occurrenceRecord.add(Pair.of(DwcTerm.samplingEffort,
-        retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcSamplingEffort")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.fieldNotes,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcFieldNotes")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.eventRemarks,
-            retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, "getDwcEventRemarks")));
-    occurrenceRecord.add(Pair.of(DwcTerm.eventID, digitalSpecimen.getId()));
-  }
-
-  private void mapLocation(DigitalSpecimen digitalSpecimen,
-      ArrayList<Pair<Term, String>> occurrenceRecord) throws FailedProcessingException {
-    occurrenceRecord.add(Pair.of(DwcTerm.locationID,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getId")));
-    occurrenceRecord.add(Pair.of(DwcTerm.higherGeography,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcHigherGeography")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.higherGeographyID,
-            retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-                "getDwcHigherGeographyID")));
-    occurrenceRecord.add(Pair.of(DwcTerm.continent,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcContinent")));
-    occurrenceRecord.add(Pair.of(DwcTerm.waterBody,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcWaterBody")));
-    occurrenceRecord.add(Pair.of(DwcTerm.island,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcIsland")));
-    occurrenceRecord.add(Pair.of(DwcTerm.islandGroup,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcIslandGroup")));
-    occurrenceRecord.add(Pair.of(DwcTerm.country,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcCountry")));
-    occurrenceRecord.add(Pair.of(DwcTerm.countryCode,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcCountryCode")));
-    occurrenceRecord.add(Pair.of(DwcTerm.stateProvince,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcStateProvince")));
-    occurrenceRecord.add(Pair.of(DwcTerm.county,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcCounty")));
-    occurrenceRecord.add(Pair.of(DwcTerm.municipality,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcMunicipality")));
-    occurrenceRecord.add(Pair.of(DwcTerm.locality,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcLocality")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.verbatimLocality,
-            retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-                "getDwcVerbatimLocality")));
-    occurrenceRecord.add(Pair.of(DwcTerm.minimumElevationInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMinimumElevationInMeters")));
-    occurrenceRecord.add(Pair.of(DwcTerm.maximumElevationInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMaximumElevationInMeters")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.verbatimElevation,
-            retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-                "getDwcVerbatimElevation")));
-    occurrenceRecord.add(Pair.of(DwcTerm.minimumDepthInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMinimumDepthInMeters")));
-    occurrenceRecord.add(Pair.of(DwcTerm.maximumDepthInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMaximumDepthInMeters")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimDepth,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcVerbatimDepth")));
-    occurrenceRecord.add(Pair.of(DwcTerm.maximumDistanceAboveSurfaceInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMaximumDistanceAboveSurfaceInMeters")));
-    occurrenceRecord.add(Pair.of(DwcTerm.minimumDistanceAboveSurfaceInMeters,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-            "getDwcMinimumDistanceAboveSurfaceInMeters")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.locationAccordingTo,
-            retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS,
-                "getDwcLocationAccordingTo")));
-    occurrenceRecord.add(Pair.of(DwcTerm.locationRemarks,
-        retrieveTerm(digitalSpecimen, LOCATION_FUNCTIONS, "getDwcLocationRemarks")));
-  }
-
-  private void mapGeologicalContext(
-      DigitalSpecimen digitalSpecimen, ArrayList<Pair<Term, String>> occurrenceRecord)
-      throws FailedProcessingException {
-    occurrenceRecord.add(Pair.of(DwcTerm.geologicalContextID,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getId")));
-    occurrenceRecord.add(Pair.of(DwcTerm.earliestEonOrLowestEonothem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcEarliestEonOrLowestEonothem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.latestEonOrHighestEonothem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLatestEonOrHighestEonothem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.earliestEraOrLowestErathem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcEarliestEraOrLowestErathem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.latestEraOrHighestErathem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLatestEraOrHighestErathem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.earliestPeriodOrLowestSystem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcEarliestPeriodOrLowestSystem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.latestPeriodOrHighestSystem,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLatestPeriodOrHighestSystem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.earliestEpochOrLowestSeries,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcEarliestEpochOrLowestSeries")));
-    occurrenceRecord.add(Pair.of(DwcTerm.latestEpochOrHighestSeries,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLatestEpochOrHighestSeries")));
-    occurrenceRecord.add(Pair.of(DwcTerm.earliestAgeOrLowestStage,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcEarliestAgeOrLowestStage")));
-    occurrenceRecord.add(Pair.of(DwcTerm.latestAgeOrHighestStage,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLatestAgeOrHighestStage")));
-    occurrenceRecord.add(Pair.of(DwcTerm.lowestBiostratigraphicZone,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLowestBiostratigraphicZone")));
-    occurrenceRecord.add(Pair.of(DwcTerm.highestBiostratigraphicZone,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcHighestBiostratigraphicZone")));
-    occurrenceRecord.add(Pair.of(DwcTerm.lithostratigraphicTerms,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcLithostratigraphicTerms")));
-    occurrenceRecord.add(Pair.of(DwcTerm.group,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcGroup")));
-    occurrenceRecord.add(Pair.of(DwcTerm.formation,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcFormation")));
-    occurrenceRecord.add(Pair.of(DwcTerm.member,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcMember")));
-    occurrenceRecord.add(Pair.of(DwcTerm.bed,
-        retrieveTerm(digitalSpecimen, GEOLOGICAL_CONTEXT_FUNCTIONS,
-            "getDwcBed")));
-  }
-
   private void addIdentifiers(DigitalSpecimen digitalSpecimen,
-      ArrayList<List<Pair<Term, String>>> identificationRecords) {
+      List<DwcaRow> identificationRecords) {
     var identifiers = digitalSpecimen.getOdsHasIdentifiers().stream().filter(
             identifier -> !EXCLUDE_IDENTIFIERS.contains(identifier.getDctermsTitle()))
         .toList();
@@ -433,211 +526,148 @@ public class DwcaService extends AbstractExportJobService {
     }
   }
 
-  private List<Pair<Term, String>> mapIdentifier(DigitalSpecimen digitalSpecimen,
+  private DwcaRow mapIdentifier(DigitalSpecimen digitalSpecimen,
       Identifier identifier) {
-    var identifierRecord = new ArrayList<Pair<Term, String>>();
-    identifierRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-    identifierRecord.add(Pair.of(DcTerm.identifier, identifier.getDctermsIdentifier()));
-    identifierRecord.add(Pair.of(DcTerm.title, identifier.getDctermsTitle()));
-    identifierRecord.add(
-        Pair.of(DcTerm.subject, String.join(" | ", identifier.getDctermsSubject())));
-    identifierRecord.add(
-        Pair.of(DcTerm.format, String.join(" | ", identifier.getDctermsFormat())));
-    identifierRecord.add(Pair.of(DwcTerm.datasetID, digitalSpecimen.getDwcDatasetID()));
+    var identifierRecord = IDENTIFIER_SCHEMA.newRow();
+    identifierRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+    identifierRecord.set(DcTerm.identifier, identifier.getDctermsIdentifier());
+    identifierRecord.set(DcTerm.title, identifier.getDctermsTitle());
+    identifierRecord.set(DcTerm.subject, String.join(" | ", identifier.getDctermsSubject()));
+    identifierRecord.set(DcTerm.format, String.join(" | ", identifier.getDctermsFormat()));
+    identifierRecord.set(DwcTerm.datasetID, digitalSpecimen.getDwcDatasetID());
     return identifierRecord;
   }
 
-  private List<Pair<Term, String>> mapDigitalMedia(String digitalSpecimenId,
+  private DwcaRow mapDigitalMedia(String digitalSpecimenId,
       DigitalMedia media) {
-    var mediaRecord = new ArrayList<Pair<Term, String>>();
-    mediaRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimenId));
-    mediaRecord.add(Pair.of(DcTerm.identifier, media.getDctermsIdentifier()));
-    mediaRecord.add(Pair.of(DcTerm.type,
-        media.getDctermsType() != null ? media.getDctermsType().value() : null));
-    mediaRecord.add(Pair.of(DcTerm.format, media.getDctermsFormat()));
-    mediaRecord.add(Pair.of(AcTerm.subtypeLiteral, media.getAcSubtypeLiteral()));
-    mediaRecord.add(Pair.of(AcTerm.subtype, media.getAcSubtype()));
-    mediaRecord.add(Pair.of(DcTerm.title, media.getDctermsTitle()));
-    mediaRecord.add(Pair.of(DcTerm.modified, media.getDctermsModified()));
-    mediaRecord.add(Pair.of(AcTerm.metadataLanguageLiteral, media.getAcMetadataLanguageLiteral()));
-    mediaRecord.add(Pair.of(AcTerm.metadataLanguage, media.getAcMetadataLanguage()));
-    mediaRecord.add(Pair.of(AcTerm.comments, media.getAcComments()));
-    mediaRecord.add(Pair.of(DcTerm.available, media.getDctermsAvailable()));
-    mediaRecord.add(Pair.of(DcTerm.rights, media.getDctermsRights()));
-    mediaRecord.add(Pair.of(XmpRightsTerm.UsageTerms, media.getXmpRightsUsageTerms()));
-    mediaRecord.add(Pair.of(XmpRightsTerm.WebStatement, media.getXmpRightsWebStatement()));
-    mediaRecord.add(Pair.of(DcTerm.source, media.getDctermsSource()));
-    mediaRecord.add(Pair.of(XmpTerm.CreateDate, media.getXmpCreateDate()));
-    mediaRecord.add(Pair.of(DcTerm.description, media.getDctermsDescription()));
-    mediaRecord.add(Pair.of(DcTerm.language, media.getDctermsLanguage()));
-    mediaRecord.add(
-        Pair.of(AcTerm.subjectCategoryVocabulary, media.getAcSubjectCategoryVocabulary()));
-    mediaRecord.add(Pair.of(AcTerm.tag, String.join(", ", media.getAcTag())));
-    mediaRecord.add(Pair.of(AcTerm.timeOfDay, media.getAcTimeOfDay()));
-    mediaRecord.add(Pair.of(AcTerm.digitizationDate, media.getAcDigitizationDate()));
-    mediaRecord.add(Pair.of(AcTerm.captureDevice, media.getAcCaptureDevice()));
-    mediaRecord.add(
-        Pair.of(AcTerm.resourceCreationTechnique, media.getAcResourceCreationTechnique()));
-    mediaRecord.add(Pair.of(AcTerm.accessURI, media.getAcAccessURI()));
-    mediaRecord.add(Pair.of(AcTerm.frameRate, getStringValue(media.getAcFrameRate())));
-    mediaRecord.add(Pair.of(AcTerm.variantLiteral, media.getAcVariantLiteral()));
-    mediaRecord.add(Pair.of(AcTerm.variant, media.getAcVariant()));
-    mediaRecord.add(Pair.of(AcTerm.variantDescription, media.getAcVariantDescription()));
-    mediaRecord.add(
-        Pair.of(ExifTerm.PixelXDimension, getStringValue(media.getExifPixelXDimension())));
-    mediaRecord.add(
-        Pair.of(ExifTerm.PixelYDimension, getStringValue(media.getExifPixelYDimension())));
+    var mediaRecord = MULTIMEDIA_SCHEMA.newRow();
+    mediaRecord.set(DwcaTerm.ID, digitalSpecimenId);
+    mediaRecord.set(DcTerm.identifier, media.getDctermsIdentifier());
+    mediaRecord.set(DcTerm.type,
+        media.getDctermsType() != null ? media.getDctermsType().value() : null);
+    mediaRecord.set(DcTerm.format, media.getDctermsFormat());
+    mediaRecord.set(AcTerm.subtypeLiteral, media.getAcSubtypeLiteral());
+    mediaRecord.set(AcTerm.subtype, media.getAcSubtype());
+    mediaRecord.set(DcTerm.title, media.getDctermsTitle());
+    mediaRecord.set(DcTerm.modified, media.getDctermsModified());
+    mediaRecord.set(AcTerm.metadataLanguageLiteral, media.getAcMetadataLanguageLiteral());
+    mediaRecord.set(AcTerm.metadataLanguage, media.getAcMetadataLanguage());
+    mediaRecord.set(AcTerm.comments, media.getAcComments());
+    mediaRecord.set(DcTerm.available, media.getDctermsAvailable());
+    mediaRecord.set(DcTerm.rights, media.getDctermsRights());
+    mediaRecord.set(XmpRightsTerm.UsageTerms, media.getXmpRightsUsageTerms());
+    mediaRecord.set(XmpRightsTerm.WebStatement, media.getXmpRightsWebStatement());
+    mediaRecord.set(DcTerm.source, media.getDctermsSource());
+    mediaRecord.set(XmpTerm.CreateDate, media.getXmpCreateDate());
+    mediaRecord.set(DcTerm.description, media.getDctermsDescription());
+    mediaRecord.set(DcTerm.language, media.getDctermsLanguage());
+    mediaRecord.set(AcTerm.subjectCategoryVocabulary, media.getAcSubjectCategoryVocabulary());
+    mediaRecord.set(AcTerm.tag, String.join(", ", media.getAcTag()));
+    mediaRecord.set(AcTerm.timeOfDay, media.getAcTimeOfDay());
+    mediaRecord.set(AcTerm.digitizationDate, media.getAcDigitizationDate());
+    mediaRecord.set(AcTerm.captureDevice, media.getAcCaptureDevice());
+    mediaRecord.set(AcTerm.resourceCreationTechnique, media.getAcResourceCreationTechnique());
+    mediaRecord.set(AcTerm.accessURI, media.getAcAccessURI());
+    mediaRecord.set(AcTerm.frameRate, getStringValue(media.getAcFrameRate()));
+    mediaRecord.set(AcTerm.variantLiteral, media.getAcVariantLiteral());
+    mediaRecord.set(AcTerm.variant, media.getAcVariant());
+    mediaRecord.set(AcTerm.variantDescription, media.getAcVariantDescription());
+    mediaRecord.set(ExifTerm.PixelXDimension, getStringValue(media.getExifPixelXDimension()));
+    mediaRecord.set(ExifTerm.PixelYDimension, getStringValue(media.getExifPixelYDimension()));
     return mediaRecord;
   }
 
+  private static Event getFirstEvent(DigitalSpecimen digitalSpecimen) {
+    if (digitalSpecimen.getOdsHasEvents() == null || digitalSpecimen.getOdsHasEvents().isEmpty()) {
+      return null;
+    }
+    return digitalSpecimen.getOdsHasEvents().getFirst();
+  }
+
   private void addOccurrence(DigitalSpecimen digitalSpecimen,
-      List<List<Pair<Term, String>>> occurrenceList) throws FailedProcessingException {
-    var occurrenceRecord = new ArrayList<Pair<Term, String>>();
+      List<DwcaRow> occurrenceList) {
+    var occurrenceRecord = OCCURRENCE_SCHEMA.newRow();
+    var event = getFirstEvent(digitalSpecimen);
+    var location = event == null ? null : event.getOdsHasLocation();
     mapDigitalSpecimen(digitalSpecimen, occurrenceRecord);
-    mapEvent(digitalSpecimen, occurrenceRecord);
-    mapLocation(digitalSpecimen, occurrenceRecord);
-    mapGeoreference(digitalSpecimen, occurrenceRecord);
-    mapGeologicalContext(digitalSpecimen, occurrenceRecord);
+    mapTerms(event, EVENT_TERMS, occurrenceRecord);
+    occurrenceRecord.set(DwcTerm.eventID, digitalSpecimen.getId());
+    mapTerms(location, LOCATION_TERMS, occurrenceRecord);
+    mapTerms(location == null ? null : location.getOdsHasGeoreference(), GEOREFERENCE_TERMS,
+        occurrenceRecord);
+    mapTerms(location == null ? null : location.getOdsHasGeologicalContext(),
+        GEOLOGICAL_CONTEXT_TERMS, occurrenceRecord);
     occurrenceList.add(occurrenceRecord);
   }
 
   private void addReference(List<Citation> citations, String digitalSpecimenId,
-      List<List<Pair<Term, String>>> referenceRecords) {
+      List<DwcaRow> referenceRecords) {
     if (citations != null && !citations.isEmpty()) {
       for (var citation : citations) {
-        var referenceRecord = new ArrayList<Pair<Term, String>>();
-        referenceRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimenId));
-        referenceRecord.add(Pair.of(DcTerm.identifier, citation.getDctermsIdentifier()));
-        referenceRecord.add(Pair.of(DcTerm.bibliographicCitation,
-            citation.getDctermsBibliographicCitation()));
-        referenceRecord.add(Pair.of(DcTerm.title, citation.getDctermsTitle()));
-        referenceRecord.add(Pair.of(DcTerm.creator,
-            retrieveCombinedAgentName(citation.getOdsHasAgents(), null)));
-        referenceRecord.add(Pair.of(DcTerm.date, citation.getDctermsDate()));
-        referenceRecord.add(Pair.of(DcTerm.description, citation.getDctermsDescription()));
-        referenceRecord.add(Pair.of(DcTerm.type, citation.getDctermsType()));
+        var referenceRecord = REFERENCE_SCHEMA.newRow();
+        referenceRecord.set(DwcaTerm.ID, digitalSpecimenId);
+        referenceRecord.set(DcTerm.identifier, citation.getDctermsIdentifier());
+        referenceRecord.set(DcTerm.bibliographicCitation,
+            citation.getDctermsBibliographicCitation());
+        referenceRecord.set(DcTerm.title, citation.getDctermsTitle());
+        referenceRecord.set(DcTerm.creator,
+            retrieveCombinedAgentName(citation.getOdsHasAgents(), null));
+        referenceRecord.set(DcTerm.date, citation.getDctermsDate());
+        referenceRecord.set(DcTerm.description, citation.getDctermsDescription());
+        referenceRecord.set(DcTerm.type, citation.getDctermsType());
         referenceRecords.add(referenceRecord);
       }
     }
   }
 
   private void mapDigitalSpecimen(DigitalSpecimen digitalSpecimen,
-      List<Pair<Term, String>> occurrenceList) {
-    occurrenceList.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-    occurrenceList.add(Pair.of(DwcTerm.institutionID, digitalSpecimen.getOdsOrganisationID()));
-    occurrenceList.add(Pair.of(DwcTerm.collectionID, digitalSpecimen.getDwcCollectionID()));
-    occurrenceList.add(Pair.of(DwcTerm.datasetID, digitalSpecimen.getDwcDatasetID()));
-    occurrenceList.add(Pair.of(DwcTerm.institutionCode, digitalSpecimen.getOdsOrganisationCode()));
-    occurrenceList.add(Pair.of(DwcTerm.collectionCode, digitalSpecimen.getDwcCollectionCode()));
-    occurrenceList.add(Pair.of(DwcTerm.datasetName, digitalSpecimen.getDwcDatasetName()));
-    occurrenceList.add(Pair.of(DwcTerm.ownerInstitutionCode,
-        digitalSpecimen.getOdsOwnerOrganisationCode()));
-    occurrenceList.add(Pair.of(DwcTerm.basisOfRecord, digitalSpecimen.getDwcBasisOfRecord()));
-    occurrenceList.add(Pair.of(DcTerm.license, digitalSpecimen.getDctermsLicense()));
-    occurrenceList.add(Pair.of(DcTerm.type, "PhysicalObject"));
-    occurrenceList.add(Pair.of(DcTerm.modified, digitalSpecimen.getDctermsModified()));
-    occurrenceList.add(Pair.of(DcTerm.rightsHolder, digitalSpecimen.getDctermsRightsHolder()));
-    occurrenceList.add(Pair.of(DcTerm.accessRights, digitalSpecimen.getDctermsAccessRights()));
-    occurrenceList.add(Pair.of(DwcTerm.informationWithheld,
-        digitalSpecimen.getDwcInformationWithheld()));
-    occurrenceList.add(Pair.of(DwcTerm.dataGeneralizations,
-        digitalSpecimen.getDwcDataGeneralizations()));
-    occurrenceList.add(Pair.of(DwcTerm.occurrenceID,
+      DwcaRow occurrenceRecord) {
+    occurrenceRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+    occurrenceRecord.set(DwcTerm.institutionID, digitalSpecimen.getOdsOrganisationID());
+    occurrenceRecord.set(DwcTerm.collectionID, digitalSpecimen.getDwcCollectionID());
+    occurrenceRecord.set(DwcTerm.datasetID, digitalSpecimen.getDwcDatasetID());
+    occurrenceRecord.set(DwcTerm.institutionCode, digitalSpecimen.getOdsOrganisationCode());
+    occurrenceRecord.set(DwcTerm.collectionCode, digitalSpecimen.getDwcCollectionCode());
+    occurrenceRecord.set(DwcTerm.datasetName, digitalSpecimen.getDwcDatasetName());
+    occurrenceRecord.set(DwcTerm.ownerInstitutionCode,
+        digitalSpecimen.getOdsOwnerOrganisationCode());
+    occurrenceRecord.set(DwcTerm.basisOfRecord, digitalSpecimen.getDwcBasisOfRecord());
+    occurrenceRecord.set(DcTerm.license, digitalSpecimen.getDctermsLicense());
+    occurrenceRecord.set(DcTerm.type, "PhysicalObject");
+    occurrenceRecord.set(DcTerm.modified, digitalSpecimen.getDctermsModified());
+    occurrenceRecord.set(DcTerm.rightsHolder, digitalSpecimen.getDctermsRightsHolder());
+    occurrenceRecord.set(DcTerm.accessRights, digitalSpecimen.getDctermsAccessRights());
+    occurrenceRecord.set(DwcTerm.informationWithheld,
+        digitalSpecimen.getDwcInformationWithheld());
+    occurrenceRecord.set(DwcTerm.dataGeneralizations,
+        digitalSpecimen.getDwcDataGeneralizations());
+    occurrenceRecord.set(DwcTerm.occurrenceID,
         retrieveIdentifier(digitalSpecimen,
-            List.of(OCCURRENCE_ID, UNIT_GUID, UNIT_ID))));
-    occurrenceList.add(Pair.of(DwcTerm.catalogNumber,
-        retrieveIdentifier(digitalSpecimen, List.of("dwc:catalogNumber", UNIT_ID))));
-    occurrenceList.add(Pair.of(DwcTerm.recordedBy,
-        retrieveCombinedAgentName(digitalSpecimen.getOdsHasAgents(), "collector")));
-    occurrenceList.add(Pair.of(DwcTerm.recordNumber,
-        retrieveIdentifier(digitalSpecimen, List.of("dwc:recordNumber", "abcd:recordURI"))));
-    occurrenceList.add(Pair.of(DwcTerm.recordedByID,
-        retrieveCombinedAgentId(digitalSpecimen.getOdsHasAgents(), "collector")));
-    occurrenceList.add(Pair.of(DwcTerm.organismQuantity, digitalSpecimen.getDwcOrganismQuantity()));
-    occurrenceList.add(Pair.of(DwcTerm.organismQuantityType,
-        digitalSpecimen.getDwcOrganismQuantityType()));
-    occurrenceList.add(Pair.of(DwcTerm.preparations, digitalSpecimen.getDwcPreparations()));
-    occurrenceList.add(Pair.of(DwcTerm.disposition, digitalSpecimen.getDwcDisposition()));
-    occurrenceList.add(Pair.of(DwcTerm.organismID, digitalSpecimen.getDwcOrganismID()));
-    occurrenceList.add(Pair.of(DwcTerm.organismName, digitalSpecimen.getDwcOrganismName()));
-    occurrenceList.add(Pair.of(DwcTerm.organismScope, digitalSpecimen.getDwcOrganismScope()));
-    occurrenceList.add(Pair.of(DwcTerm.organismRemarks, digitalSpecimen.getDwcOrganismRemarks()));
-    occurrenceList.add(
-        Pair.of(DwcTerm.materialEntityID, digitalSpecimen.getOdsPhysicalSpecimenID()));
-    occurrenceList.add(Pair.of(DwcTerm.verbatimLabel, digitalSpecimen.getDwcVerbatimLabel()));
-  }
-
-  private void mapGeoreference(DigitalSpecimen digitalSpecimen,
-      ArrayList<Pair<Term, String>> occurrenceRecord) throws FailedProcessingException {
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.decimalLatitude,
-            retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-                "getDwcDecimalLatitude")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.decimalLongitude,
-            retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-                "getDwcDecimalLongitude")));
-    occurrenceRecord.add(Pair.of(DwcTerm.geodeticDatum,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcGeodeticDatum")));
-    occurrenceRecord.add(Pair.of(DwcTerm.coordinateUncertaintyInMeters,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcCoordinateUncertaintyInMeters")));
-    occurrenceRecord.add(Pair.of(DwcTerm.coordinatePrecision,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcCoordinatePrecision")));
-    occurrenceRecord.add(Pair.of(DwcTerm.pointRadiusSpatialFit,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcPointRadiusSpatialFit")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimCoordinates,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcVerbatimCoordinates")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimLatitude,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcVerbatimLatitude")));
-    occurrenceRecord.add(
-        Pair.of(DwcTerm.verbatimLongitude,
-            retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-                "getDwcVerbatimLongitude")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimCoordinateSystem,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcVerbatimCoordinateSystem")));
-    occurrenceRecord.add(Pair.of(DwcTerm.verbatimSRS,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS, "getDwcVerbatimSRS")));
-    occurrenceRecord.add(Pair.of(DwcTerm.footprintWKT,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS, "getDwcFootprintWKT")));
-    occurrenceRecord.add(Pair.of(DwcTerm.footprintSRS,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS, "getDwcFootprintSRS")));
-    occurrenceRecord.add(Pair.of(DwcTerm.footprintSpatialFit,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcFootprintSpatialFit")));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferencedBy,
-        retrieveCombinedAgentName(retrieveGeoreferenceAgent(digitalSpecimen), null)));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferencedDate,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcGeoreferencedDate")));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferenceProtocol,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcGeoreferenceProtocol")));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferenceSources,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcGeoreferenceSources")));
-    occurrenceRecord.add(Pair.of(DwcTerm.georeferenceRemarks,
-        retrieveTerm(digitalSpecimen, GEOREFERENCE_FUNCTIONS,
-            "getDwcGeoreferenceRemarks")));
-  }
-
-  private List<Agent> retrieveGeoreferenceAgent(DigitalSpecimen digitalSpecimen) {
-    if (GEOREFERENCE_FUNCTIONS.getLeft().test(digitalSpecimen)) {
-      return null;
-    }
-    return digitalSpecimen.getOdsHasEvents().getFirst().getOdsHasLocation().getOdsHasGeoreference()
-        .getOdsHasAgents();
+            List.of(OCCURRENCE_ID, UNIT_GUID, UNIT_ID)));
+    occurrenceRecord.set(DwcTerm.catalogNumber,
+        retrieveIdentifier(digitalSpecimen, List.of("dwc:catalogNumber", UNIT_ID)));
+    occurrenceRecord.set(DwcTerm.recordedBy,
+        retrieveCombinedAgentName(digitalSpecimen.getOdsHasAgents(), "collector"));
+    occurrenceRecord.set(DwcTerm.recordNumber,
+        retrieveIdentifier(digitalSpecimen, List.of("dwc:recordNumber", "abcd:recordURI")));
+    occurrenceRecord.set(DwcTerm.recordedByID,
+        retrieveCombinedAgentId(digitalSpecimen.getOdsHasAgents(), "collector"));
+    occurrenceRecord.set(DwcTerm.organismQuantity, digitalSpecimen.getDwcOrganismQuantity());
+    occurrenceRecord.set(DwcTerm.organismQuantityType,
+        digitalSpecimen.getDwcOrganismQuantityType());
+    occurrenceRecord.set(DwcTerm.preparations, digitalSpecimen.getDwcPreparations());
+    occurrenceRecord.set(DwcTerm.disposition, digitalSpecimen.getDwcDisposition());
+    occurrenceRecord.set(DwcTerm.organismID, digitalSpecimen.getDwcOrganismID());
+    occurrenceRecord.set(DwcTerm.organismName, digitalSpecimen.getDwcOrganismName());
+    occurrenceRecord.set(DwcTerm.organismScope, digitalSpecimen.getDwcOrganismScope());
+    occurrenceRecord.set(DwcTerm.organismRemarks, digitalSpecimen.getDwcOrganismRemarks());
+    occurrenceRecord.set(DwcTerm.materialEntityID, digitalSpecimen.getOdsPhysicalSpecimenID());
+    occurrenceRecord.set(DwcTerm.verbatimLabel, digitalSpecimen.getDwcVerbatimLabel());
   }
 
   private void addIdentifications(DigitalSpecimen digitalSpecimen,
-      List<List<Pair<Term, String>>> identificationRecords,
-      List<List<Pair<Term, String>>> referenceRecords) {
+      List<DwcaRow> identificationRecords,
+      List<DwcaRow> referenceRecords) {
     for (var identification : digitalSpecimen.getOdsHasIdentifications()) {
       for (var taxonIdentification : identification.getOdsHasTaxonIdentifications()) {
         identificationRecords.add(
@@ -648,79 +678,79 @@ public class DwcaService extends AbstractExportJobService {
     }
   }
 
-  private List<Pair<Term, String>> mapIdentification(DigitalSpecimen digitalSpecimen,
+  private DwcaRow mapIdentification(DigitalSpecimen digitalSpecimen,
       Identification identification, TaxonIdentification taxonIdentification) {
-    var identificationRecord = new ArrayList<Pair<Term, String>>();
-    identificationRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-    identificationRecord.add(Pair.of(DwcTerm.identificationID, identification.getId()));
-    identificationRecord.add(Pair.of(DwcTerm.verbatimIdentification,
-        identification.getDwcVerbatimIdentification()));
-    identificationRecord.add(Pair.of(DwcTerm.identificationQualifier,
-        identification.getDwcIdentificationQualifier()));
-    identificationRecord.add(Pair.of(DwcTerm.typeStatus, identification.getDwcTypeStatus()));
-    identificationRecord.add(Pair.of(DwcTerm.identifiedBy,
-        retrieveCombinedAgentName(identification.getOdsHasAgents(), "identifier")));
-    identificationRecord.add(Pair.of(DwcTerm.identifiedByID,
-        retrieveCombinedAgentId(identification.getOdsHasAgents(), "identifier")));
-    identificationRecord.add(Pair.of(DwcTerm.dateIdentified,
-        identification.getDwcDateIdentified()));
-    identificationRecord.add(Pair.of(DwcTerm.identificationVerificationStatus,
-        getStringValue(identification.getOdsIsVerifiedIdentification())));
-    identificationRecord.add(Pair.of(DwcTerm.identificationRemarks,
-        identification.getDwcIdentificationRemarks()));
-    identificationRecord.add(Pair.of(DwcTerm.taxonID, taxonIdentification.getDwcTaxonID()));
-    identificationRecord.add(Pair.of(DwcTerm.scientificNameID,
-        taxonIdentification.getDwcScientificNameID()));
-    identificationRecord.add(Pair.of(DwcTerm.acceptedNameUsageID,
-        taxonIdentification.getDwcAcceptedNameUsageID()));
-    identificationRecord.add(Pair.of(DwcTerm.scientificName,
-        taxonIdentification.getDwcScientificName()));
-    identificationRecord.add(Pair.of(DwcTerm.acceptedNameUsage,
-        taxonIdentification.getDwcAcceptedNameUsage()));
-    identificationRecord.add(Pair.of(DwcTerm.originalNameUsage,
-        taxonIdentification.getDwcOriginalNameUsage()));
-    identificationRecord.add(Pair.of(DwcTerm.namePublishedInYear,
-        taxonIdentification.getDwcNamePublishedInYear()));
-    identificationRecord.add(Pair.of(DwcTerm.kingdom, taxonIdentification.getDwcKingdom()));
-    identificationRecord.add(Pair.of(DwcTerm.phylum, taxonIdentification.getDwcPhylum()));
-    identificationRecord.add(Pair.of(DwcTerm.class_, taxonIdentification.getDwcClass()));
-    identificationRecord.add(Pair.of(DwcTerm.order, taxonIdentification.getDwcOrder()));
-    identificationRecord.add(Pair.of(DwcTerm.superfamily, taxonIdentification.getDwcSuperfamily()));
-    identificationRecord.add(Pair.of(DwcTerm.family, taxonIdentification.getDwcFamily()));
-    identificationRecord.add(Pair.of(DwcTerm.subfamily, taxonIdentification.getDwcSubfamily()));
-    identificationRecord.add(Pair.of(DwcTerm.tribe, taxonIdentification.getDwcTribe()));
-    identificationRecord.add(Pair.of(DwcTerm.subtribe, taxonIdentification.getDwcSubtribe()));
-    identificationRecord.add(Pair.of(DwcTerm.genus, taxonIdentification.getDwcGenus()));
-    identificationRecord.add(Pair.of(DwcTerm.genericName, taxonIdentification.getDwcGenericName()));
-    identificationRecord.add(Pair.of(DwcTerm.subgenus, taxonIdentification.getDwcSubgenus()));
-    identificationRecord.add(Pair.of(DwcTerm.infragenericEpithet,
-        taxonIdentification.getDwcInfragenericEpithet()));
-    identificationRecord.add(Pair.of(DwcTerm.specificEpithet,
-        taxonIdentification.getDwcSpecificEpithet()));
-    identificationRecord.add(Pair.of(DwcTerm.infraspecificEpithet,
-        taxonIdentification.getDwcInfraspecificEpithet()));
-    identificationRecord.add(Pair.of(DwcTerm.cultivarEpithet,
-        taxonIdentification.getDwcCultivarEpithet()));
-    identificationRecord.add(Pair.of(DwcTerm.taxonRank, taxonIdentification.getDwcTaxonRank()));
-    identificationRecord.add(Pair.of(DwcTerm.verbatimTaxonRank,
-        taxonIdentification.getDwcVerbatimTaxonRank()));
-    identificationRecord.add(Pair.of(DwcTerm.scientificNameAuthorship,
-        taxonIdentification.getDwcScientificNameAuthorship()));
-    identificationRecord.add(Pair.of(DwcTerm.vernacularName,
-        taxonIdentification.getDwcVernacularName()));
-    identificationRecord.add(Pair.of(DwcTerm.nomenclaturalCode,
-        taxonIdentification.getDwcNomenclaturalCode()));
-    identificationRecord.add(Pair.of(DwcTerm.taxonomicStatus,
-        taxonIdentification.getDwcTaxonomicStatus()));
-    identificationRecord.add(Pair.of(DwcTerm.nomenclaturalStatus,
-        taxonIdentification.getDwcNomenclaturalStatus()));
-    identificationRecord.add(Pair.of(DwcTerm.taxonRemarks,
-        taxonIdentification.getDwcTaxonRemarks()));
+    var identificationRecord = IDENTIFICATION_SCHEMA.newRow();
+    identificationRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+    identificationRecord.set(DwcTerm.identificationID, identification.getId());
+    identificationRecord.set(DwcTerm.verbatimIdentification,
+        identification.getDwcVerbatimIdentification());
+    identificationRecord.set(DwcTerm.identificationQualifier,
+        identification.getDwcIdentificationQualifier());
+    identificationRecord.set(DwcTerm.typeStatus, identification.getDwcTypeStatus());
+    identificationRecord.set(DwcTerm.identifiedBy,
+        retrieveCombinedAgentName(identification.getOdsHasAgents(), "identifier"));
+    identificationRecord.set(DwcTerm.identifiedByID,
+        retrieveCombinedAgentId(identification.getOdsHasAgents(), "identifier"));
+    identificationRecord.set(DwcTerm.dateIdentified,
+        identification.getDwcDateIdentified());
+    identificationRecord.set(DwcTerm.identificationVerificationStatus,
+        getStringValue(identification.getOdsIsVerifiedIdentification()));
+    identificationRecord.set(DwcTerm.identificationRemarks,
+        identification.getDwcIdentificationRemarks());
+    identificationRecord.set(DwcTerm.taxonID, taxonIdentification.getDwcTaxonID());
+    identificationRecord.set(DwcTerm.scientificNameID,
+        taxonIdentification.getDwcScientificNameID());
+    identificationRecord.set(DwcTerm.acceptedNameUsageID,
+        taxonIdentification.getDwcAcceptedNameUsageID());
+    identificationRecord.set(DwcTerm.scientificName,
+        taxonIdentification.getDwcScientificName());
+    identificationRecord.set(DwcTerm.acceptedNameUsage,
+        taxonIdentification.getDwcAcceptedNameUsage());
+    identificationRecord.set(DwcTerm.originalNameUsage,
+        taxonIdentification.getDwcOriginalNameUsage());
+    identificationRecord.set(DwcTerm.namePublishedInYear,
+        taxonIdentification.getDwcNamePublishedInYear());
+    identificationRecord.set(DwcTerm.kingdom, taxonIdentification.getDwcKingdom());
+    identificationRecord.set(DwcTerm.phylum, taxonIdentification.getDwcPhylum());
+    identificationRecord.set(DwcTerm.class_, taxonIdentification.getDwcClass());
+    identificationRecord.set(DwcTerm.order, taxonIdentification.getDwcOrder());
+    identificationRecord.set(DwcTerm.superfamily, taxonIdentification.getDwcSuperfamily());
+    identificationRecord.set(DwcTerm.family, taxonIdentification.getDwcFamily());
+    identificationRecord.set(DwcTerm.subfamily, taxonIdentification.getDwcSubfamily());
+    identificationRecord.set(DwcTerm.tribe, taxonIdentification.getDwcTribe());
+    identificationRecord.set(DwcTerm.subtribe, taxonIdentification.getDwcSubtribe());
+    identificationRecord.set(DwcTerm.genus, taxonIdentification.getDwcGenus());
+    identificationRecord.set(DwcTerm.genericName, taxonIdentification.getDwcGenericName());
+    identificationRecord.set(DwcTerm.subgenus, taxonIdentification.getDwcSubgenus());
+    identificationRecord.set(DwcTerm.infragenericEpithet,
+        taxonIdentification.getDwcInfragenericEpithet());
+    identificationRecord.set(DwcTerm.specificEpithet,
+        taxonIdentification.getDwcSpecificEpithet());
+    identificationRecord.set(DwcTerm.infraspecificEpithet,
+        taxonIdentification.getDwcInfraspecificEpithet());
+    identificationRecord.set(DwcTerm.cultivarEpithet,
+        taxonIdentification.getDwcCultivarEpithet());
+    identificationRecord.set(DwcTerm.taxonRank, taxonIdentification.getDwcTaxonRank());
+    identificationRecord.set(DwcTerm.verbatimTaxonRank,
+        taxonIdentification.getDwcVerbatimTaxonRank());
+    identificationRecord.set(DwcTerm.scientificNameAuthorship,
+        taxonIdentification.getDwcScientificNameAuthorship());
+    identificationRecord.set(DwcTerm.vernacularName,
+        taxonIdentification.getDwcVernacularName());
+    identificationRecord.set(DwcTerm.nomenclaturalCode,
+        taxonIdentification.getDwcNomenclaturalCode());
+    identificationRecord.set(DwcTerm.taxonomicStatus,
+        taxonIdentification.getDwcTaxonomicStatus());
+    identificationRecord.set(DwcTerm.nomenclaturalStatus,
+        taxonIdentification.getDwcNomenclaturalStatus());
+    identificationRecord.set(DwcTerm.taxonRemarks,
+        taxonIdentification.getDwcTaxonRemarks());
     return identificationRecord;
   }
 
   private void addRelationships(DigitalSpecimen digitalSpecimen,
-      ArrayList<List<Pair<Term, String>>> relationshipList) {
+      List<DwcaRow> relationshipList) {
     var relationships = digitalSpecimen.getOdsHasEntityRelationships().stream()
         .filter(er -> !EXCLUDE_RELATIONSHIPS.contains(er.getDwcRelationshipOfResource()))
         .toList();
@@ -729,31 +759,32 @@ public class DwcaService extends AbstractExportJobService {
     }
   }
 
-  private List<Pair<Term, String>> mapRelationship(DigitalSpecimen digitalSpecimen,
+  private DwcaRow mapRelationship(DigitalSpecimen digitalSpecimen,
       EntityRelationship relationship) {
-    var relationshipRecord = new ArrayList<Pair<Term, String>>();
-    relationshipRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-    relationshipRecord.add(Pair.of(DwcTerm.resourceRelationshipID, relationship.getId()));
-    relationshipRecord.add(Pair.of(DwcTerm.resourceID, digitalSpecimen.getId()));
-    relationshipRecord.add(Pair.of(DwcTerm.relationshipOfResourceID,
-        relationship.getDwcRelationshipOfResourceID()));
-    relationshipRecord.add(Pair.of(DwcTerm.relatedResourceID,
-        relationship.getDwcRelatedResourceID()));
-    relationshipRecord.add(Pair.of(DwcTerm.relationshipOfResource,
-        relationship.getDwcRelationshipOfResource()));
-    relationshipRecord.add(Pair.of(DwcTerm.relationshipAccordingTo,
-        retrieveCombinedAgentName(relationship.getOdsHasAgents(), null)));
-    relationshipRecord.add(Pair.of(DwcTerm.relationshipEstablishedDate,
+    var relationshipRecord = RELATIONSHIP_SCHEMA.newRow();
+    relationshipRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+    relationshipRecord.set(DwcTerm.resourceRelationshipID, relationship.getId());
+    relationshipRecord.set(DwcTerm.resourceID, digitalSpecimen.getId());
+    relationshipRecord.set(DwcTerm.relationshipOfResourceID,
+        relationship.getDwcRelationshipOfResourceID());
+    relationshipRecord.set(DwcTerm.relatedResourceID,
+        relationship.getDwcRelatedResourceID());
+    relationshipRecord.set(DwcTerm.relationshipOfResource,
+        relationship.getDwcRelationshipOfResource());
+    relationshipRecord.set(DwcTerm.relationshipAccordingTo,
+        retrieveCombinedAgentName(relationship.getOdsHasAgents(), null));
+    relationshipRecord.set(DwcTerm.relationshipEstablishedDate,
         relationship.getDwcRelationshipEstablishedDate() != null
-            ? relationship.getDwcRelationshipEstablishedDate().toString() : null));
-    relationshipRecord.add(Pair.of(DwcTerm.relationshipRemarks,
-        relationship.getDwcRelationshipRemarks()));
+            ? relationship.getDwcRelationshipEstablishedDate().toString() : null);
+    relationshipRecord.set(DwcTerm.relationshipRemarks,
+        relationship.getDwcRelationshipRemarks());
     return relationshipRecord;
   }
 
-  // Collect any assertion on either specimen or associated first event (as only first event is included in the occurrence record)
+  // Collect any assertion on either specimen or associated first event (as only first event is
+  // included in the occurrence record)
   private void addAnnotation(DigitalSpecimen digitalSpecimen,
-      ArrayList<List<Pair<Term, String>>> assertionList) {
+      List<DwcaRow> assertionList) {
     if (digitalSpecimen.getOdsHasAssertions() != null && !digitalSpecimen.getOdsHasAssertions()
         .isEmpty()) {
       for (var assertion : digitalSpecimen.getOdsHasAssertions()) {
@@ -771,26 +802,24 @@ public class DwcaService extends AbstractExportJobService {
   }
 
   private void mapAssertion(DigitalSpecimen digitalSpecimen,
-      ArrayList<List<Pair<Term, String>>> assertionList, Assertion assertion) {
-    var assertionRecord = new ArrayList<Pair<Term, String>>();
-    assertionRecord.add(Pair.of(DwcaTerm.ID, digitalSpecimen.getId()));
-    assertionRecord.add(Pair.of(DwcTerm.measurementID, assertion.getDwcMeasurementID()));
-    assertionRecord.add(Pair.of(DwcTerm.occurrenceID,
-        retrieveIdentifier(digitalSpecimen, List.of(OCCURRENCE_ID, UNIT_GUID, UNIT_ID))));
-    assertionRecord.add(Pair.of(DwcTerm.measurementType, assertion.getDwcMeasurementType()));
-    assertionRecord.add(Pair.of(ObisTerm.measurementTypeID, assertion.getDwciriMeasurementType()));
-    assertionRecord.add(Pair.of(DwcTerm.measurementValue, assertion.getDwcMeasurementValue()));
-    assertionRecord.add(
-        Pair.of(ObisTerm.measurementValueID, assertion.getDwciriMeasurementValue()));
-    assertionRecord.add(
-        Pair.of(DwcTerm.measurementAccuracy, assertion.getDwcMeasurementAccuracy()));
-    assertionRecord.add(Pair.of(DwcTerm.measurementUnit, assertion.getDwcMeasurementUnit()));
-    assertionRecord.add(Pair.of(ObisTerm.measurementUnitID, assertion.getDwciriMeasurementUnit()));
-    assertionRecord.add(
-        Pair.of(DwcTerm.measurementDeterminedDate, assertion.getDwcMeasurementDeterminedDate()));
-    assertionRecord.add(Pair.of(DwcTerm.measurementDeterminedBy,
-        retrieveCombinedAgentName(assertion.getOdsHasAgents(), "measurer")));
-    assertionRecord.add(Pair.of(DwcTerm.measurementRemarks, assertion.getDwcMeasurementRemarks()));
+      List<DwcaRow> assertionList, Assertion assertion) {
+    var assertionRecord = ASSERTION_SCHEMA.newRow();
+    assertionRecord.set(DwcaTerm.ID, digitalSpecimen.getId());
+    assertionRecord.set(DwcTerm.measurementID, assertion.getDwcMeasurementID());
+    assertionRecord.set(DwcTerm.occurrenceID,
+        retrieveIdentifier(digitalSpecimen, List.of(OCCURRENCE_ID, UNIT_GUID, UNIT_ID)));
+    assertionRecord.set(DwcTerm.measurementType, assertion.getDwcMeasurementType());
+    assertionRecord.set(ObisTerm.measurementTypeID, assertion.getDwciriMeasurementType());
+    assertionRecord.set(DwcTerm.measurementValue, assertion.getDwcMeasurementValue());
+    assertionRecord.set(ObisTerm.measurementValueID, assertion.getDwciriMeasurementValue());
+    assertionRecord.set(DwcTerm.measurementAccuracy, assertion.getDwcMeasurementAccuracy());
+    assertionRecord.set(DwcTerm.measurementUnit, assertion.getDwcMeasurementUnit());
+    assertionRecord.set(ObisTerm.measurementUnitID, assertion.getDwciriMeasurementUnit());
+    assertionRecord.set(DwcTerm.measurementDeterminedDate,
+        assertion.getDwcMeasurementDeterminedDate());
+    assertionRecord.set(DwcTerm.measurementDeterminedBy,
+        retrieveCombinedAgentName(assertion.getOdsHasAgents(), "measurer"));
+    assertionRecord.set(DwcTerm.measurementRemarks, assertion.getDwcMeasurementRemarks());
     assertionList.add(assertionRecord);
   }
 
@@ -809,23 +838,35 @@ public class DwcaService extends AbstractExportJobService {
   }
 
   private void addDigitalMedia(List<DigitalMedia> digitalMedia, String digitalSpecimenId,
-      ArrayList<List<Pair<Term, String>>> digitalMediaList) {
+      List<DwcaRow> digitalMediaList) {
     for (var media : digitalMedia) {
       digitalMediaList.add(mapDigitalMedia(digitalSpecimenId, media));
     }
   }
 
-  private List<String> getMediaIds(List<DigitalSpecimen> digitalSpecimenList) {
-    return digitalSpecimenList.stream()
-        .map(DigitalSpecimen::getOdsHasEntityRelationships)
-        .flatMap(List::stream)
-        .filter(er -> er.getDwcRelationshipOfResource().equals("hasDigitalMedia"))
-        .map(er -> er.getOdsRelatedResourceURI().toString()).toList();
+  @Override
+  protected List<String> targetFields() {
+    return SOURCE_FIELDS;
   }
 
-
   @Override
-  protected List<String> targetFields() {
-    return List.of();
+  protected Class<DigitalSpecimen> documentClass() {
+    return DigitalSpecimen.class;
   }
+
+  /*
+   * The archive session of the job, the media resolver of its pages and the upload of the archive
+   */
+  static class DwcaJobContext extends JobContext {
+
+    private DwcaArchiveSession archiveSession;
+    private S3UploadOutputStream upload;
+    private volatile MediaResolver mediaResolver;
+
+    DwcaJobContext(JobRequest jobRequest, Path tempFile, JobMetrics metrics) {
+      super(jobRequest, tempFile, metrics);
+    }
+
+  }
+
 }
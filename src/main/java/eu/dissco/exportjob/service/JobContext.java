@@ -0,0 +1,26 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.domain.JobRequest;
+import java.nio.file.Path;
+import lombok.Getter;
+
+/**
+ * The state of a single export job. The export services are shared by all jobs of a worker, so
+ * everything which belongs to one job, such as its temp file, open writers, media resolver and
+ * metrics, is kept in its context. Services which need more state than the request and the temp
+ * file extend this class.
+ */
+@Getter
+public class JobContext {
+
+  private final JobRequest jobRequest;
+  private final Path tempFile;
+  private final JobMetrics metrics;
+
+  public JobContext(JobRequest jobRequest, Path tempFile, JobMetrics metrics) {
+    this.jobRequest = jobRequest;
+    this.tempFile = tempFile;
+    this.metrics = metrics;
+  }
+
+}
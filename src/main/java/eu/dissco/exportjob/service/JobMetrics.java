@@ -0,0 +1,214 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import eu.dissco.exportjob.domain.JobMetricsReport.MeterSnapshot;
+import eu.dissco.exportjob.domain.SearchPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * The metrics of a single export job. Each stage of the job records the time it took and the number
+ * of records it handled, tagged with the stage and the job type. Comparing the total time of the
+ * stages shows which stage bounds the job. The meters are registered in a registry of the job, from
+ * which the report is taken when the job ends, and separately in the global registry, which adds up
+ * the stages of all jobs of the process. The job registry is not linked to the global registry, so
+ * nothing of the job is kept once it has ended.
+ */
+public class JobMetrics implements AutoCloseable {
+
+  public static final String STAGE_METRIC = "export.stage";
+  public static final String STAGE_RECORDS_METRIC = "export.stage.records";
+  public static final String STAGE_BYTES_METRIC = "export.stage.bytes";
+  public static final String RECORDS_METRIC = "export.records";
+  public static final String QUEUE_OCCUPANCY_METRIC = "export.pipeline.queue.occupancy";
+  public static final String QUEUE_DEPTH_METRIC = "export.pipeline.queue.depth";
+  public static final String PAGE_SIZE_METRIC = "export.elasticsearch.page.size";
+  private static final String STAGE_TAG = "stage";
+  private static final String JOB_TYPE_TAG = "job.type";
+  private static final String JOB_ID_TAG = "job.id";
+
+  private final UUID jobId;
+  private final String jobType;
+  private final Tags tags;
+  private final MeterRegistry globalRegistry;
+  private final MeterRegistry jobRegistry = new SimpleMeterRegistry();
+  private final List<MeterRegistry> registries;
+  private final List<Counter> records;
+  private final List<DistributionSummary> queueOccupancy;
+  private final List<DistributionSummary> pageSize;
+  private final long startNanos = System.nanoTime();
+  private Meter queueDepth;
+
+  JobMetrics(UUID jobId, String jobType) {
+    this(jobId, jobType, Metrics.globalRegistry);
+  }
+
+  JobMetrics(UUID jobId, String jobType, MeterRegistry globalRegistry) {
+    this.jobId = jobId;
+    this.jobType = jobType;
+    this.tags = Tags.of(JOB_TYPE_TAG, jobType);
+    this.globalRegistry = globalRegistry;
+    this.registries = List.of(jobRegistry, globalRegistry);
+    this.records = register(Counter.builder(RECORDS_METRIC)
+        .description("Search results processed by the export jobs")
+        .tags(tags), Counter.Builder::register);
+    this.queueOccupancy = register(DistributionSummary.builder(QUEUE_OCCUPANCY_METRIC)
+        .description("Pages waiting in the queue when the next page is taken")
+        .tags(tags), DistributionSummary.Builder::register);
+    this.pageSize = register(DistributionSummary.builder(PAGE_SIZE_METRIC)
+        .description("Page size of the search requests to Elasticsearch")
+        .tags(tags), DistributionSummary.Builder::register);
+  }
+
+  /*
+   * Registering a meter which already exists returns the existing meter, so each record looks up
+   * the meter of the job and the global meter
+   */
+  private <B, M> List<M> register(B builder, BiFunction<B, MeterRegistry, M> registerFunction) {
+    return registries.stream()
+        .map(meterRegistry -> registerFunction.apply(builder, meterRegistry))
+        .toList();
+  }
+
+  public void record(Stage stage, long nanos) {
+    register(Timer.builder(STAGE_METRIC)
+        .description("Time spent in a stage of the export jobs")
+        .tags(tags)
+        .tag(STAGE_TAG, stage.tagValue()), Timer.Builder::register)
+        .forEach(timer -> timer.record(nanos, TimeUnit.NANOSECONDS));
+  }
+
+  public void record(Stage stage, long nanos, long stageRecords) {
+    record(stage, nanos);
+    register(Counter.builder(STAGE_RECORDS_METRIC)
+        .description("Records handled by a stage of the export jobs")
+        .tags(tags)
+        .tag(STAGE_TAG, stage.tagValue()), Counter.Builder::register)
+        .forEach(counter -> counter.increment(stageRecords));
+  }
+
+  public void recordBytes(Stage stage, long bytes) {
+    register(DistributionSummary.builder(STAGE_BYTES_METRIC)
+        .description("Bytes handled by a stage of the export jobs")
+        .baseUnit(BaseUnits.BYTES)
+        .tags(tags)
+        .tag(STAGE_TAG, stage.tagValue()), DistributionSummary.Builder::register)
+        .forEach(summary -> summary.record(bytes));
+  }
+
+  /*
+   * The time of a page is split into the time Elasticsearch took to execute the search and the
+   * remainder, which is spent on transferring and parsing the page. The requested page size and
+   * the size of the response are recorded as well, as the page size is adapted to them.
+   */
+  void recordSearchPage(long nanos, SearchPage<?> searchPage) {
+    var results = searchPage.results().size();
+    var searchNanos = Math.min(nanos, TimeUnit.MILLISECONDS.toNanos(searchPage.tookMillis()));
+    record(Stage.SEARCH, searchNanos, results);
+    record(Stage.DECODE, nanos - searchNanos, results);
+    pageSize.forEach(summary -> summary.record(searchPage.pageSize()));
+    if (searchPage.responseBytes() >= 0) {
+      recordBytes(Stage.DECODE, searchPage.responseBytes());
+    }
+  }
+
+  void recordProcessedPage(int results, int queuedPages) {
+    records.forEach(counter -> counter.increment(results));
+    queueOccupancy.forEach(summary -> summary.record(queuedPages));
+  }
+
+  /*
+   * The queue depth is only useful while the job is running, so it is only registered in the
+   * global registry and removed when the job ends
+   */
+  void gaugeQueueDepth(IntSupplier queuedPages) {
+    queueDepth = Gauge.builder(QUEUE_DEPTH_METRIC, queuedPages, IntSupplier::getAsInt)
+        .description("Pages of search results waiting to be processed")
+        .tags(tags)
+        .tag(JOB_ID_TAG, jobId.toString())
+        .strongReference(true)
+        .register(globalRegistry);
+  }
+
+  /*
+   * The report holds the meters of the job and the meters of the process at the end of the job. The
+   * process meters add up all jobs of the process and contain the meters which do not belong to a
+   * single job, such as the size of the Elasticsearch responses.
+   */
+  public JobMetricsReport report() {
+    var durationSeconds = (System.nanoTime() - startNanos) / 1e9;
+    var recordCount = (long) jobRegistry.get(RECORDS_METRIC).counter().count();
+    return new JobMetricsReport(jobId, jobType, durationSeconds, recordCount,
+        durationSeconds > 0 ? recordCount / durationSeconds : 0, snapshot(jobRegistry),
+        snapshot(globalRegistry));
+  }
+
+  private static List<MeterSnapshot> snapshot(MeterRegistry meterRegistry) {
+    return meterRegistry.getMeters().stream()
+        .map(JobMetrics::snapshot)
+        .sorted(Comparator.comparing(MeterSnapshot::name)
+            .thenComparing(meter -> meter.tags().toString()))
+        .toList();
+  }
+
+  private static MeterSnapshot snapshot(Meter meter) {
+    var meterTags = new TreeMap<String, String>();
+    meter.getId().getTags().forEach(tag -> meterTags.put(tag.getKey(), tag.getValue()));
+    var measurements = new LinkedHashMap<String, Double>();
+    meter.measure().forEach(measurement -> measurements.put(
+        measurement.getStatistic().getTagValueRepresentation(), measurement.getValue()));
+    return new MeterSnapshot(meter.getId().getName(), meterTags,
+        meter.getId().getType().name().toLowerCase(Locale.ROOT), measurements);
+  }
+
+  @Override
+  public void close() {
+    if (queueDepth != null) {
+      globalRegistry.remove(queueDepth);
+      queueDepth = null;
+    }
+  }
+
+  public enum Stage {
+    // Executing the search in Elasticsearch, as reported by Elasticsearch
+    SEARCH,
+    // Transferring and parsing a page of search results
+    DECODE,
+    // Waiting for the digital media of the specimens of a page
+    MEDIA,
+    // Mapping the search results to the records of the export
+    MAP,
+    // Inserting the records of a page into the temp tables
+    INSERT,
+    // Reading the records back from the temp tables
+    READ,
+    // Writing the records to the csv or tsv files
+    WRITE,
+    // Compressing the files into the archive
+    COMPRESS,
+    // Uploading the export to S3
+    UPLOAD;
+
+    String tagValue() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+}
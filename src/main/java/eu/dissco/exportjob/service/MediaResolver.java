@@ -0,0 +1,138 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.repository.ElasticSearchRepository;
+import eu.dissco.exportjob.schema.DigitalMedia;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retrieves the digital media of the specimens of a job. The media ids are deduplicated and
+ * retrieved in batches, the batches are retrieved concurrently on a small thread pool. Media which
+ * have been retrieved are kept in a least recently used cache, so media shared by specimens on
+ * multiple pages are only retrieved once. The media of a page can be prefetched as soon as the page
+ * has been retrieved, so they are retrieved while the previous page is being processed.
+ */
+@Slf4j
+class MediaResolver implements AutoCloseable {
+
+  private final ElasticSearchRepository elasticSearchRepository;
+  private final int batchSize;
+  private final Map<String, CompletableFuture<DigitalMedia>> cache;
+  private final ExecutorService executor;
+
+  MediaResolver(ElasticSearchRepository elasticSearchRepository, int batchSize, int cacheSize,
+      int threads) {
+    this.elasticSearchRepository = elasticSearchRepository;
+    this.batchSize = batchSize;
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<DigitalMedia>> e) {
+        return size() > cacheSize;
+      }
+    };
+    this.executor = Executors.newFixedThreadPool(threads,
+        runnable -> new Thread(runnable, "media-resolver"));
+  }
+
+  /**
+   * Starts retrieving the media which are not yet cached or being retrieved, without waiting for
+   * the result.
+   */
+  void prefetch(List<String> mediaIds) {
+    request(mediaIds);
+  }
+
+  /**
+   * Blocks until all media are available.
+   *
+   * @return the media which exist, in the order of the (deduplicated) media ids
+   */
+  List<DigitalMedia> resolve(List<String> mediaIds) throws IOException, FailedProcessingException {
+    var futures = request(mediaIds);
+    var mediaList = new ArrayList<DigitalMedia>(futures.size());
+    try {
+      for (var future : futures) {
+        var media = future.get();
+        if (media != null) {
+          mediaList.add(media);
+        }
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new FailedProcessingException("Failed to retrieve digital media", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FailedProcessingException("Interrupted while waiting for digital media", e);
+    }
+    return mediaList;
+  }
+
+  private List<CompletableFuture<DigitalMedia>> request(List<String> mediaIds) {
+    var uniqueIds = new LinkedHashSet<>(mediaIds);
+    var futures = new ArrayList<CompletableFuture<DigitalMedia>>(uniqueIds.size());
+    var missing = new LinkedHashMap<String, CompletableFuture<DigitalMedia>>();
+    synchronized (cache) {
+      for (var mediaId : uniqueIds) {
+        var future = cache.get(mediaId);
+        if (future == null) {
+          future = new CompletableFuture<>();
+          cache.put(mediaId, future);
+          missing.put(mediaId, future);
+        }
+        futures.add(future);
+      }
+    }
+    var missingIds = new ArrayList<>(missing.keySet());
+    for (int i = 0; i < missingIds.size(); i += batchSize) {
+      var batch = missingIds.subList(i, Math.min(i + batchSize, missingIds.size()));
+      try {
+        executor.execute(() -> retrieveBatch(batch, missing));
+      } catch (RejectedExecutionException e) {
+        failBatch(batch, missing, e);
+      }
+    }
+    return futures;
+  }
+
+  private void retrieveBatch(List<String> batch,
+      Map<String, CompletableFuture<DigitalMedia>> futures) {
+    try {
+      log.debug("Retrieving batch of {} digital media", batch.size());
+      var mediaById = elasticSearchRepository.getTargetMediaById(batch);
+      batch.forEach(mediaId -> futures.get(mediaId).complete(mediaById.get(mediaId)));
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to retrieve batch of {} digital media", batch.size(), e);
+      failBatch(batch, futures, e);
+    }
+  }
+
+  /*
+   * Failed media are removed from the cache, so they are retrieved again when requested again
+   */
+  private void failBatch(List<String> batch, Map<String, CompletableFuture<DigitalMedia>> futures,
+      Exception exception) {
+    synchronized (cache) {
+      batch.forEach(mediaId -> cache.remove(mediaId, futures.get(mediaId)));
+    }
+    batch.forEach(mediaId -> futures.get(mediaId).completeExceptionally(exception));
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+}
@@ -0,0 +1,119 @@
+package eu.dissco.exportjob.service;
+
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded producer/consumer pipeline over the pages of a search. A producer thread prefetches the
+ * next page from Elasticsearch while the caller maps and writes the current page. The queue depth
+ * limits the number of pages held in memory, when the queue is full the producer waits for the
+ * consumer to catch up. When multiple page suppliers are provided (one per slice) each gets its own
+ * producer thread and pages are returned in the order in which they arrive.
+ */
+@Slf4j
+class SearchResultPipeline<T> implements AutoCloseable {
+
+  private final Page<T> endOfResults = new Page<>(new SearchPage<>(List.of(), null), null);
+  private final BlockingQueue<Page<T>> queue;
+  private final ExecutorService executor;
+  private final int producers;
+  private int finishedProducers = 0;
+  private boolean finished = false;
+
+  SearchResultPipeline(PageSupplier<T> pageSupplier, int queueDepth) {
+    this(List.of(pageSupplier), queueDepth);
+  }
+
+  SearchResultPipeline(List<PageSupplier<T>> pageSuppliers, int queueDepth) {
+    this.producers = pageSuppliers.size();
+    this.queue = new ArrayBlockingQueue<>(queueDepth);
+    // Each supplier starts its own thread, so the threads are numbered by the index of the slice
+    this.executor = Executors.newFixedThreadPool(producers,
+        Thread.ofPlatform().name("search-result-producer-", 0).factory());
+    pageSuppliers.forEach(pageSupplier -> executor.execute(() -> produce(pageSupplier)));
+  }
+
+  private void produce(PageSupplier<T> pageSupplier) {
+    try {
+      var searchPage = pageSupplier.nextPage();
+      while (!searchPage.results().isEmpty()) {
+        queue.put(new Page<>(searchPage, null));
+        searchPage = pageSupplier.nextPage();
+      }
+      queue.put(endOfResults);
+    } catch (InterruptedException e) {
+      log.debug("Search result producer has been interrupted");
+      Thread.currentThread().interrupt();
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to retrieve search results", e);
+      try {
+        queue.put(new Page<>(endOfResults.searchPage(), e));
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Blocks until the next page is available.
+   *
+   * @return the next page of search results with the cursor after its last result, a page without
+   * results when all pages have been consumed
+   */
+  SearchPage<T> nextPage() throws IOException, FailedProcessingException {
+    if (finished) {
+      return endOfResults.searchPage();
+    }
+    try {
+      var page = queue.take();
+      while (page == endOfResults && ++finishedProducers < producers) {
+        page = queue.take();
+      }
+      if (page.failure() instanceof IOException ioException) {
+        finished = true;
+        throw ioException;
+      } else if (page.failure() != null) {
+        finished = true;
+        throw new FailedProcessingException("Failed to retrieve search results", page.failure());
+      }
+      if (page == endOfResults) {
+        finished = true;
+      }
+      return page.searchPage();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FailedProcessingException("Interrupted while waiting for search results", e);
+    }
+  }
+
+  /**
+   * @return the number of pages which have been retrieved but not yet taken
+   */
+  int queuedPages() {
+    return queue.size();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  @FunctionalInterface
+  interface PageSupplier<T> {
+
+    SearchPage<T> nextPage() throws IOException;
+
+  }
+
+  private record Page<T>(SearchPage<T> searchPage, Exception failure) {
+
+  }
+
+}
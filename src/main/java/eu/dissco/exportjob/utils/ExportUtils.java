@@ -1,20 +1,19 @@
 package eu.dissco.exportjob.utils;
 
-import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.domain.DwcaRow;
 import eu.dissco.exportjob.schema.Agent;
 import eu.dissco.exportjob.schema.Citation;
 import eu.dissco.exportjob.schema.DigitalSpecimen;
 import eu.dissco.exportjob.schema.Identifier;
 import eu.dissco.exportjob.schema.OdsHasRole;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
+import org.gbif.dwc.terms.Term;
 
 public class ExportUtils {
 
@@ -98,29 +97,18 @@ public class ExportUtils {
         .collect(Collectors.joining(" | "));
   }
 
-  public static String retrieveTerm(DigitalSpecimen digitalSpecimen,
-      Pair<Predicate<DigitalSpecimen>, Function<DigitalSpecimen, Object>> functions,
-      String methodName)
-      throws FailedProcessingException {
-    if (functions.getLeft().test(digitalSpecimen)) {
-      return null;
+  /*
+   * Sets the value of each of the terms, retrieved with the accessor of the term. When the source
+   * object is not present, the terms are left empty.
+   */
+  public static <T> void mapTerms(T termSource, List<Pair<Term, Function<T, Object>>> terms,
+      DwcaRow termRecord) {
+    if (termSource == null) {
+      return;
     }
-    var classInstance = functions.getRight().apply(digitalSpecimen);
-    return retrieveValueFromClass(classInstance, methodName);
-  }
-
-  private static String retrieveValueFromClass(Object classInstance, String methodName)
-      throws FailedProcessingException {
-    try {
-      var method = classInstance.getClass().getMethod(methodName);
-      var result = method.invoke(classInstance);
-      if (result != null) {
-        return String.valueOf(result);
-      }
-    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-      throw new FailedProcessingException("Failed to retrieve value from class", e);
+    for (var term : terms) {
+      termRecord.set(term.getLeft(), convertValueToString(term.getRight().apply(termSource)));
     }
-    return null;
   }
 
   public static String convertValueToString(Object value) {
@@ -130,4 +118,12 @@ public class ExportUtils {
     return String.valueOf(value);
   }
 
+  public static List<String> getMediaIds(List<DigitalSpecimen> digitalSpecimenList) {
+    return digitalSpecimenList.stream()
+        .map(DigitalSpecimen::getOdsHasEntityRelationships)
+        .flatMap(List::stream)
+        .filter(er -> er.getDwcRelationshipOfResource().equals("hasDigitalMedia"))
+        .map(er -> er.getOdsRelatedResourceURI().toString()).toList();
+  }
+
 }
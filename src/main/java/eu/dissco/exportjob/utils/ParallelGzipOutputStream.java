@@ -0,0 +1,195 @@
+package eu.dissco.exportjob.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream which deflates blocks of the input concurrently, in the same way as pigz. The
+ * input is split into blocks which are compressed as raw deflate data on a pool of threads. Each
+ * block is primed with the last 32KiB of the previous block as dictionary, so the compression ratio
+ * stays close to a single threaded stream. All blocks but the last end with a sync flush, so they
+ * can be concatenated into a single deflate stream. The blocks are written in order, wrapped in one
+ * gzip header and trailer, the result is a single valid gzip member.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+  private static final int BLOCK_SIZE = 128 * 1024;
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0,
+      0, (byte) 0xff};
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final LongConsumer deflateListener;
+  private final int maxPendingBlocks;
+  private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+  private final CRC32 crc = new CRC32();
+  private byte[] block = new byte[BLOCK_SIZE];
+  private int blockLength = 0;
+  private byte[] dictionary = null;
+  private long totalLength = 0;
+  private boolean closed = false;
+
+  public ParallelGzipOutputStream(OutputStream out, int threads) throws IOException {
+    this(out, threads, nanos -> {
+    });
+  }
+
+  /**
+   * @param deflateListener receives the time it took to compress each block, in nanoseconds. It is
+   *                        called from the compressing threads.
+   */
+  public ParallelGzipOutputStream(OutputStream out, int threads, LongConsumer deflateListener)
+      throws IOException {
+    this.out = out;
+    this.deflateListener = deflateListener;
+    this.executor = Executors.newFixedThreadPool(threads,
+        runnable -> new Thread(runnable, "gzip-compressor"));
+    this.maxPendingBlocks = threads * 2;
+    out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    ensureOpen();
+    crc.update(bytes, offset, length);
+    totalLength += length;
+    while (length > 0) {
+      var copyLength = Math.min(length, BLOCK_SIZE - blockLength);
+      System.arraycopy(bytes, offset, block, blockLength, copyLength);
+      blockLength += copyLength;
+      offset += copyLength;
+      length -= copyLength;
+      if (blockLength == BLOCK_SIZE) {
+        submitBlock(false);
+      }
+    }
+  }
+
+  /*
+   * Only writes the blocks which have already been compressed, flushing the pending block would
+   * reduce the compression ratio.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    while (!pendingBlocks.isEmpty() && pendingBlocks.peekFirst().isDone()) {
+      writeCompressedBlock(pendingBlocks.removeFirst());
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      submitBlock(true);
+      while (!pendingBlocks.isEmpty()) {
+        writeCompressedBlock(pendingBlocks.removeFirst());
+      }
+      writeTrailer();
+    } finally {
+      executor.shutdownNow();
+      out.close();
+    }
+  }
+
+  private void submitBlock(boolean last) throws IOException {
+    var input = block;
+    var inputLength = blockLength;
+    var inputDictionary = dictionary;
+    pendingBlocks.addLast(executor.submit(() -> {
+      var start = System.nanoTime();
+      var compressedBlock = deflate(input, inputLength, inputDictionary, last);
+      deflateListener.accept(System.nanoTime() - start);
+      return compressedBlock;
+    }));
+    if (inputLength >= DICTIONARY_SIZE) {
+      dictionary = Arrays.copyOfRange(input, inputLength - DICTIONARY_SIZE, inputLength);
+    } else {
+      dictionary = null;
+    }
+    block = new byte[BLOCK_SIZE];
+    blockLength = 0;
+    while (pendingBlocks.size() > maxPendingBlocks) {
+      writeCompressedBlock(pendingBlocks.removeFirst());
+    }
+  }
+
+  private static byte[] deflate(byte[] input, int length, byte[] dictionary, boolean last) {
+    var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      if (dictionary != null) {
+        deflater.setDictionary(dictionary);
+      }
+      deflater.setInput(input, 0, length);
+      var output = new ByteArrayOutputStream(length / 2 + 64);
+      var buffer = new byte[Math.max(length / 4, 1024)];
+      if (last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          output.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } else {
+        int written;
+        do {
+          written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+          output.write(buffer, 0, written);
+        } while (written == buffer.length);
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private void writeCompressedBlock(Future<byte[]> pendingBlock) throws IOException {
+    try {
+      var compressedBlock = pendingBlock.get();
+      out.write(compressedBlock, 0, compressedBlock.length);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing gzip block");
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to compress gzip block", e.getCause());
+    }
+  }
+
+  private void writeTrailer() throws IOException {
+    var trailer = new byte[8];
+    var checksum = (int) crc.getValue();
+    var size = (int) totalLength;
+    for (int i = 0; i < 4; i++) {
+      trailer[i] = (byte) (checksum >>> (8 * i));
+      trailer[i + 4] = (byte) (size >>> (8 * i));
+    }
+    out.write(trailer, 0, trailer.length);
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+}
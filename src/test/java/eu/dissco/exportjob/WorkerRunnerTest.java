@@ -0,0 +1,192 @@
+package eu.dissco.exportjob;
+
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static eu.dissco.exportjob.utils.TestUtils.TEMP_FILE_NAME;
+import static eu.dissco.exportjob.utils.TestUtils.givenJobRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import eu.dissco.exportjob.component.JobQueue;
+import eu.dissco.exportjob.component.JobRequestComponent;
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.S3Properties;
+import eu.dissco.exportjob.properties.WorkerProperties;
+import eu.dissco.exportjob.repository.S3Repository;
+import eu.dissco.exportjob.service.AbstractExportJobService;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Utilities;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+import software.amazon.awssdk.transfer.s3.model.CompletedFileUpload;
+import software.amazon.awssdk.transfer.s3.model.FileUpload;
+import software.amazon.awssdk.transfer.s3.model.UploadFileRequest;
+
+@ExtendWith(MockitoExtension.class)
+class WorkerRunnerTest {
+
+  @Mock
+  private AbstractExportJobService<?, ?> exportJobService;
+  @Mock
+  private ConfigurableApplicationContext context;
+  @Mock
+  private JobRequestComponent jobRequestComponent;
+  @Mock
+  private JobQueue jobQueue;
+  @Mock
+  private S3AsyncClient s3Client;
+  @Mock
+  private S3TransferManager transferManager;
+  @Mock
+  private FileUpload fileUpload;
+  private WorkerRunner workerRunner;
+
+  private static JobProperties givenJob() {
+    var job = new JobProperties();
+    job.setJobId(JOB_ID);
+    return job;
+  }
+
+  @BeforeEach
+  void setup() {
+    var properties = new WorkerProperties();
+    properties.setQueueDirectory("queue");
+    properties.setPollInterval(Duration.ofMillis(10));
+    properties.setExitWhenIdle(true);
+    workerRunner = new WorkerRunner(exportJobService, context, jobRequestComponent, jobQueue,
+        properties);
+  }
+
+  @Test
+  void testRun() throws Exception {
+    // Given
+    var job = givenJob();
+    given(jobQueue.poll()).willReturn(Optional.of(job), Optional.of(job), Optional.empty());
+    given(jobRequestComponent.getJobRequest(job)).willReturn(givenJobRequest());
+
+    // When
+    workerRunner.run();
+
+    // Then
+    then(exportJobService).should(times(2)).handleMessage(givenJobRequest());
+    then(jobQueue).should(times(2)).complete(JOB_ID);
+    then(context).should().close();
+  }
+
+  @Test
+  void testRunFileBasedJobs() throws Exception {
+    // Given
+    var properties = new WorkerProperties();
+    properties.setConcurrentJobs(1);
+    properties.setExitWhenIdle(true);
+    workerRunner = new WorkerRunner(exportJobService, context, jobRequestComponent, jobQueue,
+        properties);
+    var s3Properties = new S3Properties();
+    s3Properties.setBucketName("dissco-download");
+    var s3Repository = new S3Repository(s3Client, transferManager,
+        DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC), s3Properties);
+    var job = givenJob();
+    given(jobQueue.poll()).willReturn(Optional.of(job), Optional.of(job), Optional.empty());
+    given(jobRequestComponent.getJobRequest(job)).willReturn(givenJobRequest());
+    given(transferManager.uploadFile(
+        ArgumentMatchers.<Consumer<UploadFileRequest.Builder>>any())).willReturn(fileUpload);
+    given(fileUpload.completionFuture()).willReturn(CompletableFuture.completedFuture(
+        CompletedFileUpload.builder().response(PutObjectResponse.builder().build()).build()));
+    given(s3Client.utilities()).willReturn(S3Utilities.builder().region(Region.EU_WEST_2).build());
+    var urls = new CopyOnWriteArrayList<String>();
+    willAnswer(invocation -> urls.add(
+        s3Repository.uploadResults(new File(TEMP_FILE_NAME), JOB_ID, ".zip")))
+        .given(exportJobService).handleMessage(any());
+
+    // When
+    workerRunner.run();
+
+    // Then
+    assertThat(urls).hasSize(2).allSatisfy(url -> assertThat(url)
+        .startsWith("https://dissco-download.s3.eu-west-2.amazonaws.com/")
+        .endsWith(JOB_ID + ".zip"));
+    then(transferManager).should(times(2)).uploadFile(
+        ArgumentMatchers.<Consumer<UploadFileRequest.Builder>>any());
+    then(s3Client).should(never()).close();
+    then(transferManager).should(never()).close();
+  }
+
+  @Test
+  void testRunEmptyQueue() throws Exception {
+    // Given
+    given(jobQueue.poll()).willReturn(Optional.empty());
+
+    // When
+    workerRunner.run();
+
+    // Then
+    then(exportJobService).shouldHaveNoInteractions();
+    then(context).should().close();
+  }
+
+  @Test
+  void testHandleJobFailed() throws Exception {
+    // Given
+    var job = givenJob();
+    given(jobRequestComponent.getJobRequest(job)).willReturn(givenJobRequest());
+    willThrow(FailedProcessingException.class).given(exportJobService)
+        .handleMessage(any());
+
+    // When
+    workerRunner.handleJob(job);
+
+    // Then
+    then(jobQueue).should().complete(JOB_ID);
+  }
+
+  @Test
+  void testHandleJobInvalidRequest() throws Exception {
+    // Given
+    var job = givenJob();
+    given(jobRequestComponent.getJobRequest(job)).willThrow(FailedProcessingException.class);
+
+    // When
+    workerRunner.handleJob(job);
+
+    // Then
+    then(exportJobService).shouldHaveNoInteractions();
+    then(jobQueue).should().complete(JOB_ID);
+  }
+
+  @Test
+  void testPollFailed() throws Exception {
+    // Given
+    given(jobQueue.poll()).willThrow(IOException.class);
+
+    // When
+    workerRunner.run();
+
+    // Then
+    then(exportJobService).shouldHaveNoInteractions();
+    then(context).should().close();
+  }
+
+}
@@ -0,0 +1,177 @@
+package eu.dissco.exportjob.component;
+
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_FIELD_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.dissco.exportjob.domain.TargetType;
+import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.WorkerProperties;
+import jakarta.validation.Validation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DirectoryJobQueueTest {
+
+  private static final UUID JOB_ID_2 = UUID.fromString("0f3e4a6b-6a52-4a4f-9b2a-6c7f1e0b5d21");
+
+  @TempDir
+  private Path queueDirectory;
+  private DirectoryJobQueue jobQueue;
+
+  private static JobProperties givenJob(UUID jobId) {
+    var job = new JobProperties();
+    job.setJobId(jobId);
+    job.setInputFields(List.of(ORG_FIELD_NAME));
+    job.setInputValues(List.of(ORG_1));
+    job.setTargetType(TargetType.DIGITAL_SPECIMEN.getName());
+    job.setIsSourceSystemJob(false);
+    return job;
+  }
+
+  @BeforeEach
+  void setup() {
+    var properties = new WorkerProperties();
+    properties.setQueueDirectory(queueDirectory.toString());
+    properties.setClaimTimeout(Duration.ofMinutes(10));
+    jobQueue = new DirectoryJobQueue(properties, MAPPER,
+        Validation.buildDefaultValidatorFactory().getValidator());
+  }
+
+  @AfterEach
+  void teardown() {
+    jobQueue.close();
+  }
+
+  private void givenJobFile(String fileName, UUID jobId) throws IOException {
+    MAPPER.writeValue(queueDirectory.resolve(fileName).toFile(), givenJob(jobId));
+  }
+
+  @Test
+  void testPollInOrder() throws IOException {
+    // Given
+    givenJobFile("2-job.json", JOB_ID_2);
+    givenJobFile("1-job.json", JOB_ID);
+
+    // When
+    var first = jobQueue.poll();
+    var second = jobQueue.poll();
+
+    // Then
+    assertThat(first).get().isEqualTo(givenJob(JOB_ID));
+    assertThat(second).get().isEqualTo(givenJob(JOB_ID_2));
+    assertThat(jobQueue.poll()).isEmpty();
+    assertThat(queueDirectory.resolve("1-job.json.running")).exists();
+  }
+
+  @Test
+  void testPollEmpty() throws IOException {
+    // When
+    var result = jobQueue.poll();
+
+    // Then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  void testPollInvalidJob() throws IOException {
+    // Given
+    Files.writeString(queueDirectory.resolve("1-job.json"), "not a job");
+    givenJobFile("2-job.json", JOB_ID);
+
+    // When
+    var result = jobQueue.poll();
+
+    // Then
+    assertThat(result).get().isEqualTo(givenJob(JOB_ID));
+    assertThat(queueDirectory.resolve("1-job.json.failed")).exists();
+  }
+
+  @Test
+  void testPollJobWithoutId() throws IOException {
+    // Given
+    var job = givenJob(JOB_ID_2);
+    job.setJobId(null);
+    MAPPER.writeValue(queueDirectory.resolve("1-job.json").toFile(), job);
+    givenJobFile("2-job.json", JOB_ID);
+
+    // When
+    var result = jobQueue.poll();
+
+    // Then
+    assertThat(result).get().isEqualTo(givenJob(JOB_ID));
+    assertThat(queueDirectory.resolve("1-job.json.failed")).exists();
+  }
+
+  @Test
+  void testRequeueStaleClaim() throws IOException {
+    // Given
+    givenJobFile("1-job.json.running", JOB_ID);
+    Files.setLastModifiedTime(queueDirectory.resolve("1-job.json.running"),
+        FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+    // When
+    var result = jobQueue.poll();
+
+    // Then
+    assertThat(result).get().isEqualTo(givenJob(JOB_ID));
+    assertThat(queueDirectory.resolve("1-job.json.running")).exists();
+  }
+
+  @Test
+  void testKeepRecentClaim() throws IOException {
+    // Given
+    givenJobFile("1-job.json.running", JOB_ID);
+
+    // When
+    var result = jobQueue.poll();
+
+    // Then
+    assertThat(result).isEmpty();
+    assertThat(queueDirectory.resolve("1-job.json.running")).exists();
+  }
+
+  @Test
+  void testRefreshClaims() throws IOException {
+    // Given
+    givenJobFile("1-job.json", JOB_ID);
+    jobQueue.poll();
+    var claimedFile = queueDirectory.resolve("1-job.json.running");
+    var staleTime = FileTime.from(Instant.now().minus(Duration.ofHours(1)));
+    Files.setLastModifiedTime(claimedFile, staleTime);
+
+    // When
+    jobQueue.refreshClaims();
+
+    // Then
+    assertThat(Files.getLastModifiedTime(claimedFile)).isGreaterThan(staleTime);
+  }
+
+  @Test
+  void testComplete() throws IOException {
+    // Given
+    givenJobFile("1-job.json", JOB_ID);
+    jobQueue.poll();
+
+    // When
+    jobQueue.complete(JOB_ID);
+
+    // Then
+    try (var files = Files.list(queueDirectory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+}
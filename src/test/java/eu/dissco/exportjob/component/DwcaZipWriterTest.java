@@ -1,22 +1,29 @@
 package eu.dissco.exportjob.component;
 
 import static eu.dissco.exportjob.utils.TestUtils.TEMP_FILE_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
 import eu.dissco.exportjob.configuration.TemplateConfiguration;
-import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.domain.DwcaRow;
+import eu.dissco.exportjob.domain.DwcaRowSchema;
 import freemarker.template.Configuration;
 import freemarker.template.TemplateException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import org.apache.commons.lang3.tuple.Pair;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.gbif.dwc.terms.AcTerm;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.DwcaTerm;
@@ -30,14 +37,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class DwcaZipWriterTest {
 
-  private DwcaZipWriter dwcaZipWriter;
+  private DwcaArchiveSession archiveSession;
 
   @BeforeEach
   void setup() throws IOException {
     var freemarker = new TemplateConfiguration(mock(Configuration.class)).metaTemplate();
-    var indexProperties = mock(IndexProperties.class);
-    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
-    dwcaZipWriter = new DwcaZipWriter(indexProperties, freemarker);
+    archiveSession = new DwcaZipWriter(freemarker).openSession(Path.of(TEMP_FILE_NAME));
   }
 
   @AfterEach
@@ -46,18 +51,37 @@ class DwcaZipWriterTest {
     Files.deleteIfExists(file.toPath());
   }
 
+  private static List<Path> spoolDirectories() throws IOException {
+    try (var files = Files.list(new File(TEMP_FILE_NAME).getAbsoluteFile().getParentFile()
+        .toPath())) {
+      return files.filter(file -> file.getFileName().toString().startsWith("dwca-")).toList();
+    }
+  }
+
+  private static DwcaRow givenRow(DwcaRowSchema schema, String id) {
+    var row = schema.newRow();
+    row.set(DwcaTerm.ID, id);
+    return row;
+  }
+
   @Test
   void testWrite() throws IOException, TemplateException {
     //Given
-    var map = new HashMap<Term, List<List<Pair<Term, String>>>>();
-    map.put(DwcTerm.Occurrence, List.of(List.of(Pair.of(DwcaTerm.ID, "12345"))));
-    map.put(DwcTerm.Identification, List.of(List.of(Pair.of(DwcaTerm.ID, "12345"))));
-    map.put(AcTerm.Multimedia, List.of(List.of(Pair.of(DwcaTerm.ID, "12345"),
-        Pair.of(AcTerm.accessURI, "http://example.com/image.jpg"))));
+    var occurrenceSchema = new DwcaRowSchema(DwcTerm.Occurrence, List.of(DwcaTerm.ID));
+    var identificationSchema = new DwcaRowSchema(DwcTerm.Identification, List.of(DwcaTerm.ID));
+    var multimediaSchema = new DwcaRowSchema(AcTerm.Multimedia,
+        List.of(DwcaTerm.ID, AcTerm.accessURI));
+    var multimediaRow = givenRow(multimediaSchema, "12345");
+    multimediaRow.set(AcTerm.accessURI, "http://example.com/image.jpg");
+    var map = new HashMap<Term, List<DwcaRow>>();
+    map.put(DwcTerm.Occurrence, List.of(givenRow(occurrenceSchema, "12345")));
+    map.put(DwcTerm.Identification, List.of(givenRow(identificationSchema, "12345")));
+    map.put(AcTerm.Multimedia, List.of(multimediaRow));
 
     // When
-    dwcaZipWriter.writeRecords(map);
-    dwcaZipWriter.close();
+    archiveSession.writeRecords(map);
+    archiveSession.writeEml("<eml></eml>");
+    archiveSession.close(Files.newOutputStream(Path.of(TEMP_FILE_NAME)));
 
     // Then
     try (var fileSystem = FileSystems.newFileSystem(new File(TEMP_FILE_NAME).toPath())) {
@@ -65,33 +89,83 @@ class DwcaZipWriterTest {
       assertTrue(Files.exists(fileSystem.getPath("Occurrence.tsv")));
       assertTrue(Files.exists(fileSystem.getPath("Identification.tsv")));
       assertTrue(Files.exists(fileSystem.getPath("Multimedia.tsv")));
+      assertThat(Files.readAllLines(fileSystem.getPath("Multimedia.tsv"))).containsExactly(
+          "12345\thttp://example.com/image.jpg");
+      assertThat(Files.readString(fileSystem.getPath("eml.xml"))).isEqualTo("<eml></eml>");
     }
+    try (var zipFile = new ZipFile(TEMP_FILE_NAME)) {
+      assertThat(zipFile.stream().map(ZipEntry::getName)).last().isEqualTo("meta.xml");
+    }
+    assertThat(spoolDirectories()).isEmpty();
   }
 
 
   @Test
-  void testWriteIllegalArgument() {
+  void testWriteIllegalArgument() throws IOException, TemplateException {
     //Given
-    var map = new HashMap<Term, List<List<Pair<Term, String>>>>();
-    map.put(DwcTerm.Occurrence, List.of(List.of(Pair.of(DwcaTerm.ID, "12345")),
-        List.of(Pair.of(DwcaTerm.ID, "67890"),
-            Pair.of(DwcTerm.institutionID, "https://ror.org/xxx"))));
+    var occurrenceSchema = new DwcaRowSchema(DwcTerm.Occurrence, List.of(DwcaTerm.ID));
+    var otherSchema = new DwcaRowSchema(DwcTerm.Occurrence,
+        List.of(DwcaTerm.ID, DwcTerm.institutionID));
+    var map = new HashMap<Term, List<DwcaRow>>();
+    map.put(DwcTerm.Occurrence, List.of(givenRow(occurrenceSchema, "12345"),
+        givenRow(otherSchema, "67890")));
 
     // When
-    assertThrows(IllegalArgumentException.class, () -> dwcaZipWriter.writeRecords(map));
+    assertThrows(IllegalArgumentException.class, () -> archiveSession.writeRecords(map));
+    archiveSession.close(Files.newOutputStream(Path.of(TEMP_FILE_NAME)));
   }
 
   @Test
-  void testEmptyMapping() {
-    //Given
-    var map = new HashMap<Term, List<List<Pair<Term, String>>>>();
-    map.put(DwcTerm.Occurrence, List.of(List.of(Pair.of(DwcaTerm.ID, "12345")),
-        List.of(Pair.of(DwcaTerm.ID, "67890"),
-            Pair.of(DwcTerm.institutionID, "https://ror.org/xxx"))));
-    map.put(DwcTerm.Identification, List.of(List.of()));
+  void testConcurrentWrite() throws Exception {
+    // Given
+    var occurrenceSchema = new DwcaRowSchema(DwcTerm.Occurrence, List.of(DwcaTerm.ID));
+    var identificationSchema = new DwcaRowSchema(DwcTerm.Identification, List.of(DwcaTerm.ID));
+    var executor = Executors.newFixedThreadPool(4);
+    var tasks = new ArrayList<Callable<Void>>();
+    for (int i = 0; i < 20; i++) {
+      var page = i;
+      tasks.add(() -> {
+        var occurrences = new ArrayList<DwcaRow>();
+        var identifications = new ArrayList<DwcaRow>();
+        for (int j = 0; j < 50; j++) {
+          occurrences.add(givenRow(occurrenceSchema, page + "-" + j));
+          identifications.add(givenRow(identificationSchema, page + "-" + j));
+        }
+        archiveSession.writeRecords(Map.of(DwcTerm.Occurrence, occurrences,
+            DwcTerm.Identification, identifications));
+        return null;
+      });
+    }
+
+    // When
+    for (var future : executor.invokeAll(tasks)) {
+      future.get();
+    }
+    executor.shutdown();
+    archiveSession.close(Files.newOutputStream(Path.of(TEMP_FILE_NAME)));
+
+    // Then
+    try (var fileSystem = FileSystems.newFileSystem(new File(TEMP_FILE_NAME).toPath())) {
+      assertThat(Files.readAllLines(fileSystem.getPath("Occurrence.tsv"))).hasSize(1000)
+          .doesNotHaveDuplicates();
+      assertThat(Files.readAllLines(fileSystem.getPath("Identification.tsv"))).hasSize(1000)
+          .doesNotHaveDuplicates();
+    }
+  }
+
+  @Test
+  void testDiscard() throws IOException {
+    // Given
+    var occurrenceSchema = new DwcaRowSchema(DwcTerm.Occurrence, List.of(DwcaTerm.ID));
+    archiveSession.writeRecords(Map.of(DwcTerm.Occurrence,
+        List.of(givenRow(occurrenceSchema, "12345"))));
 
     // When
-    assertThrows(IllegalArgumentException.class, () -> dwcaZipWriter.writeRecords(map));
+    archiveSession.discard();
+
+    // Then
+    assertThat(spoolDirectories()).isEmpty();
+    assertThat(new File(TEMP_FILE_NAME)).doesNotExist();
   }
 
 }
@@ -33,7 +33,7 @@ class JobRequestComponentTest {
   @BeforeEach
   void init(){
     properties = new JobProperties();
-    jobRequestComponent = new JobRequestComponent(properties, client);
+    jobRequestComponent = new JobRequestComponent(client);
   }
 
   @Test
@@ -52,7 +52,7 @@ class JobRequestComponentTest {
     properties.setIsSourceSystemJob(Boolean.FALSE);
 
     // When
-    var result = jobRequestComponent.getJobRequest();
+    var result = jobRequestComponent.getJobRequest(properties);
 
     // Then
     assertThat(result).isEqualTo(expected);
@@ -67,7 +67,7 @@ class JobRequestComponentTest {
     properties.setTargetType(TargetType.DIGITAL_SPECIMEN.getName());
 
     // When
-    assertThrows(FailedProcessingException.class, () -> jobRequestComponent.getJobRequest());
+    assertThrows(FailedProcessingException.class, () -> jobRequestComponent.getJobRequest(properties));
 
     // Then
     then(client).should().updateJobState(JOB_ID, JobStateEndpoint.FAILED);
@@ -0,0 +1,42 @@
+package eu.dissco.exportjob.component;
+
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import eu.dissco.exportjob.domain.JobMetricsReport.MeterSnapshot;
+import eu.dissco.exportjob.properties.MetricsProperties;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JsonFileMetricsPublisherTest {
+
+  @TempDir
+  private Path tempDirectory;
+
+  @Test
+  void testPublish() throws IOException {
+    // Given
+    var properties = new MetricsProperties();
+    properties.setReportDirectory(tempDirectory.resolve("reports").toString());
+    var publisher = new JsonFileMetricsPublisher(properties, MAPPER);
+    var report = new JobMetricsReport(JOB_ID, "doi_list", 2.0, 300, 150.0, List.of(
+        new MeterSnapshot("export.stage", Map.of("stage", "write"), "timer",
+            Map.of("count", 1.0))), List.of(
+        new MeterSnapshot("export.elasticsearch.response.bytes", Map.of(),
+            "distribution_summary", Map.of("total", 4096.0))));
+
+    // When
+    publisher.publish(report);
+
+    // Then
+    var reportFile = tempDirectory.resolve("reports").resolve(JOB_ID + "-metrics.json");
+    assertThat(MAPPER.readValue(reportFile.toFile(), JobMetricsReport.class)).isEqualTo(report);
+  }
+
+}
@@ -0,0 +1,90 @@
+package eu.dissco.exportjob.component;
+
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.dissco.exportjob.domain.JobMetricsReport;
+import eu.dissco.exportjob.domain.JobMetricsReport.MeterSnapshot;
+import eu.dissco.exportjob.properties.MetricsProperties;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PushgatewayMetricsPublisherTest {
+
+  private MockWebServer mockPushgateway;
+  private PushgatewayMetricsPublisher publisher;
+
+  private static JobMetricsReport givenReport() {
+    var measurements = new LinkedHashMap<String, Double>();
+    measurements.put("count", 2.0);
+    measurements.put("total", 0.5);
+    measurements.put("max", Double.POSITIVE_INFINITY);
+    return new JobMetricsReport(JOB_ID, "dwc_dp", 4.0, 1000, 250.0, List.of(
+        new MeterSnapshot("export.stage", Map.of("stage", "insert"), "timer", measurements),
+        new MeterSnapshot("export.stage", Map.of("stage", "upload"), "timer",
+            Map.of("total", 1.5))),
+        List.of(new MeterSnapshot("export.stage", Map.of("stage", "insert"), "timer",
+            Map.of("total", 2.5))));
+  }
+
+  @BeforeEach
+  void setup() throws IOException {
+    mockPushgateway = new MockWebServer();
+    mockPushgateway.start();
+    var properties = new MetricsProperties();
+    properties.setPushgatewayUrl(mockPushgateway.url("/").toString());
+    publisher = new PushgatewayMetricsPublisher(properties);
+  }
+
+  @AfterEach
+  void destroy() throws IOException {
+    mockPushgateway.shutdown();
+  }
+
+  @Test
+  void testPublish() throws Exception {
+    // Given
+    mockPushgateway.enqueue(new MockResponse().setResponseCode(200));
+
+    // When
+    publisher.publish(givenReport());
+
+    // Then
+    var request = mockPushgateway.takeRequest();
+    assertThat(request.getMethod()).isEqualTo("PUT");
+    assertThat(request.getPath()).isEqualTo("/metrics/job/export_job/job_id/" + JOB_ID);
+    assertThat(request.getBody().readUtf8().lines()).containsExactly(
+        "# TYPE export_job_duration_seconds gauge",
+        "export_job_duration_seconds{job_type=\"dwc_dp\"} 4.0",
+        "# TYPE export_job_records gauge",
+        "export_job_records{job_type=\"dwc_dp\"} 1000.0",
+        "# TYPE export_job_records_per_second gauge",
+        "export_job_records_per_second{job_type=\"dwc_dp\"} 250.0",
+        "# TYPE export_stage_count counter",
+        "export_stage_count{stage=\"insert\"} 2.0",
+        "# TYPE export_stage_total counter",
+        "export_stage_total{stage=\"insert\"} 0.5",
+        "export_stage_total{stage=\"upload\"} 1.5",
+        "export_stage_total{scope=\"process\",stage=\"insert\"} 2.5",
+        "# TYPE export_stage_max gauge",
+        "export_stage_max{stage=\"insert\"} +Inf");
+  }
+
+  @Test
+  void testPublishFailed() {
+    // Given
+    mockPushgateway.enqueue(new MockResponse().setResponseCode(500));
+
+    // When / Then
+    assertThrows(IOException.class, () -> publisher.publish(givenReport()));
+  }
+
+}
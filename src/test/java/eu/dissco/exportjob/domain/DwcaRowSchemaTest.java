@@ -0,0 +1,61 @@
+package eu.dissco.exportjob.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.DwcaTerm;
+import org.gbif.dwc.terms.Term;
+import org.junit.jupiter.api.Test;
+
+class DwcaRowSchemaTest {
+
+  private final DwcaRowSchema schema = new DwcaRowSchema(DwcTerm.Occurrence,
+      List.of(DwcaTerm.ID, DwcTerm.institutionID, DwcTerm.catalogNumber));
+
+  @Test
+  void testNewRow() {
+    // Given
+    var row = schema.newRow();
+
+    // When
+    row.set(DwcTerm.catalogNumber, "12345");
+    row.set(DwcaTerm.ID, "https://doi.org/TEST/XXX-XXX-XXX");
+
+    // Then
+    assertThat(row.getValues()).containsExactly("https://doi.org/TEST/XXX-XXX-XXX", null,
+        "12345");
+    assertThat(row.get(DwcTerm.catalogNumber)).isEqualTo("12345");
+  }
+
+  @Test
+  void testUnknownTerm() {
+    // Given
+    var row = schema.newRow();
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class, () -> row.set(DwcTerm.sex, "female"));
+  }
+
+  @Test
+  void testDuplicateTerm() {
+    // Given
+    List<Term> terms = List.of(DwcaTerm.ID, DwcTerm.institutionID, DwcaTerm.ID);
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class,
+        () -> new DwcaRowSchema(DwcTerm.Occurrence, terms));
+  }
+
+  @Test
+  void testEmptySchema() {
+    // Given
+    List<Term> terms = List.of();
+
+    // When / Then
+    assertThrows(IllegalArgumentException.class,
+        () -> new DwcaRowSchema(DwcTerm.Occurrence, terms));
+  }
+
+}
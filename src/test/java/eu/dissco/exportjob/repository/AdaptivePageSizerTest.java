@@ -0,0 +1,173 @@
+package eu.dissco.exportjob.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePageSizerTest {
+
+  private static final long FAST = Duration.ofMillis(200).toNanos();
+  private static final long SLOW = Duration.ofSeconds(8).toNanos();
+  private static final long ON_TARGET = Duration.ofSeconds(2).toNanos();
+
+  private final ElasticSearchProperties properties = new ElasticSearchProperties();
+  private double heapHeadroom = 0.8;
+
+  private static SearchPage<Integer> givenPage(int pageSize, int returnedSize) {
+    return givenPage(pageSize, returnedSize, 10, -1);
+  }
+
+  private static SearchPage<Integer> givenPage(int pageSize, int returnedSize, long tookMillis,
+      long responseBytes) {
+    return new SearchPage<>(Collections.nCopies(returnedSize, 1), List.of(), tookMillis, pageSize,
+        responseBytes);
+  }
+
+  private AdaptivePageSizer givenPageSizer() {
+    return new AdaptivePageSizer(properties, () -> heapHeadroom);
+  }
+
+  @BeforeEach
+  void setup() {
+    properties.setPageSize(300);
+    properties.setMinPageSize(50);
+    properties.setMaxPageSize(1000);
+    properties.setTargetPageLatency(Duration.ofSeconds(2));
+    properties.setMinHeapHeadroom(0.25);
+    properties.setTargetPageBytes(1024 * 1024);
+  }
+
+  @Test
+  void testGrowOnFastPages() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300), FAST);
+    pageSizer.recordPage(givenPage(450, 450), FAST);
+    pageSizer.recordPage(givenPage(675, 675), FAST);
+    pageSizer.recordPage(givenPage(1000, 1000), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(1000);
+  }
+
+  @Test
+  void testShrinkOnSlowPages() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300), SLOW);
+    pageSizer.recordPage(givenPage(150, 150), SLOW);
+    pageSizer.recordPage(givenPage(75, 75), SLOW);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(50);
+  }
+
+  @Test
+  void testKeepOnTargetPages() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300), ON_TARGET);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(300);
+  }
+
+  @Test
+  void testShrinkOnSlowElasticsearch() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300, 2000, -1), ON_TARGET);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(150);
+  }
+
+  @Test
+  void testKeepOnBusyElasticsearch() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300, 900, -1), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(300);
+  }
+
+  @Test
+  void testLimitToTargetPageBytes() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300, 10, 3 * 1024 * 1024), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(100);
+  }
+
+  @Test
+  void testGrowSmallDocuments() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300, 10, 300 * 100), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(450);
+  }
+
+  @Test
+  void testShrinkOnLowHeap() {
+    // Given
+    var pageSizer = givenPageSizer();
+    heapHeadroom = 0.1;
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(150);
+  }
+
+  @Test
+  void testIgnoreLastPage() {
+    // Given
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 12), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(300);
+  }
+
+  @Test
+  void testDisabled() {
+    // Given
+    properties.setAdaptivePageSize(false);
+    var pageSizer = givenPageSizer();
+
+    // When
+    pageSizer.recordPage(givenPage(300, 300), FAST);
+
+    // Then
+    assertThat(pageSizer.getPageSize()).isEqualTo(300);
+  }
+
+}
@@ -0,0 +1,88 @@
+package eu.dissco.exportjob.repository;
+
+import static eu.dissco.exportjob.utils.TestUtils.DOI_1;
+import static eu.dissco.exportjob.utils.TestUtils.DOI_2;
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import eu.dissco.exportjob.domain.JobCheckpoint;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CheckpointRepositoryTest extends BaseRepositoryIT {
+
+  private CheckpointRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = new CheckpointRepository(context, MAPPER);
+    repository.createTable();
+  }
+
+  @AfterEach
+  void cleanup() {
+    context.dropTableIfExists(DSL.name("export_job_checkpoint")).execute();
+  }
+
+  @Test
+  void testSaveCheckpoint() {
+    // Given
+    repository.saveCheckpoint(new JobCheckpoint(JOB_ID, List.of(FieldValue.of(DOI_1)), 300L));
+
+    // When
+    repository.saveCheckpoint(
+        new JobCheckpoint(JOB_ID, List.of(FieldValue.of(DOI_2), FieldValue.of(12L)), 600L));
+    var result = repository.getCheckpoint(JOB_ID);
+
+    // Then
+    assertThat(result).hasValueSatisfying(checkpoint -> {
+      assertThat(checkpoint.resultsProcessed()).isEqualTo(600L);
+      assertThat(checkpoint.searchAfter()).extracting(FieldValue::_get)
+          .containsExactly(DOI_2, 12L);
+    });
+  }
+
+  @Test
+  void testNoCheckpoint() {
+    // When
+    var result = repository.getCheckpoint(JOB_ID);
+
+    // Then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  void testGetJobIdsUpdatedBefore() {
+    // Given
+    repository.saveCheckpoint(new JobCheckpoint(JOB_ID, List.of(FieldValue.of(DOI_1)), 300L));
+    var now = Instant.now();
+
+    // When
+    var stale = repository.getJobIdsUpdatedBefore(now.plus(Duration.ofMinutes(1)));
+    var recent = repository.getJobIdsUpdatedBefore(now.minus(Duration.ofMinutes(1)));
+
+    // Then
+    assertThat(stale).containsExactly(JOB_ID);
+    assertThat(recent).isEmpty();
+  }
+
+  @Test
+  void testDeleteCheckpoint() {
+    // Given
+    repository.saveCheckpoint(new JobCheckpoint(JOB_ID, List.of(FieldValue.of(DOI_1)), 300L));
+
+    // When
+    repository.deleteCheckpoint(JOB_ID);
+
+    // Then
+    assertThat(repository.getCheckpoint(JOB_ID)).isEmpty();
+  }
+
+}
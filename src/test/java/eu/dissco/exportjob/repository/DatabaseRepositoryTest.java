@@ -1,12 +1,14 @@
 package eu.dissco.exportjob.repository;
 
 import static eu.dissco.exportjob.utils.TestUtils.DOI_1;
-import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
-import static eu.dissco.exportjob.utils.TestUtils.givenSpecimenJson;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import eu.dissco.exportjob.domain.dwcdp.DwCDpMaterial;
+import eu.dissco.exportjob.domain.dwcdp.DwcDpEvent;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,16 @@ class DatabaseRepositoryTest extends BaseRepositoryIT {
 
   private DatabaseRepository repository;
 
+  private static DwCDpMaterial givenMaterial(int i) {
+    var material = new DwCDpMaterial();
+    material.setMaterialEntityID(DOI_1 + i);
+    material.setInstitutionID(ORG_1);
+    material.setCatalogNumber("544398640");
+    material.setPreparations("WholeOrganism, \"air dried\"\n");
+    material.setVerbatimLabel("");
+    return material;
+  }
+
   @BeforeEach
   void setUp() {
     repository = new DatabaseRepository(context);
@@ -23,20 +35,85 @@ class DatabaseRepositoryTest extends BaseRepositoryIT {
   @Test
   void testInsertRecords() throws IOException {
     // Given
-    var specimenList = new ArrayList<Pair<String, Object>>();
+    var materialList = new ArrayList<Pair<String, Object>>();
+    var expected = new ArrayList<DwCDpMaterial>();
     var expectedRecords = 10;
     for (int i = 0; i < expectedRecords; i++) {
-      specimenList.add(Pair.of(DOI_1 + i, MAPPER.treeToValue(givenSpecimenJson(), Object.class)));
+      materialList.add(Pair.of(DOI_1 + i, givenMaterial(i)));
+      expected.add(givenMaterial(i));
+    }
+    var tableName = "temp_table_640f3acb_material";
+    repository.createTable(tableName, DwCDpMaterial.class);
+
+    // When
+    repository.insertRecords(tableName, DwCDpMaterial.class, materialList);
+    var records = repository.getRecords(tableName, DwCDpMaterial.class, null, 10000);
+
+    // Then
+    assertThat(records).extracting(Pair::getRight).containsExactlyInAnyOrderElementsOf(expected);
+  }
+
+  @Test
+  void testInsertDuplicateRecords() throws IOException {
+    // Given
+    var tableName = "temp_table_640f3acb_material";
+    repository.createTable(tableName, DwCDpMaterial.class);
+    repository.insertRecords(tableName, DwCDpMaterial.class,
+        List.of(Pair.of(DOI_1, givenMaterial(1))));
+
+    // When
+    repository.insertRecords(tableName, DwCDpMaterial.class,
+        List.of(Pair.of(DOI_1, givenMaterial(1)), Pair.of(DOI_1, givenMaterial(1)),
+            Pair.of(DOI_1 + 2, givenMaterial(2))));
+    var records = repository.getRecords(tableName, DwCDpMaterial.class, null, 10000);
+
+    // Then
+    assertThat(records).extracting(Pair::getRight)
+        .containsExactlyInAnyOrder(givenMaterial(1), givenMaterial(2));
+  }
+
+  @Test
+  void testInsertTypedColumns() throws IOException {
+    // Given
+    var event = new DwcDpEvent();
+    event.setEventID(DOI_1);
+    event.setYear(2024);
+    event.setMinimumElevationInMeters(12.5);
+    var tableName = "temp_table_640f3acb_event";
+    repository.createTable(tableName, DwcDpEvent.class);
+
+    // When
+    repository.insertRecords(tableName, DwcDpEvent.class, List.of(Pair.of(DOI_1, event)));
+    var records = repository.getRecords(tableName, DwcDpEvent.class, null, 10000);
+
+    // Then
+    assertThat(records).containsExactly(Pair.of(DOI_1, event));
+  }
+
+  @Test
+  void testGetRecordsKeyset() throws IOException {
+    // Given
+    var materialList = new ArrayList<Pair<String, Object>>();
+    var expectedIds = new ArrayList<String>();
+    for (int i = 0; i < 10; i++) {
+      materialList.add(Pair.of(DOI_1 + i, givenMaterial(i)));
+      expectedIds.add(DOI_1 + i);
     }
     var tableName = "temp_table_640f3acb_material";
-    repository.createTable(tableName);
+    repository.createTable(tableName, DwCDpMaterial.class);
+    repository.insertRecords(tableName, DwCDpMaterial.class, materialList.reversed());
+    var ids = new ArrayList<String>();
 
     // When
-    repository.insertRecords(tableName, specimenList);
-    var records = repository.getRecords(tableName, 0, 10000);
+    var records = repository.getRecords(tableName, DwCDpMaterial.class, null, 4);
+    while (!records.isEmpty()) {
+      records.forEach(dbRecord -> ids.add(dbRecord.getLeft()));
+      records = repository.getRecords(tableName, DwCDpMaterial.class, records.getLast().getLeft(),
+          4);
+    }
 
     // Then
-    assertThat(records).hasSize(expectedRecords);
+    assertThat(ids).isEqualTo(expectedIds);
   }
 
 }
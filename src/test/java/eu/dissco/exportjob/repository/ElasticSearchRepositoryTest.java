@@ -11,8 +11,10 @@ import static eu.dissco.exportjob.utils.TestUtils.givenMediaJson;
 import static eu.dissco.exportjob.utils.TestUtils.givenSearchParams;
 import static eu.dissco.exportjob.utils.TestUtils.givenTargetFields;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
@@ -23,6 +25,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import eu.dissco.exportjob.domain.SearchParam;
 import eu.dissco.exportjob.domain.TargetType;
 import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import eu.dissco.exportjob.schema.DigitalMedia;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Base64;
@@ -81,7 +84,8 @@ class ElasticSearchRepositoryTest {
 
   @BeforeEach
   void initRepository() {
-    elasticRepository = new ElasticSearchRepository(client, properties);
+    elasticRepository = new ElasticSearchRepository(client, properties,
+        new ElasticsearchResponseSizes());
   }
 
   @AfterEach
@@ -103,7 +107,7 @@ class ElasticSearchRepositoryTest {
 
     // When
     var result = elasticRepository.getTargetObjects(givenSearchParams(),
-        TargetType.DIGITAL_SPECIMEN, null, givenTargetFields());
+        TargetType.DIGITAL_SPECIMEN, null, givenTargetFields(), JsonNode.class).results();
 
     // Then
     assertThat(result).isEqualTo(List.of(givenDigitalSpecimenReducedDoiList()));
@@ -118,7 +122,8 @@ class ElasticSearchRepositoryTest {
 
     // When
     var result = elasticRepository.getTargetObjects(givenSearchParams(),
-        TargetType.DIGITAL_SPECIMEN, DOI_2, givenTargetFields());
+        TargetType.DIGITAL_SPECIMEN, List.of(FieldValue.of(DOI_2)), givenTargetFields(),
+        JsonNode.class).results();
 
     // Then
     assertThat(result).isEqualTo(List.of(givenDigitalSpecimenReducedDoiList()));
@@ -136,12 +141,59 @@ class ElasticSearchRepositoryTest {
 
     // When
     var result = elasticRepository.getTargetObjects(searchParam, TargetType.DIGITAL_SPECIMEN, null,
-        null);
+        null, JsonNode.class).results();
 
     // Then
     assertThat(result).isEqualTo(List.of(expected));
   }
 
+  @Test
+  void testCountTargetObjects() throws IOException {
+    // Given
+    postDigitalSpecimens(
+        DIGITAL_SPECIMEN_INDEX,
+        List.of(givenDigitalSpecimen(), givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2),
+            givenDigitalSpecimen("doi.org/1", ORG_2, PHYS_ID_2)));
+
+    // When
+    var result = elasticRepository.countTargetObjects(givenSearchParams(),
+        TargetType.DIGITAL_SPECIMEN);
+
+    // Then
+    assertThat(result).isEqualTo(2L);
+  }
+
+  @Test
+  void testGetTargetObjectsSlice() throws IOException {
+    // Given
+    postDigitalSpecimens(
+        DIGITAL_SPECIMEN_INDEX,
+        List.of(givenDigitalSpecimen(), givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2),
+            givenDigitalSpecimen("doi.org/1", ORG_2, PHYS_ID_2)));
+    properties.setPageSize(1);
+    properties.setAdaptivePageSize(false);
+    elasticRepository = new ElasticSearchRepository(client, properties,
+        new ElasticsearchResponseSizes());
+    var pitId = elasticRepository.openPointInTime(TargetType.DIGITAL_SPECIMEN);
+    var result = new ArrayList<JsonNode>();
+
+    // When
+    for (int sliceId = 0; sliceId < 2; sliceId++) {
+      var searchPage = elasticRepository.getTargetObjectsSlice(givenSearchParams(), pitId,
+          sliceId, 2, null, null, JsonNode.class);
+      while (!searchPage.results().isEmpty()) {
+        result.addAll(searchPage.results());
+        searchPage = elasticRepository.getTargetObjectsSlice(givenSearchParams(), pitId,
+            sliceId, 2, searchPage.searchAfter(), null, JsonNode.class);
+      }
+    }
+    elasticRepository.closePointInTime(pitId);
+
+    // Then
+    assertThat(result).containsExactlyInAnyOrder(givenDigitalSpecimen(),
+        givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2));
+  }
+
   @Test
   void testGetTargetForMediaList() throws IOException {
     // Given
@@ -158,7 +210,48 @@ class ElasticSearchRepositoryTest {
         mediaList.stream().map(node -> node.get("@id").asText()).toList());
 
     // Then
-    assertThat(result).isEqualTo(mediaList);
+    assertThat(result.values()).containsExactlyElementsOf(mediaList.stream()
+        .map(media -> MAPPER.convertValue(media, DigitalMedia.class)).toList());
+  }
+
+  @Test
+  void testGetTargetForMediaListMissingMedia() throws IOException {
+    // Given
+    var media = givenMediaJson();
+    postDigitalSpecimens(DIGITAL_MEDIA_INDEX, List.of(media));
+
+    // When
+    var result = elasticRepository.getTargetMediaById(
+        List.of("https://doi.org/TEST/AAA-AAA-AAA", media.get("@id").asText()));
+
+    // Then
+    assertThat(result).containsExactly(entry(media.get("@id").asText(),
+        MAPPER.convertValue(media, DigitalMedia.class)));
+  }
+
+  @Test
+  void testGetTargetForMediaListByDocumentId() throws IOException {
+    // Given
+    var media = givenMediaJson();
+    var documentId = "TEST/AAA-AAA-AAA";
+    client.index(idx -> idx.index(DIGITAL_MEDIA_INDEX).id(documentId).document(media));
+    client.indices().refresh(b -> b.index(DIGITAL_MEDIA_INDEX));
+
+    // When
+    var result = elasticRepository.getTargetMediaById(List.of(documentId));
+
+    // Then
+    assertThat(result).containsExactly(entry(documentId,
+        MAPPER.convertValue(media, DigitalMedia.class)));
+  }
+
+  @Test
+  void testGetTargetForEmptyMediaList() throws IOException {
+    // When
+    var result = elasticRepository.getTargetMediaById(List.of());
+
+    // Then
+    assertThat(result).isEmpty();
   }
 
   private void postDigitalSpecimens(String indexName, List<JsonNode> jsonObjects)
@@ -0,0 +1,139 @@
+package eu.dissco.exportjob.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+@ExtendWith(MockitoExtension.class)
+class S3UploadOutputStreamTest {
+
+  private static final String BUCKET_NAME = "export-bucket";
+  private static final String KEY = "2024-11-06/cd5c9ee7-23b1-4615-993e-9d56d0720213.csv.gz";
+  private static final String UPLOAD_ID = "upload-id";
+  private static final byte[] CONTENT = "dcterms:identifier,ods:physicalSpecimenID".getBytes(
+      StandardCharsets.UTF_8);
+
+  @Mock
+  private S3AsyncClient s3Client;
+
+  private S3UploadOutputStream uploadStream;
+
+  @BeforeEach
+  void setup() {
+    uploadStream = new S3UploadOutputStream(s3Client, BUCKET_NAME, KEY, 16, 1);
+  }
+
+  @Test
+  void testMultipartUpload() throws IOException {
+    // Given
+    given(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class))).willReturn(
+        CompletableFuture.completedFuture(
+            CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build()));
+    given(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+        .willAnswer(invocation -> CompletableFuture.completedFuture(UploadPartResponse.builder()
+            .eTag("etag-" + invocation.getArgument(0, UploadPartRequest.class).partNumber())
+            .build()));
+    given(s3Client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).willReturn(
+        CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build()));
+    var partCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
+    var bodyCaptor = ArgumentCaptor.forClass(AsyncRequestBody.class);
+    var completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+
+    // When
+    uploadStream.write(CONTENT, 0, CONTENT.length);
+    uploadStream.close();
+
+    // Then
+    then(s3Client).should(times(3)).uploadPart(partCaptor.capture(), bodyCaptor.capture());
+    assertThat(partCaptor.getAllValues()).extracting(UploadPartRequest::partNumber)
+        .containsExactly(1, 2, 3);
+    assertThat(bodyCaptor.getAllValues()).extracting(body -> body.contentLength().orElseThrow())
+        .containsExactly(16L, 16L, 9L);
+    then(s3Client).should().completeMultipartUpload(completeCaptor.capture());
+    assertThat(completeCaptor.getValue().uploadId()).isEqualTo(UPLOAD_ID);
+    assertThat(completeCaptor.getValue().multipartUpload().parts())
+        .extracting(part -> part.partNumber() + ":" + part.eTag())
+        .containsExactly("1:etag-1", "2:etag-2", "3:etag-3");
+    then(s3Client).should(never()).putObject(any(PutObjectRequest.class),
+        any(AsyncRequestBody.class));
+  }
+
+  @Test
+  void testSinglePartUpload() throws IOException {
+    // Given
+    given(s3Client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class))).willReturn(
+        CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+    var bodyCaptor = ArgumentCaptor.forClass(AsyncRequestBody.class);
+
+    // When
+    uploadStream.write(CONTENT, 0, 10);
+    uploadStream.close();
+
+    // Then
+    then(s3Client).should().putObject(any(PutObjectRequest.class), bodyCaptor.capture());
+    assertThat(bodyCaptor.getValue().contentLength()).contains(10L);
+    then(s3Client).shouldHaveNoMoreInteractions();
+  }
+
+  @Test
+  void testFailedPartUpload() {
+    // Given
+    given(s3Client.createMultipartUpload(any(CreateMultipartUploadRequest.class))).willReturn(
+        CompletableFuture.completedFuture(
+            CreateMultipartUploadResponse.builder().uploadId(UPLOAD_ID).build()));
+    given(s3Client.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+        .willReturn(CompletableFuture.failedFuture(SdkClientException.create("S3 unavailable")));
+    given(s3Client.abortMultipartUpload(any(AbortMultipartUploadRequest.class))).willReturn(
+        CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build()));
+
+    // When
+    assertThrows(IOException.class, () -> uploadStream.write(CONTENT, 0, CONTENT.length));
+
+    // Then
+    then(s3Client).should().abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    then(s3Client).should(never()).completeMultipartUpload(
+        any(CompleteMultipartUploadRequest.class));
+  }
+
+  @Test
+  void testAbort() throws IOException {
+    // Given
+    uploadStream.write(CONTENT, 0, 10);
+
+    // When
+    uploadStream.abort();
+    uploadStream.write(CONTENT, 0, CONTENT.length);
+    uploadStream.close();
+
+    // Then
+    then(s3Client).shouldHaveNoInteractions();
+  }
+
+}
@@ -0,0 +1,72 @@
+package eu.dissco.exportjob.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMapperTest {
+
+  @Test
+  void testMapInOrder() throws FailedProcessingException {
+    // Given
+    var concurrentMapper = new ConcurrentMapper(true);
+    var sources = IntStream.range(0, 100).boxed().toList();
+
+    // When
+    var result = concurrentMapper.map(sources, source -> {
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(1_000_000));
+      return List.of(source, source * 2);
+    });
+
+    // Then
+    assertThat(result).isEqualTo(
+        IntStream.range(0, 100).mapToObj(source -> List.of(source, source * 2)).toList());
+  }
+
+  @Test
+  void testMapOnVirtualThreads() throws FailedProcessingException {
+    // Given
+    var concurrentMapper = new ConcurrentMapper(true);
+
+    // When
+    var result = concurrentMapper.map(List.of(1, 2), source -> Thread.currentThread().isVirtual());
+
+    // Then
+    assertThat(result).containsExactly(true, true);
+  }
+
+  @Test
+  void testMapSequential() throws FailedProcessingException {
+    // Given
+    var concurrentMapper = new ConcurrentMapper(false);
+    var caller = Thread.currentThread();
+
+    // When
+    var result = concurrentMapper.map(List.of(1, 2), source -> Thread.currentThread() == caller);
+
+    // Then
+    assertThat(result).containsExactly(true, true);
+  }
+
+  @Test
+  void testMapFailed() {
+    // Given
+    var concurrentMapper = new ConcurrentMapper(true);
+
+    // When / Then
+    assertThrows(IllegalStateException.class, () -> concurrentMapper.map(List.of(1, 2, 3),
+        source -> {
+          if (source == 2) {
+            throw new IllegalStateException("Invalid specimen");
+          }
+          return source;
+        }));
+  }
+
+}
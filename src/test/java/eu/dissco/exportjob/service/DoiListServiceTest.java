@@ -1,22 +1,44 @@
 package eu.dissco.exportjob.service;
 
 import static eu.dissco.exportjob.Profiles.DOI_LIST;
+import static eu.dissco.exportjob.utils.TestUtils.DOI_1;
+import static eu.dissco.exportjob.utils.TestUtils.DOI_2;
 import static eu.dissco.exportjob.utils.TestUtils.DOWNLOAD_LINK;
 import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_1;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_2;
 import static eu.dissco.exportjob.utils.TestUtils.TEMP_FILE_NAME;
 import static eu.dissco.exportjob.utils.TestUtils.givenDigitalSpecimen;
 import static eu.dissco.exportjob.utils.TestUtils.givenJobRequest;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
 
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import eu.dissco.exportjob.component.MetricsPublisher;
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.domain.TargetType;
 import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
+import eu.dissco.exportjob.repository.S3UploadOutputStream;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
 import eu.dissco.exportjob.web.ExporterBackendClient;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +51,8 @@ import org.springframework.test.context.ActiveProfiles;
 @ActiveProfiles(profiles = DOI_LIST)
 class DoiListServiceTest {
 
+  private static final String PIT_ID = "pit-id";
+
   private DoiListService service;
 
   @Mock
@@ -43,44 +67,132 @@ class DoiListServiceTest {
   private Environment environment;
   @Mock
   private SourceSystemRepository sourceSystemRepository;
+  @Mock
+  private S3UploadOutputStream upload;
+  @Mock
+  private MetricsPublisher metricsPublisher;
+
+  private final ByteArrayOutputStream uploadedBytes = new ByteArrayOutputStream();
+
+  private String readUploadedFile() throws IOException {
+    try (var inputStream = new GZIPInputStream(
+        new ByteArrayInputStream(uploadedBytes.toByteArray()))) {
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private void givenUpload() throws IOException {
+    given(environment.getActiveProfiles()).willReturn(new String[]{"doi_list"});
+    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(s3Repository.openUpload(JOB_ID, ".csv.gz")).willReturn(upload);
+    willAnswer(invocation -> {
+      uploadedBytes.write(invocation.getArgument(0), invocation.getArgument(1),
+          invocation.getArgument(2));
+      return null;
+    }).given(upload).write(any(byte[].class), anyInt(), anyInt());
+  }
 
   @BeforeEach
   void init() {
-    service = new DoiListService(elasticSearchRepository, exporterBackendClient, s3Repository, indexProperties, environment, sourceSystemRepository);
+    service = new DoiListService(elasticSearchRepository, exporterBackendClient, s3Repository, indexProperties, environment, sourceSystemRepository,
+        new PipelineProperties(), List.of(metricsPublisher));
   }
 
   @Test
   void testHandleMessageNoResultsFound() throws Exception {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of());
-    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(elasticSearchRepository.countTargetObjects(any(), any())).willReturn(0L);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(JsonNode.class))).willReturn(new SearchPage<>(List.of(), null));
+    givenUpload();
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
+    then(elasticSearchRepository).should().countTargetObjects(any(), any());
     then(elasticSearchRepository).shouldHaveNoMoreInteractions();
-    then(s3Repository).shouldHaveNoInteractions();
+    then(s3Repository).should(never()).uploadResults(any(), any(), any());
+    then(upload).should().abort();
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, null);
   }
 
   @Test
   void testHandleMessage() throws Exception {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenDigitalSpecimen()));
-    given(environment.getActiveProfiles()).willReturn(new String[]{"doi_list"});
-    given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".csv.gz"))).willReturn(DOWNLOAD_LINK);
-    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(JsonNode.class))).willReturn(
+        new SearchPage<>(List.of(givenDigitalSpecimen(),
+            givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2)), null),
+        new SearchPage<>(List.of(), null));
+    givenUpload();
+    given(upload.getUrl()).willReturn(DOWNLOAD_LINK);
+
+    // When
+    service.handleMessage(givenJobRequest());
+
+    // Then
+    then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
+    then(upload).should().close();
+    then(upload).should(never()).abort();
+    then(metricsPublisher).should().publish(argThat(
+        report -> report.jobId().equals(JOB_ID) && report.records() == 2));
+    assertThat(readUploadedFile()).isEqualTo(
+        "dcterms:identifier,ods:physicalSpecimenID\n" + DOI_1 + "," + PHYS_ID_1 + "\n" + DOI_2
+            + "," + PHYS_ID_2);
+  }
+
+  @Test
+  void testHandleMessageSliced() throws Exception {
+    // Given
+    var pipelineProperties = new PipelineProperties();
+    pipelineProperties.setSlices(2);
+    service = new DoiListService(elasticSearchRepository, exporterBackendClient, s3Repository,
+        indexProperties, environment, sourceSystemRepository, pipelineProperties,
+        List.of(metricsPublisher));
+    var searchAfter = List.of(FieldValue.of(1L));
+    given(elasticSearchRepository.countTargetObjects(any(), any())).willReturn(20000L);
+    given(elasticSearchRepository.openPointInTime(TargetType.DIGITAL_SPECIMEN)).willReturn(PIT_ID);
+    given(elasticSearchRepository.getTargetObjectsSlice(any(), eq(PIT_ID), eq(0), eq(2), eq(null),
+        any(), eq(JsonNode.class))).willReturn(
+        new SearchPage<>(List.of(givenDigitalSpecimen()), searchAfter));
+    given(elasticSearchRepository.getTargetObjectsSlice(any(), eq(PIT_ID), eq(0), eq(2),
+        eq(searchAfter), any(), eq(JsonNode.class))).willReturn(new SearchPage<>(List.of(), null));
+    given(elasticSearchRepository.getTargetObjectsSlice(any(), eq(PIT_ID), eq(1), eq(2), eq(null),
+        any(), eq(JsonNode.class))).willReturn(new SearchPage<>(List.of(), null));
+    givenUpload();
+    given(upload.getUrl()).willReturn(DOWNLOAD_LINK);
+
+    // When
+    service.handleMessage(givenJobRequest());
+
+    // Then
+    then(elasticSearchRepository).should().closePointInTime(PIT_ID);
+    then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
+  }
+
+  @Test
+  void testHandleMessageSmallExportNotSliced() throws Exception {
+    // Given
+    var pipelineProperties = new PipelineProperties();
+    pipelineProperties.setSlices(2);
+    service = new DoiListService(elasticSearchRepository, exporterBackendClient, s3Repository,
+        indexProperties, environment, sourceSystemRepository, pipelineProperties,
+        List.of(metricsPublisher));
+    given(elasticSearchRepository.countTargetObjects(any(), any())).willReturn(1L);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(JsonNode.class))).willReturn(
+        new SearchPage<>(List.of(givenDigitalSpecimen()), null),
+        new SearchPage<>(List.of(), null));
+    givenUpload();
+    given(upload.getUrl()).willReturn(DOWNLOAD_LINK);
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
+    then(elasticSearchRepository).should(never()).openPointInTime(any());
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
   }
 
-}
\ No newline at end of file
+}
@@ -4,38 +4,53 @@ import static eu.dissco.exportjob.utils.TestUtils.DOWNLOAD_LINK;
 import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
 import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
 import static eu.dissco.exportjob.utils.TestUtils.SOURCE_SYSTEM_ID;
+import static eu.dissco.exportjob.utils.TestUtils.SPECIMEN_SCHEMA;
 import static eu.dissco.exportjob.utils.TestUtils.TEMP_FILE_NAME;
 import static eu.dissco.exportjob.utils.TestUtils.givenJobRequest;
-import static eu.dissco.exportjob.utils.TestUtils.givenMediaJson;
+import static eu.dissco.exportjob.utils.TestUtils.givenMedia;
 import static eu.dissco.exportjob.utils.TestUtils.givenSourceSystemRequest;
+import static eu.dissco.exportjob.utils.TestUtils.givenSpecimen;
 import static eu.dissco.exportjob.utils.TestUtils.givenSpecimenJson;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import eu.dissco.exportjob.component.DataPackageComponent;
+import eu.dissco.exportjob.domain.JobCheckpoint;
 import eu.dissco.exportjob.domain.JobStateEndpoint;
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.domain.dwcdp.DwCDpMaterial;
 import eu.dissco.exportjob.properties.DwcDpProperties;
 import eu.dissco.exportjob.properties.IndexProperties;
-import eu.dissco.exportjob.properties.JobProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
+import eu.dissco.exportjob.repository.CheckpointRepository;
 import eu.dissco.exportjob.repository.DatabaseRepository;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
 import eu.dissco.exportjob.web.ExporterBackendClient;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -49,7 +64,7 @@ import org.springframework.core.env.Environment;
 @ExtendWith(MockitoExtension.class)
 class DwcDpServiceTest {
 
-  private static final String HEX = "ACED00057372002E65752E64697373636F2E6578706F72746A6F622E646F6D61696E2E64776364702E44774344704D6174657269616C000000000000000102002F4C00136173736F63696174656453657175656E6365737400124C6A6176612F6C616E672F537472696E673B4C000D636174616C6F674E756D62657271007E00014C000B636F6C6C6563746564427971007E00014C000D636F6C6C65637465644279494471007E00014C000E636F6C6C656374696F6E436F646571007E00014C000C636F6C6C656374696F6E494471007E00014C00136461746147656E6572616C697A6174696F6E7371007E00014C000E646174654964656E74696669656471007E00014C001164657269766174696F6E4576656E74494471007E00014C000E64657269766174696F6E5479706571007E00014C001B6465726976656446726F6D4D6174657269616C456E74697479494471007E00014C000B646973706F736974696F6E71007E00014C00076576656E74494471007E00014C001765766964656E6365466F724F6363757272656E6365494471007E00014C0018686967686572436C617373696669636174696F6E4E616D6571007E00014C0018686967686572436C617373696669636174696F6E52616E6B71007E00014C00186964656E74696669636174696F6E5265666572656E63657371007E00014C00156964656E74696669636174696F6E52656D61726B7371007E00014C00206964656E74696669636174696F6E566572696669636174696F6E53746174757371007E00014C000C6964656E746966696564427971007E00014C000E6964656E7469666965644279494471007E00014C0013696E666F726D6174696F6E5769746868656C6471007E00014C000F696E737469747574696F6E436F646571007E00014C000D696E737469747574696F6E494471007E00014C00186973506172744F664D6174657269616C456E74697479494471007E00014C00106D6174657269616C43617465676F727971007E00014C00106D6174657269616C456E74697479494471007E00014C00156D6174657269616C456E7469747952656D61726B7371007E00014C00126D6174657269616C456E746974795479706571007E00014C00126D6174657269616C5265666572656E63657371007E00014C000E6F626A6563745175616E7469747971007E00014C00126F626A6563745175616E746974795479706571007E00014C00136F74686572436174616C6F674E756D6265727371007E00014C00146F776E6572496E737469747574696F6E436F646571007E00014C00126F776E6572496E737469747574696F6E494471007E00014C000C7072657061726174696F6E7371007E00014C000C7265636F72644E756D62657271007E00014C000E736369656E74696669634E616D6571007E00014C000C7461786F6E466F726D756C6171007E00014C00077461786F6E494471007E00014C00097461786F6E52616E6B71007E00014C000C7461786F6E52656D61726B7371007E00014C00137479706544657369676E6174696F6E5479706571007E00014C000A7479706553746174757371007E00014C000C74797069666965644E616D6571007E00014C0016766572626174696D4964656E74696669636174696F6E71007E00014C000D766572626174696D4C6162656C71007E000178707070707070707070707070707400093534343339383634307070707070707070707074001968747470733A2F2F726F722E6F72672F303536366266623936707074002068747470733A2F2F646F692E6F72672F544553542F5A5A5A2D5938562D304234707070707070707074001957686F6C654F7267616E69736D2028616972206472696564297070707070707070707070";
+  private static final String MATERIAL_TABLE = "tmpcd5c9ee723b14615993e9d56d0720213_material";
 
   private DwcDpService service;
   @Mock
@@ -63,8 +78,6 @@ class DwcDpServiceTest {
   @Mock
   private DatabaseRepository databaseRepository;
   @Mock
-  private JobProperties jobProperties;
-  @Mock
   private DwcDpProperties dwcDpProperties;
   @Mock
   private Environment environment;
@@ -72,6 +85,8 @@ class DwcDpServiceTest {
   private SourceSystemRepository sourceSystemRepository;
   @Mock
   private DataPackageComponent dataPackageComponent;
+  @Mock
+  private CheckpointRepository checkpointRepository;
 
   static Stream<JsonNode> jsonProvider() throws JsonProcessingException {
     return Stream.of(givenSpecimenJson(), givenSpecimenJsonOther());
@@ -484,11 +499,21 @@ class DwcDpServiceTest {
     );
   }
 
+  private static DwCDpMaterial givenMaterial() {
+    var material = new DwCDpMaterial();
+    material.setMaterialEntityID("https://doi.org/TEST/ZZZ-Y8V-0B4");
+    material.setInstitutionID("https://ror.org/0566bfb96");
+    material.setCatalogNumber("544398640");
+    material.setPreparations("WholeOrganism (air dried)");
+    return material;
+  }
+
   @BeforeEach
   void setup() {
     service = new DwcDpService(elasticSearchRepository, exporterBackendClient, s3Repository,
-        indexProperties, MAPPER, databaseRepository, jobProperties, dwcDpProperties, environment,
-        sourceSystemRepository, dataPackageComponent);
+        indexProperties, databaseRepository, dwcDpProperties, environment,
+        sourceSystemRepository, dataPackageComponent, new PipelineProperties(),
+        checkpointRepository, List.of());
   }
 
   @AfterEach
@@ -503,29 +528,61 @@ class DwcDpServiceTest {
   @MethodSource("jsonProvider")
   void testHandleMessage(JsonNode specimenNode) throws Exception {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(specimenNode));
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(MAPPER.treeToValue(specimenNode, DigitalSpecimen.class)),
+            null),
+        new SearchPage<>(List.of(), null));
     given(environment.getActiveProfiles()).willReturn(new String[]{"dwc_dp"});
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
     given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
     given(dwcDpProperties.getDbPageSize()).willReturn(10);
+    given(dwcDpProperties.getPostProcessThreads()).willReturn(2);
     given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".zip"))).willReturn(DOWNLOAD_LINK);
-    given(databaseRepository.getRecords(anyString(), eq(0), eq(10))).willReturn(
+    given(databaseRepository.getRecords(anyString(), any(), eq(null), eq(10))).willReturn(
         List.of());
-    var dbResponse = new ArrayList<byte[]>();
+    var dbResponse = new ArrayList<Pair<String, DwCDpMaterial>>();
     for (int i = 0; i < 18; i++) {
-      dbResponse.add(HexFormat.of().parseHex(HEX));
+      dbResponse.add(Pair.of(String.valueOf(i), givenMaterial()));
     }
-    given(databaseRepository.getRecords("temp_table_cd5c9ee7_material", 0, 10)).willReturn(
-        dbResponse.subList(0, 10));
-    given(databaseRepository.getRecords("temp_table_cd5c9ee7_material", 10, 10)).willReturn(
-        dbResponse.subList(10, 18));
+    given(databaseRepository.getRecords(MATERIAL_TABLE, DwCDpMaterial.class, null, 10))
+        .willReturn(dbResponse.subList(0, 10));
+    given(databaseRepository.getRecords(MATERIAL_TABLE, DwCDpMaterial.class, "9", 10))
+        .willReturn(dbResponse.subList(10, 18));
+
+    // When
+    service.handleMessage(givenJobRequest());
+
+    // Then
+    then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
+    then(checkpointRepository).should().saveCheckpoint(any());
+    then(checkpointRepository).should().deleteCheckpoint(JOB_ID);
+  }
+
+  @Test
+  void testHandleMessageResumed() throws Exception {
+    // Given
+    var searchAfter = List.of(FieldValue.of("https://doi.org/TEST/ZZZ-Y8V-0B4"));
+    given(checkpointRepository.getCheckpoint(JOB_ID)).willReturn(
+        Optional.of(new JobCheckpoint(JOB_ID, searchAfter, 1200L)));
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(searchAfter), any(),
+        eq(DigitalSpecimen.class))).willReturn(new SearchPage<>(List.of(), null));
+    given(environment.getActiveProfiles()).willReturn(new String[]{"dwc_dp"});
+    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(dwcDpProperties.getDbPageSize()).willReturn(10);
+    given(dwcDpProperties.getPostProcessThreads()).willReturn(2);
+    given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".zip"))).willReturn(DOWNLOAD_LINK);
+    given(databaseRepository.getRecords(anyString(), any(), eq(null), eq(10))).willReturn(
+        List.of());
+    given(databaseRepository.getRecords(MATERIAL_TABLE, DwCDpMaterial.class, null, 10))
+        .willReturn(List.of(Pair.of("0", givenMaterial())));
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
+    then(elasticSearchRepository).should(never()).openPointInTime(any());
+    then(checkpointRepository).should(never()).saveCheckpoint(any());
+    then(checkpointRepository).should().deleteCheckpoint(JOB_ID);
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
   }
 
@@ -533,47 +590,48 @@ class DwcDpServiceTest {
   void testHandleMessageIsSourceSystem() throws Exception {
     // Given
     var eml = "<eml></dataset><dataset><title>Test Dataset</title></dataset></eml>";
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenSpecimenJson()));
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenSpecimen()), null),
+        new SearchPage<>(List.of(), null));
     given(environment.getActiveProfiles()).willReturn(new String[]{"dwc_dp"});
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
     given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
     given(dwcDpProperties.getDbPageSize()).willReturn(10);
+    given(dwcDpProperties.getPostProcessThreads()).willReturn(2);
     given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".zip"))).willReturn(DOWNLOAD_LINK);
-    given(databaseRepository.getRecords(anyString(), eq(0), eq(10))).willReturn(
+    given(databaseRepository.getRecords(anyString(), any(), eq(null), eq(10))).willReturn(
         List.of());
     given(sourceSystemRepository.getEmlBySourceSystemId(SOURCE_SYSTEM_ID)).willReturn(eml);
     given(dataPackageComponent.formatDataPackage(eq(eml), anySet())).willReturn("{}");
-    var dbResponse = new ArrayList<byte[]>();
+    var dbResponse = new ArrayList<Pair<String, DwCDpMaterial>>();
     for (int i = 0; i < 18; i++) {
-      dbResponse.add(HexFormat.of().parseHex(HEX));
+      dbResponse.add(Pair.of(String.valueOf(i), givenMaterial()));
     }
-    given(databaseRepository.getRecords("temp_table_cd5c9ee7_material", 0, 10)).willReturn(
-        dbResponse.subList(0, 10));
-    given(databaseRepository.getRecords("temp_table_cd5c9ee7_material", 10, 10)).willReturn(
-        dbResponse.subList(10, 18));
+    given(databaseRepository.getRecords(MATERIAL_TABLE, DwCDpMaterial.class, null, 10))
+        .willReturn(dbResponse.subList(0, 10));
+    given(databaseRepository.getRecords(MATERIAL_TABLE, DwCDpMaterial.class, "9", 10))
+        .willReturn(dbResponse.subList(10, 18));
 
     // When
     service.handleMessage(givenSourceSystemRequest());
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
   }
 
   @Test
   void testHandleMessageIsSourceSystemNoSourceSystemParam() throws Exception {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenSpecimenJson()));
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenSpecimen()), null),
+        new SearchPage<>(List.of(), null));
     given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
 
     // When
     service.handleMessage(givenJobRequest(Boolean.TRUE));
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
     then(sourceSystemRepository).shouldHaveNoInteractions();
     then(s3Repository).shouldHaveNoInteractions();
     then(exporterBackendClient).should().updateJobState(JOB_ID, JobStateEndpoint.FAILED);
@@ -582,42 +640,88 @@ class DwcDpServiceTest {
   @Test
   void testHandleMessageException() throws Exception {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenSpecimenJson()));
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenSpecimen()), null),
+        new SearchPage<>(List.of(), null));
     given(elasticSearchRepository.getTargetMediaById(List.of("https://doi.org/TEST/Y9H-N1L-J7G",
-        "https://doi.org/TEST/WVW-SCM-C9Z"))).willReturn(List.of(givenMediaJson()));
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
+        "https://doi.org/TEST/WVW-SCM-C9Z"))).willReturn(
+        Map.of("https://doi.org/TEST/WVW-SCM-C9Z", givenMedia()));
     given(indexProperties.getTempFileLocation()).willReturn("///src/test/resources/temp.zip");
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(elasticSearchRepository).should().shutdown();
     then(exporterBackendClient).should().updateJobState(JOB_ID, JobStateEndpoint.FAILED);
   }
 
   @Test
   void testCreateTables() {
     // Given
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
 
     // When
-    service.setup();
+    service.setup(JOB_ID);
+
+    // Then
+    then(databaseRepository).should(times(23)).createTable(anyString(), any());
+  }
+
+  @Test
+  void testKeepTablesOfResumedJob() {
+    // Given
+    given(checkpointRepository.getCheckpoint(JOB_ID)).willReturn(
+        Optional.of(new JobCheckpoint(JOB_ID, List.of(FieldValue.of(1L)), 300L)));
+
+    // When
+    service.setup(JOB_ID);
+    service.cleanup(JOB_ID);
+
+    // Then
+    then(databaseRepository).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void testRemoveStaleCheckpoints() {
+    // Given
+    var staleJobId = UUID.fromString("5b9c2a8e-1f3d-4c6a-9e7b-2d4f6a8c0e1b");
+    given(checkpointRepository.getJobIdsUpdatedBefore(any())).willReturn(
+        List.of(staleJobId, JOB_ID));
+    given(checkpointRepository.getCheckpoint(JOB_ID)).willReturn(
+        Optional.of(new JobCheckpoint(JOB_ID, List.of(FieldValue.of(1L)), 300L)));
+
+    // When
+    service.setup(JOB_ID);
 
     // Then
-    then(databaseRepository).should(times(23)).createTable(anyString());
+    then(databaseRepository).should(times(23))
+        .dropTable(startsWith("tmp5b9c2a8e1f3d4c6a9e7b2d4f6a8c0e1b_"));
+    then(databaseRepository).shouldHaveNoMoreInteractions();
+    then(checkpointRepository).should().deleteCheckpoint(staleJobId);
+    then(checkpointRepository).should(never()).deleteCheckpoint(JOB_ID);
   }
 
   @Test
   void testDestroyTables() {
     // Given
-    given(jobProperties.getJobId()).willReturn(JOB_ID);
 
     // When
-    service.cleanup();
+    service.cleanup(JOB_ID);
 
     // Then
     then(databaseRepository).should(times(23)).dropTable(anyString());
   }
+
+  @Test
+  void testTargetFields() throws IOException {
+    // Given
+    var properties = MAPPER.readTree(new File(SPECIMEN_SCHEMA)).get("properties");
+
+    // When
+    var result = service.targetFields();
+
+    // Then
+    assertThat(result).isNotEmpty().allMatch(properties::has);
+  }
+
 }
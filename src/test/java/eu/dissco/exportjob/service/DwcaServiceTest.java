@@ -5,12 +5,14 @@ import static eu.dissco.exportjob.utils.TestUtils.DOWNLOAD_LINK;
 import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
 import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
 import static eu.dissco.exportjob.utils.TestUtils.SOURCE_SYSTEM_ID;
+import static eu.dissco.exportjob.utils.TestUtils.SPECIMEN_SCHEMA;
 import static eu.dissco.exportjob.utils.TestUtils.TEMP_FILE_NAME;
 import static eu.dissco.exportjob.utils.TestUtils.givenJobRequest;
-import static eu.dissco.exportjob.utils.TestUtils.givenMediaJson;
-import static eu.dissco.exportjob.utils.TestUtils.givenMinimalSpecimenJson;
+import static eu.dissco.exportjob.utils.TestUtils.givenMedia;
+import static eu.dissco.exportjob.utils.TestUtils.givenMinimalSpecimen;
 import static eu.dissco.exportjob.utils.TestUtils.givenSourceSystemRequest;
-import static eu.dissco.exportjob.utils.TestUtils.givenSpecimenJson;
+import static eu.dissco.exportjob.utils.TestUtils.givenSpecimen;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
@@ -19,18 +21,22 @@ import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
 
+import eu.dissco.exportjob.component.DwcaArchiveSession;
 import eu.dissco.exportjob.component.DwcaZipWriter;
+import eu.dissco.exportjob.domain.SearchPage;
 import eu.dissco.exportjob.exceptions.FailedProcessingException;
 import eu.dissco.exportjob.exceptions.S3UploadException;
 import eu.dissco.exportjob.properties.IndexProperties;
+import eu.dissco.exportjob.properties.PipelineProperties;
 import eu.dissco.exportjob.repository.ElasticSearchRepository;
 import eu.dissco.exportjob.repository.S3Repository;
+import eu.dissco.exportjob.repository.S3UploadOutputStream;
 import eu.dissco.exportjob.repository.SourceSystemRepository;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
 import eu.dissco.exportjob.web.ExporterBackendClient;
 import freemarker.template.TemplateException;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileSystems;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
@@ -58,11 +64,16 @@ class DwcaServiceTest {
   private SourceSystemRepository sourceSystemRepository;
   @Mock
   private DwcaZipWriter dwcaZipWriter;
+  @Mock
+  private DwcaArchiveSession archiveSession;
+  @Mock
+  private S3UploadOutputStream upload;
 
   @BeforeEach
   void setup() {
     service = new DwcaService(elasticSearchRepository, exporterBackendClient, s3Repository,
-        indexProperties, MAPPER, environment, sourceSystemRepository, dwcaZipWriter);
+        indexProperties, environment, sourceSystemRepository, dwcaZipWriter,
+        new PipelineProperties(), List.of());
   }
 
   @Test
@@ -70,64 +81,110 @@ class DwcaServiceTest {
       throws IOException, S3UploadException, FailedProcessingException, TemplateException {
     // Given
     var eml = "<eml></dataset><dataset><title>Test Dataset</title></dataset></eml>";
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenSpecimenJson()));
+    given(dwcaZipWriter.openSession(any())).willReturn(archiveSession);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenSpecimen()), null),
+        new SearchPage<>(List.of(), null));
     given(elasticSearchRepository.getTargetMediaById(List.of("https://doi.org/TEST/Y9H-N1L-J7G",
-        "https://doi.org/TEST/WVW-SCM-C9Z"))).willReturn(List.of(givenMediaJson()));
+        "https://doi.org/TEST/WVW-SCM-C9Z"))).willReturn(
+        Map.of("https://doi.org/TEST/WVW-SCM-C9Z", givenMedia()));
     given(environment.getActiveProfiles()).willReturn(new String[]{"dwca"});
     given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
-    given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".zip"))).willReturn(DOWNLOAD_LINK);
+    given(s3Repository.openUpload(JOB_ID, ".zip")).willReturn(upload);
+    given(upload.getUrl()).willReturn(DOWNLOAD_LINK);
     given(sourceSystemRepository.getEmlBySourceSystemId(SOURCE_SYSTEM_ID)).willReturn(eml);
-    given(dwcaZipWriter.getFileSystem()).willReturn(
-        FileSystems.newFileSystem(new File(TEMP_FILE_NAME).toPath(), Map.of("create", "true")));
+
     // When
     service.handleMessage(givenSourceSystemRequest());
 
     // Then
-    then(dwcaZipWriter).should().writeRecords(anyMap());
-    then(elasticSearchRepository).should().shutdown();
+    then(archiveSession).should().writeRecords(anyMap());
+    then(archiveSession).should().writeEml(eml);
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
-    then(dwcaZipWriter).should().close();
+    then(archiveSession).should().close(upload);
   }
 
   @Test
   void testProcessMinimalRecords()
       throws IOException, FailedProcessingException, S3UploadException, TemplateException {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenMinimalSpecimenJson()));
-    given(elasticSearchRepository.getTargetMediaById(List.of())).willReturn(List.of());
+    given(dwcaZipWriter.openSession(any())).willReturn(archiveSession);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenMinimalSpecimen()), null),
+        new SearchPage<>(List.of(), null));
     given(environment.getActiveProfiles()).willReturn(new String[]{"dwca"});
     given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
-    given(s3Repository.uploadResults(any(), eq(JOB_ID), eq(".zip"))).willReturn(DOWNLOAD_LINK);
+    given(s3Repository.openUpload(JOB_ID, ".zip")).willReturn(upload);
+    given(upload.getUrl()).willReturn(DOWNLOAD_LINK);
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(dwcaZipWriter).should().writeRecords(anyMap());
-    then(elasticSearchRepository).should().shutdown();
+    then(archiveSession).should().writeRecords(anyMap());
     then(exporterBackendClient).should().markJobAsComplete(JOB_ID, DOWNLOAD_LINK);
-    then(dwcaZipWriter).should().close();
+    then(archiveSession).should().close(upload);
   }
 
   @Test
   void testProcessRecordsTemplateException()
       throws IOException, FailedProcessingException, TemplateException {
     // Given
-    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any())).willReturn(
-        List.of(givenMinimalSpecimenJson()));
-    given(elasticSearchRepository.getTargetMediaById(List.of())).willReturn(List.of());
-    willThrow(new TemplateException(mock(freemarker.core.Environment.class))).given(dwcaZipWriter)
-        .close();
+    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(environment.getActiveProfiles()).willReturn(new String[]{"dwca"});
+    given(s3Repository.openUpload(JOB_ID, ".zip")).willReturn(upload);
+    given(dwcaZipWriter.openSession(any())).willReturn(archiveSession);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenMinimalSpecimen()), null),
+        new SearchPage<>(List.of(), null));
+    willThrow(new TemplateException(mock(freemarker.core.Environment.class))).given(archiveSession)
+        .close(upload);
+
+    // When
+    service.handleMessage(givenJobRequest());
+
+    // Then
+    then(archiveSession).should().writeRecords(anyMap());
+    then(upload).should().abort();
+    then(exporterBackendClient).should().updateJobState(JOB_ID, FAILED);
+  }
+
+  @Test
+  void testProcessRecordsUploadException()
+      throws IOException, FailedProcessingException, TemplateException {
+    // Given
+    given(indexProperties.getTempFileLocation()).willReturn(TEMP_FILE_NAME);
+    given(environment.getActiveProfiles()).willReturn(new String[]{"dwca"});
+    given(s3Repository.openUpload(JOB_ID, ".zip")).willReturn(upload);
+    given(dwcaZipWriter.openSession(any())).willReturn(archiveSession);
+    given(elasticSearchRepository.getTargetObjects(any(), any(), eq(null), any(),
+        eq(DigitalSpecimen.class))).willReturn(
+        new SearchPage<>(List.of(givenMinimalSpecimen()), null),
+        new SearchPage<>(List.of(), null));
+    willThrow(new IllegalStateException("Part upload failed")).given(archiveSession)
+        .close(upload);
 
     // When
     service.handleMessage(givenJobRequest());
 
     // Then
-    then(dwcaZipWriter).should().writeRecords(anyMap());
-    then(elasticSearchRepository).should().shutdown();
+    then(upload).should().abort();
     then(exporterBackendClient).should().updateJobState(JOB_ID, FAILED);
   }
 
-}
\ No newline at end of file
+  @Test
+  void testTargetFields() throws IOException {
+    // Given
+    var properties = MAPPER.readTree(new File(SPECIMEN_SCHEMA)).get("properties");
+
+    // When
+    var result = service.targetFields();
+
+    // Then
+    assertThat(result).isNotEmpty().allMatch(properties::has);
+  }
+
+}
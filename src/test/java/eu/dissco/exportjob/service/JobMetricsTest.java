@@ -0,0 +1,165 @@
+package eu.dissco.exportjob.service;
+
+import static eu.dissco.exportjob.utils.TestUtils.JOB_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.dissco.exportjob.domain.JobMetricsReport.MeterSnapshot;
+import eu.dissco.exportjob.domain.SearchPage;
+import eu.dissco.exportjob.service.JobMetrics.Stage;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobMetricsTest {
+
+  private SimpleMeterRegistry globalRegistry;
+  private JobMetrics metrics;
+
+  @BeforeEach
+  void setup() {
+    globalRegistry = new SimpleMeterRegistry();
+    metrics = new JobMetrics(JOB_ID, "dwca", globalRegistry);
+  }
+
+  private MeterSnapshot givenStage(String name, Stage stage) {
+    return metrics.report().meters().stream()
+        .filter(meter -> meter.name().equals(name))
+        .filter(meter -> meter.tags().get("stage").equals(stage.tagValue()))
+        .findFirst().orElseThrow();
+  }
+
+  private static SearchPage<String> givenSearchPage(int pageSize) {
+    return new SearchPage<>(Collections.nCopies(10, "result"), List.of(), 30, pageSize, 4096);
+  }
+
+  @Test
+  void testRecordStage() {
+    // When
+    metrics.record(Stage.MAP, TimeUnit.MILLISECONDS.toNanos(40), 10);
+    metrics.record(Stage.MAP, TimeUnit.MILLISECONDS.toNanos(60), 5);
+    metrics.recordBytes(Stage.UPLOAD, 2048);
+
+    // Then
+    var timer = givenStage(JobMetrics.STAGE_METRIC, Stage.MAP);
+    assertThat(timer.tags()).isEqualTo(Map.of("stage", "map", "job.type", "dwca"));
+    assertThat(timer.measurements()).containsEntry("count", 2.0)
+        .containsEntry("total", 0.1);
+    assertThat(givenStage(JobMetrics.STAGE_RECORDS_METRIC, Stage.MAP).measurements())
+        .containsEntry("count", 15.0);
+    assertThat(givenStage(JobMetrics.STAGE_BYTES_METRIC, Stage.UPLOAD).measurements())
+        .containsEntry("total", 2048.0);
+    assertThat(globalRegistry.get(JobMetrics.STAGE_METRIC).tag("stage", "map").timer()
+        .count()).isEqualTo(2);
+  }
+
+  @Test
+  void testRecordSearchPage() {
+    // When
+    metrics.recordSearchPage(TimeUnit.MILLISECONDS.toNanos(50), givenSearchPage(300));
+    metrics.recordSearchPage(TimeUnit.MILLISECONDS.toNanos(20), givenSearchPage(450));
+
+    // Then
+    assertThat(givenStage(JobMetrics.STAGE_METRIC, Stage.SEARCH).measurements())
+        .containsEntry("total", 0.05);
+    assertThat(givenStage(JobMetrics.STAGE_METRIC, Stage.DECODE).measurements())
+        .containsEntry("total", 0.02);
+    assertThat(metrics.report().meters())
+        .filteredOn(meter -> meter.name().equals(JobMetrics.PAGE_SIZE_METRIC))
+        .singleElement()
+        .satisfies(meter -> assertThat(meter.measurements()).containsEntry("count", 2.0)
+            .containsEntry("total", 750.0).containsEntry("max", 450.0));
+    assertThat(givenStage(JobMetrics.STAGE_BYTES_METRIC, Stage.DECODE).measurements())
+        .containsEntry("total", 8192.0);
+  }
+
+  @Test
+  void testReportRecords() {
+    // Given
+    metrics.recordProcessedPage(300, 1);
+    metrics.recordProcessedPage(120, 0);
+
+    // When
+    var report = metrics.report();
+
+    // Then
+    assertThat(report.jobId()).isEqualTo(JOB_ID);
+    assertThat(report.jobType()).isEqualTo("dwca");
+    assertThat(report.records()).isEqualTo(420);
+    assertThat(report.recordsPerSecond()).isPositive();
+    assertThat(globalRegistry.get(JobMetrics.QUEUE_OCCUPANCY_METRIC).summary().mean())
+        .isEqualTo(0.5);
+  }
+
+  @Test
+  void testReportProcessMeters() {
+    // Given
+    var otherJob = new JobMetrics(UUID.randomUUID(), "dwca", globalRegistry);
+    otherJob.record(Stage.MAP, TimeUnit.MILLISECONDS.toNanos(40), 10);
+    metrics.record(Stage.MAP, TimeUnit.MILLISECONDS.toNanos(60), 5);
+    globalRegistry.summary("export.elasticsearch.response.bytes").record(4096);
+
+    // When
+    var report = metrics.report();
+
+    // Then
+    assertThat(givenStage(JobMetrics.STAGE_RECORDS_METRIC, Stage.MAP).measurements())
+        .containsEntry("count", 5.0);
+    assertThat(report.processMeters())
+        .filteredOn(meter -> meter.name().equals(JobMetrics.STAGE_RECORDS_METRIC))
+        .singleElement()
+        .satisfies(meter -> assertThat(meter.measurements()).containsEntry("count", 15.0));
+    assertThat(report.processMeters()).extracting(MeterSnapshot::name)
+        .contains("export.elasticsearch.response.bytes");
+  }
+
+  @Test
+  void testNothingRetainedAfterJobs() {
+    // Given
+    var processRegistry = new SimpleMeterRegistry();
+    var compositeRegistry = new CompositeMeterRegistry().add(processRegistry);
+    var firstJob = new JobMetrics(JOB_ID, "dwca", compositeRegistry);
+    var secondJob = new JobMetrics(UUID.randomUUID(), "dwca", compositeRegistry);
+
+    // When
+    for (var job : List.of(firstJob, secondJob)) {
+      job.gaugeQueueDepth(() -> 1);
+      job.record(Stage.MAP, TimeUnit.MILLISECONDS.toNanos(40), 10);
+      job.recordProcessedPage(10, 1);
+      job.close();
+    }
+
+    // Then
+    assertThat(firstJob.report().meters()).hasSameSizeAs(secondJob.report().meters());
+    assertThat(processRegistry.getMeters()).hasSameSizeAs(firstJob.report().meters())
+        .allSatisfy(meter -> assertThat(meter.getId().getTag("job.id")).isNull());
+    assertThat(processRegistry.get(JobMetrics.RECORDS_METRIC).counter().count())
+        .isEqualTo(20);
+    assertThat(compositeRegistry.getRegistries()).containsExactly(processRegistry);
+  }
+
+  @Test
+  void testQueueDepthRemovedOnClose() {
+    // Given
+    var queuedPages = new AtomicInteger(2);
+    metrics.gaugeQueueDepth(queuedPages::get);
+
+    // When
+    var depth = globalRegistry.get(JobMetrics.QUEUE_DEPTH_METRIC)
+        .tag("job.id", JOB_ID.toString()).gauge().value();
+    metrics.close();
+
+    // Then
+    assertThat(depth).isEqualTo(2.0);
+    assertThat(globalRegistry.find(JobMetrics.QUEUE_DEPTH_METRIC).gauge()).isNull();
+    assertThat(metrics.report().meters()).extracting(MeterSnapshot::name)
+        .doesNotContain(JobMetrics.QUEUE_DEPTH_METRIC);
+  }
+
+}
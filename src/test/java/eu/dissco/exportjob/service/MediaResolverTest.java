@@ -0,0 +1,119 @@
+package eu.dissco.exportjob.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.repository.ElasticSearchRepository;
+import eu.dissco.exportjob.schema.DigitalMedia;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MediaResolverTest {
+
+  private static final String MEDIA_1 = "https://doi.org/TEST/Y9H-N1L-J7G";
+  private static final String MEDIA_2 = "https://doi.org/TEST/WVW-SCM-C9Z";
+  private static final String MEDIA_3 = "https://doi.org/TEST/8KD-T1L-PMV";
+
+  @Mock
+  private ElasticSearchRepository elasticSearchRepository;
+
+  private MediaResolver mediaResolver;
+
+  private static DigitalMedia givenMedia(String id) {
+    return new DigitalMedia().withId(id);
+  }
+
+  @BeforeEach
+  void setup() {
+    mediaResolver = new MediaResolver(elasticSearchRepository, 2, 10, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mediaResolver.close();
+  }
+
+  @Test
+  void testResolveDeduplicatedBatches() throws IOException, FailedProcessingException {
+    // Given
+    given(elasticSearchRepository.getTargetMediaById(List.of(MEDIA_1, MEDIA_2))).willReturn(
+        Map.of(MEDIA_2, givenMedia(MEDIA_2), MEDIA_1, givenMedia(MEDIA_1)));
+    given(elasticSearchRepository.getTargetMediaById(List.of(MEDIA_3))).willReturn(
+        Map.of(MEDIA_3, givenMedia(MEDIA_3)));
+
+    // When
+    var result = mediaResolver.resolve(List.of(MEDIA_1, MEDIA_2, MEDIA_1, MEDIA_3));
+
+    // Then
+    assertThat(result).containsExactly(givenMedia(MEDIA_1), givenMedia(MEDIA_2),
+        givenMedia(MEDIA_3));
+  }
+
+  @Test
+  void testResolveCached() throws IOException, FailedProcessingException {
+    // Given
+    given(elasticSearchRepository.getTargetMediaById(List.of(MEDIA_1, MEDIA_2))).willReturn(
+        Map.of(MEDIA_1, givenMedia(MEDIA_1)));
+    mediaResolver.prefetch(List.of(MEDIA_1, MEDIA_2));
+
+    // When
+    var result = mediaResolver.resolve(List.of(MEDIA_2, MEDIA_1));
+
+    // Then
+    assertThat(result).containsExactly(givenMedia(MEDIA_1));
+    then(elasticSearchRepository).should(times(1)).getTargetMediaById(List.of(MEDIA_1, MEDIA_2));
+  }
+
+  @Test
+  void testResolveFailed() throws IOException, FailedProcessingException {
+    // Given
+    given(elasticSearchRepository.getTargetMediaById(List.of(MEDIA_1)))
+        .willThrow(new IOException("Elastic unavailable"))
+        .willReturn(Map.of(MEDIA_1, givenMedia(MEDIA_1)));
+
+    // When
+    assertThrows(IOException.class, () -> mediaResolver.resolve(List.of(MEDIA_1)));
+    var result = mediaResolver.resolve(List.of(MEDIA_1));
+
+    // Then
+    assertThat(result).containsExactly(givenMedia(MEDIA_1));
+  }
+
+  @Test
+  void testResolveByDocumentId() throws IOException, FailedProcessingException {
+    // Given
+    var media = givenMedia(MEDIA_1);
+    var documentId = "TEST/Y9H-N1L-J7G";
+    given(elasticSearchRepository.getTargetMediaById(List.of(documentId))).willReturn(
+        Map.of(documentId, media));
+
+    // When
+    var result = mediaResolver.resolve(List.of(documentId));
+
+    // Then
+    assertThat(result).containsExactly(media);
+  }
+
+  @Test
+  void testResolveEmpty() throws IOException, FailedProcessingException {
+    // When
+    var result = mediaResolver.resolve(List.of());
+
+    // Then
+    assertThat(result).isEmpty();
+    then(elasticSearchRepository).shouldHaveNoInteractions();
+  }
+
+}
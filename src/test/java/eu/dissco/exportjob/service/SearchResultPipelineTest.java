@@ -0,0 +1,111 @@
+package eu.dissco.exportjob.service;
+
+import static eu.dissco.exportjob.utils.TestUtils.DOI_1;
+import static eu.dissco.exportjob.utils.TestUtils.DOI_2;
+import static eu.dissco.exportjob.utils.TestUtils.ID_FIELD;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_1;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_2;
+import static eu.dissco.exportjob.utils.TestUtils.givenDigitalSpecimen;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import eu.dissco.exportjob.domain.SearchPage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.Test;
+
+class SearchResultPipelineTest {
+
+  private static SearchPage<JsonNode> givenPage(List<JsonNode> results) {
+    return new SearchPage<>(results, results.isEmpty() ? null : List.of(FieldValue.of(
+        results.getLast().get(ID_FIELD).asText())));
+  }
+
+  @Test
+  void testNextPage() throws Exception {
+    // Given
+    var pages = new ArrayList<>(List.of(
+        givenPage(List.of(givenDigitalSpecimen(DOI_1, ORG_1, PHYS_ID_1))),
+        givenPage(List.of(givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2))),
+        givenPage(List.of())));
+    var result = new ArrayList<JsonNode>();
+    var cursors = new ArrayList<List<FieldValue>>();
+
+    // When
+    try (var pipeline = new SearchResultPipeline<>(() -> pages.removeFirst(), 1)) {
+      var page = pipeline.nextPage();
+      while (!page.results().isEmpty()) {
+        result.addAll(page.results());
+        cursors.add(page.searchAfter());
+        page = pipeline.nextPage();
+      }
+      assertThat(pipeline.nextPage().results()).isEmpty();
+    }
+
+    // Then
+    assertThat(result).isEqualTo(List.of(givenDigitalSpecimen(DOI_1, ORG_1, PHYS_ID_1),
+        givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2)));
+    assertThat(cursors).extracting(cursor -> cursor.getFirst().stringValue())
+        .containsExactly(DOI_1, DOI_2);
+  }
+
+  @Test
+  void testNextPageMultipleSuppliers() throws Exception {
+    // Given
+    var firstSlice = new ArrayList<>(List.of(
+        givenPage(List.of(givenDigitalSpecimen(DOI_1, ORG_1, PHYS_ID_1))), givenPage(List.of())));
+    var secondSlice = new ArrayList<>(List.of(
+        givenPage(List.of(givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2))), givenPage(List.of())));
+    var result = new ArrayList<JsonNode>();
+    var threadNames = new ConcurrentHashMap<String, String>();
+
+    // When
+    try (var pipeline = new SearchResultPipeline<>(
+        List.<SearchResultPipeline.PageSupplier<JsonNode>>of(() -> {
+          threadNames.put("first", Thread.currentThread().getName());
+          return firstSlice.removeFirst();
+        }, () -> {
+          threadNames.put("second", Thread.currentThread().getName());
+          return secondSlice.removeFirst();
+        }), 1)) {
+      var page = pipeline.nextPage();
+      while (!page.results().isEmpty()) {
+        result.addAll(page.results());
+        page = pipeline.nextPage();
+      }
+    }
+
+    // Then
+    assertThat(result).containsExactlyInAnyOrder(givenDigitalSpecimen(DOI_1, ORG_1, PHYS_ID_1),
+        givenDigitalSpecimen(DOI_2, ORG_1, PHYS_ID_2));
+    assertThat(threadNames).isEqualTo(Map.of("first", "search-result-producer-0",
+        "second", "search-result-producer-1"));
+  }
+
+  @Test
+  void testNextPageFailure() throws Exception {
+    // Given
+    var pages = new ArrayList<>(List.of(givenPage(List.of(givenDigitalSpecimen()))));
+    SearchResultPipeline.PageSupplier<JsonNode> pageSupplier = () -> {
+      if (pages.isEmpty()) {
+        throw new IOException("Elastic is unavailable");
+      }
+      return pages.removeFirst();
+    };
+
+    // When
+    try (var pipeline = new SearchResultPipeline<>(pageSupplier, 2)) {
+      assertThat(pipeline.nextPage().results()).isEqualTo(List.of(givenDigitalSpecimen()));
+
+      // Then
+      assertThrows(IOException.class, pipeline::nextPage);
+    }
+  }
+
+}
@@ -0,0 +1,429 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * A local stand-in for Elasticsearch which serves a {@link SyntheticCorpus}, so export jobs can be
+ * load-tested without a cluster. It implements the subset of the API used by the
+ * ElasticSearchRepository: searches with term, exists and ids queries combined in bool queries,
+ * sorting on the identifier with search_after, point in time slices sorted on _shard_doc, source
+ * filtering, counts and multi gets. The documents are generated on each request, the identifier
+ * order of the corpus is its position order, so a page is found by scanning from the cursor.
+ */
+@Slf4j
+public class ElasticsearchStub extends Dispatcher implements Closeable {
+
+  private static final String SHARD_DOC = "_shard_doc";
+  private static final String KEYWORD = ".keyword";
+  private static final int DEFAULT_SIZE = 10;
+
+  private final Map<String, DocumentSource> indices;
+  private final Map<String, Long> counts = new ConcurrentHashMap<>();
+  private final MockWebServer server = new MockWebServer();
+
+  public ElasticsearchStub(SyntheticCorpus corpus) {
+    this(corpus, new ElasticSearchProperties());
+  }
+
+  public ElasticsearchStub(SyntheticCorpus corpus, ElasticSearchProperties properties) {
+    this.indices = Map.of(
+        properties.getDigitalSpecimenIndex(),
+        new DocumentSource(corpus::getSpecimenCount, corpus::specimen, corpus::specimenPosition),
+        properties.getDigitalMediaObjectIndex(),
+        new DocumentSource(corpus::getMediaCount, corpus::media, corpus::mediaPosition));
+    server.setDispatcher(this);
+  }
+
+  /*
+   * Starts a stub with the given number of specimens and media per specimen, for example
+   * 8200 1000000 2 to serve a million specimens on port 8200
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var port = Integer.parseInt(args[0]);
+    var corpus = new SyntheticCorpus(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+    var stub = new ElasticsearchStub(corpus);
+    stub.start(port);
+    log.info("Serving {} specimens and {} media on port {}", corpus.getSpecimenCount(),
+        corpus.getMediaCount(), port);
+    Thread.currentThread().join();
+  }
+
+  public void start() throws IOException {
+    server.start();
+  }
+
+  public void start(int port) throws IOException {
+    server.start(port);
+  }
+
+  public String getHostName() {
+    return server.getHostName();
+  }
+
+  public int getPort() {
+    return server.getPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    server.shutdown();
+  }
+
+  @Override
+  public MockResponse dispatch(RecordedRequest request) {
+    var segments = request.getRequestUrl().pathSegments().stream()
+        .filter(segment -> !segment.isEmpty())
+        .toList();
+    var method = request.getMethod();
+    try {
+      var body = request.getBodySize() > 0 ? MAPPER.readTree(request.getBody().readUtf8())
+          : MAPPER.createObjectNode();
+      if (segments.equals(List.of("_pit")) && "DELETE".equals(method)) {
+        return respond(200, MAPPER.createObjectNode().put("succeeded", true).put("num_freed", 1));
+      }
+      var endpoint = segments.isEmpty() ? "" : segments.getLast();
+      var index = segments.size() == 2 ? segments.getFirst() : null;
+      return switch (endpoint) {
+        case "_search" -> search(index, body);
+        case "_count" -> count(index, body);
+        case "_pit" -> openPointInTime(index);
+        case "_mget" -> multiGet(index, body);
+        default -> error(404, "Unsupported endpoint " + method + " " + request.getPath());
+      };
+    } catch (UnknownIndexException e) {
+      return error(404, e.getMessage());
+    } catch (IOException | IllegalArgumentException e) {
+      return error(400, e.getMessage());
+    }
+  }
+
+  private MockResponse search(String pathIndex, JsonNode body) throws UnknownIndexException {
+    var pit = body.path("pit");
+    var index = pit.isMissingNode() ? pathIndex
+        : new String(Base64.getDecoder().decode(pit.get("id").asText()), StandardCharsets.UTF_8);
+    var source = getSource(index);
+    var query = body.path("query");
+    var size = body.path("size").asInt(DEFAULT_SIZE);
+    var sort = Sort.of(body.path("sort"));
+    var slice = body.path("slice");
+    var sliceId = slice.path("id").asInt(0);
+    var sliceMax = slice.path("max").asInt(1);
+    var includes = sourceIncludes(body.path("_source"));
+    var position = startPosition(source, sort, body.path("search_after"));
+    var hits = MAPPER.createArrayNode();
+    while (hits.size() < size && position >= 0 && position < source.size().getAsInt()) {
+      if (position % sliceMax == sliceId) {
+        var document = source.document().apply(position);
+        if (matches(query, document)) {
+          hits.add(toHit(index, document, includes, sort, position));
+        }
+      }
+      position += sort.descending() ? -1 : 1;
+    }
+    var response = MAPPER.createObjectNode()
+        .put("took", 1)
+        .put("timed_out", false);
+    response.set("_shards", shards());
+    response.putObject("hits").set("hits", hits);
+    return respond(200, response);
+  }
+
+  private static int startPosition(DocumentSource source, Sort sort, JsonNode searchAfter) {
+    if (searchAfter.isMissingNode() || searchAfter.isEmpty()) {
+      return sort.descending() ? source.size().getAsInt() - 1 : 0;
+    }
+    var cursor = searchAfter.get(0);
+    var position = sort.onShardDoc() ? cursor.asInt()
+        : source.position().apply(cursor.asText()).orElseThrow(
+            () -> new IllegalArgumentException("Unknown search_after " + cursor));
+    return sort.descending() ? position - 1 : position + 1;
+  }
+
+  private static ObjectNode toHit(String index, JsonNode document, List<String> includes,
+      Sort sort, int position) {
+    var id = document.get("dcterms:identifier").asText();
+    var hit = MAPPER.createObjectNode()
+        .put("_index", index)
+        .put("_id", id)
+        .putNull("_score");
+    hit.set("_source", filterSource(document, includes));
+    var sortValues = hit.putArray("sort");
+    if (sort.onShardDoc()) {
+      sortValues.add(position);
+    } else {
+      sortValues.add(id);
+    }
+    return hit;
+  }
+
+  private MockResponse count(String index, JsonNode body) throws UnknownIndexException {
+    var source = getSource(index);
+    var query = body.path("query");
+    var count = counts.computeIfAbsent(index + query, key -> {
+      var matching = 0L;
+      for (int i = 0; i < source.size().getAsInt(); i++) {
+        if (matches(query, source.document().apply(i))) {
+          matching++;
+        }
+      }
+      return matching;
+    });
+    var response = MAPPER.createObjectNode().put("count", count);
+    response.set("_shards", shards());
+    return respond(200, response);
+  }
+
+  /*
+   * The point in time id is the encoded index name, the corpus never changes so the point in time
+   * does not need to hold any state
+   */
+  private MockResponse openPointInTime(String index) throws UnknownIndexException {
+    getSource(index);
+    var response = MAPPER.createObjectNode()
+        .put("id", Base64.getEncoder().encodeToString(index.getBytes(StandardCharsets.UTF_8)));
+    response.set("_shards", shards());
+    return respond(200, response);
+  }
+
+  private MockResponse multiGet(String index, JsonNode body) throws UnknownIndexException {
+    var source = getSource(index);
+    var response = MAPPER.createObjectNode();
+    var docs = response.putArray("docs");
+    for (var id : body.path("ids")) {
+      var doc = docs.addObject()
+          .put("_index", index)
+          .put("_id", id.asText());
+      var position = source.position().apply(id.asText());
+      if (position.isPresent()) {
+        doc.put("_version", 1)
+            .put("_seq_no", 0)
+            .put("_primary_term", 1)
+            .put("found", true)
+            .set("_source", source.document().apply(position.get()));
+      } else {
+        doc.put("found", false);
+      }
+    }
+    return respond(200, response);
+  }
+
+  private DocumentSource getSource(String index) throws UnknownIndexException {
+    var source = index == null ? null : indices.get(index);
+    if (source == null) {
+      throw new UnknownIndexException(index);
+    }
+    return source;
+  }
+
+  private static boolean matches(JsonNode query, JsonNode document) {
+    if (query.isMissingNode() || query.isEmpty()) {
+      return true;
+    }
+    var type = query.fieldNames().next();
+    var clause = query.get(type);
+    return switch (type) {
+      case "match_all" -> true;
+      case "bool" -> allMatch(clause.path("must"), document)
+          && allMatch(clause.path("filter"), document)
+          && noneMatch(clause.path("must_not"), document);
+      case "term" -> matchesTerm(clause, document);
+      case "exists" -> !values(document, clause.get("field").asText()).isEmpty();
+      case "ids" -> matchesIds(clause, document);
+      default -> throw new IllegalArgumentException("Unsupported query " + type);
+    };
+  }
+
+  private static boolean allMatch(JsonNode queries, JsonNode document) {
+    for (var query : asList(queries)) {
+      if (!matches(query, document)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean noneMatch(JsonNode queries, JsonNode document) {
+    for (var query : asList(queries)) {
+      if (matches(query, document)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<JsonNode> asList(JsonNode queries) {
+    var list = new ArrayList<JsonNode>();
+    if (queries.isArray()) {
+      queries.forEach(list::add);
+    } else if (!queries.isMissingNode()) {
+      list.add(queries);
+    }
+    return list;
+  }
+
+  private static boolean matchesTerm(JsonNode clause, JsonNode document) {
+    var field = clause.fieldNames().next();
+    var term = clause.get(field);
+    var value = term.isObject() ? term.get("value").asText() : term.asText();
+    var caseInsensitive = term.path("case_insensitive").asBoolean(false);
+    for (var documentValue : values(document, field)) {
+      var text = documentValue.asText();
+      if (caseInsensitive ? text.equalsIgnoreCase(value) : text.equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matchesIds(JsonNode clause, JsonNode document) {
+    var id = document.get("dcterms:identifier").asText();
+    for (var value : clause.path("values")) {
+      if (value.asText().equals(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Collects the values of a dotted field path, arrays on the path are flattened like
+   * Elasticsearch flattens them in its index
+   */
+  private static List<JsonNode> values(JsonNode document, String field) {
+    var path = field.endsWith(KEYWORD) ? field.substring(0, field.length() - KEYWORD.length())
+        : field;
+    var nodes = List.of(document);
+    for (var name : path.split("\\.")) {
+      var next = new ArrayList<JsonNode>();
+      for (var node : nodes) {
+        addFlattened(node.get(name), next);
+      }
+      nodes = next;
+    }
+    return nodes;
+  }
+
+  private static void addFlattened(JsonNode node, List<JsonNode> values) {
+    if (node == null || node.isNull()) {
+      return;
+    }
+    if (node.isArray()) {
+      node.forEach(element -> addFlattened(element, values));
+    } else {
+      values.add(node);
+    }
+  }
+
+  private static List<String> sourceIncludes(JsonNode sourceConfig) {
+    var includes = sourceConfig.isArray() ? sourceConfig : sourceConfig.path("includes");
+    var fields = new ArrayList<String>();
+    includes.forEach(include -> fields.add(include.asText()));
+    return fields;
+  }
+
+  /*
+   * Keeps only the included fields of the document, nested fields are included with a dotted path
+   */
+  private static JsonNode filterSource(JsonNode document, List<String> includes) {
+    if (includes.isEmpty()) {
+      return document;
+    }
+    var filtered = MAPPER.createObjectNode();
+    for (var include : includes) {
+      copyPath(document, filtered, include.split("\\."), 0);
+    }
+    return filtered;
+  }
+
+  private static void copyPath(JsonNode source, ObjectNode target, String[] path, int depth) {
+    var value = source.get(path[depth]);
+    if (value == null) {
+      return;
+    }
+    if (depth == path.length - 1 || !value.isObject()) {
+      target.set(path[depth], value);
+    } else {
+      var child = target.has(path[depth]) ? (ObjectNode) target.get(path[depth])
+          : target.putObject(path[depth]);
+      copyPath(value, child, path, depth + 1);
+    }
+  }
+
+  private static ObjectNode shards() {
+    return MAPPER.createObjectNode()
+        .put("total", 1)
+        .put("successful", 1)
+        .put("skipped", 0)
+        .put("failed", 0);
+  }
+
+  private static MockResponse error(int status, String reason) {
+    var response = MAPPER.createObjectNode();
+    var error = response.putObject("error");
+    error.putArray("root_cause");
+    error.put("type", status == 404 ? "index_not_found_exception" : "parsing_exception")
+        .put("reason", reason);
+    response.put("status", status);
+    return respond(status, response);
+  }
+
+  private static MockResponse respond(int status, JsonNode body) {
+    return new MockResponse()
+        .setResponseCode(status)
+        .addHeader("Content-Type", "application/json")
+        .addHeader("X-Elastic-Product", "Elasticsearch")
+        .setBody(body.toString());
+  }
+
+  private record DocumentSource(IntSupplier size, IntFunction<ObjectNode> document,
+                                Function<String, Optional<Integer>> position) {
+
+  }
+
+  /*
+   * Only the sort of the repository is supported: the identifier descending or _shard_doc
+   * ascending
+   */
+  private record Sort(boolean onShardDoc, boolean descending) {
+
+    static Sort of(JsonNode sort) {
+      var first = sort.isArray() ? sort.path(0) : sort;
+      if (first.isMissingNode()) {
+        return new Sort(false, false);
+      }
+      var field = first.isTextual() ? first.asText() : first.fieldNames().next();
+      var order = first.path(field).path("order").asText("asc");
+      return new Sort(SHARD_DOC.equals(field), "desc".equals(order));
+    }
+  }
+
+  private static class UnknownIndexException extends Exception {
+
+    UnknownIndexException(String index) {
+      super("No such index [" + index + "]");
+    }
+  }
+
+}
@@ -0,0 +1,190 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.ID_FIELD;
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_FIELD_NAME;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_FIELD;
+import static eu.dissco.exportjob.utils.TestUtils.givenSearchParams;
+import static eu.dissco.exportjob.utils.TestUtils.givenTargetFields;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import eu.dissco.exportjob.configuration.ElasticSearchConfiguration;
+import eu.dissco.exportjob.domain.SearchParam;
+import eu.dissco.exportjob.domain.TargetType;
+import eu.dissco.exportjob.properties.ElasticSearchProperties;
+import eu.dissco.exportjob.repository.ElasticSearchRepository;
+import eu.dissco.exportjob.repository.ElasticsearchResponseSizes;
+import eu.dissco.exportjob.schema.DigitalMedia;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ElasticsearchStubTest {
+
+  private static final int SPECIMEN_COUNT = 25;
+  private static final int MEDIA_PER_SPECIMEN = 2;
+
+  private final ElasticSearchProperties properties = new ElasticSearchProperties();
+  private SyntheticCorpus corpus;
+  private ElasticsearchStub stub;
+  private ElasticSearchRepository repository;
+
+  @BeforeEach
+  void setup() throws IOException {
+    corpus = new SyntheticCorpus(SPECIMEN_COUNT, MEDIA_PER_SPECIMEN);
+    stub = new ElasticsearchStub(corpus, properties);
+    stub.start();
+    properties.setHostname(stub.getHostName());
+    properties.setPort(stub.getPort());
+    properties.setUsername("elastic");
+    properties.setPassword("s3cret");
+    properties.setPageSize(10);
+    properties.setAdaptivePageSize(false);
+    var responseSizes = new ElasticsearchResponseSizes();
+    var client = new ElasticSearchConfiguration(properties, MAPPER, responseSizes)
+        .elasticsearchClient();
+    repository = new ElasticSearchRepository(client, properties, responseSizes);
+  }
+
+  @AfterEach
+  void destroy() throws IOException {
+    stub.close();
+  }
+
+  private List<String> retrieveAll(List<SearchParam> searchParams, TargetType targetType)
+      throws IOException {
+    var ids = new ArrayList<String>();
+    List<FieldValue> searchAfter = null;
+    while (true) {
+      var page = repository.getTargetObjects(searchParams, targetType, searchAfter,
+          List.of(ID_FIELD), JsonNode.class);
+      if (page.results().isEmpty()) {
+        return ids;
+      }
+      page.results().forEach(result -> ids.add(result.get(ID_FIELD).asText()));
+      searchAfter = page.searchAfter();
+    }
+  }
+
+  @Test
+  void testGetTargetObjectsPaged() throws IOException {
+    // Given
+    var expected = new ArrayList<String>();
+    for (int i = SPECIMEN_COUNT - 1; i >= 0; i--) {
+      expected.add(SyntheticCorpus.specimenId(i));
+    }
+
+    // When
+    var result = retrieveAll(List.of(), TargetType.DIGITAL_SPECIMEN);
+
+    // Then
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @Test
+  void testGetTargetObjectsTerm() throws IOException {
+    // Given
+    var expected = new ArrayList<String>();
+    for (int i = SPECIMEN_COUNT - 1; i >= 0; i--) {
+      if (corpus.specimen(i).get("ods:organisationID").asText().equals(ORG_1)) {
+        expected.add(SyntheticCorpus.specimenId(i));
+      }
+    }
+
+    // When
+    var result = retrieveAll(givenSearchParams(), TargetType.DIGITAL_SPECIMEN);
+    var count = repository.countTargetObjects(givenSearchParams(),
+        TargetType.DIGITAL_SPECIMEN);
+
+    // Then
+    assertThat(result).isNotEmpty().isEqualTo(expected);
+    assertThat(count).isEqualTo(expected.size());
+  }
+
+  @Test
+  void testGetTargetObjectsMissingField() throws IOException {
+    // Given
+    var searchParams = List.of(new SearchParam("$['dwc:recordNumber']", null));
+    var excluded = List.of(new SearchParam(ORG_FIELD_NAME, null));
+
+    // When
+    var count = repository.countTargetObjects(searchParams, TargetType.DIGITAL_SPECIMEN);
+    var excludedCount = repository.countTargetObjects(excluded, TargetType.DIGITAL_SPECIMEN);
+
+    // Then
+    assertThat(count).isEqualTo(SPECIMEN_COUNT);
+    assertThat(excludedCount).isZero();
+  }
+
+  @Test
+  void testGetTargetObjectsSourceFiltering() throws IOException {
+    // When
+    var result = repository.getTargetObjects(List.of(), TargetType.DIGITAL_SPECIMEN, null,
+        givenTargetFields(), JsonNode.class);
+
+    // Then
+    assertThat(result.results()).hasSize(10).allSatisfy(specimen -> assertThat(
+        specimen.properties()).extracting(Entry::getKey)
+        .containsExactlyInAnyOrder(ID_FIELD, PHYS_ID_FIELD));
+  }
+
+  @Test
+  void testGetTargetObjectsResponseBytes() throws IOException {
+    // When
+    var result = repository.getTargetObjects(List.of(), TargetType.DIGITAL_SPECIMEN, null,
+        givenTargetFields(), JsonNode.class);
+
+    // Then
+    assertThat(result.responseBytes()).isPositive();
+    assertThat(result.pageSize()).isEqualTo(10);
+  }
+
+  @Test
+  void testGetTargetObjectsSlices() throws IOException {
+    // Given
+    var pitId = repository.openPointInTime(TargetType.DIGITAL_MEDIA);
+    var ids = new ArrayList<String>();
+
+    // When
+    for (int slice = 0; slice < 3; slice++) {
+      List<FieldValue> searchAfter = null;
+      while (true) {
+        var page = repository.getTargetObjectsSlice(List.of(), pitId, slice, 3, searchAfter,
+            null, JsonNode.class);
+        if (page.results().isEmpty()) {
+          break;
+        }
+        page.results().forEach(result -> ids.add(result.get(ID_FIELD).asText()));
+        searchAfter = page.searchAfter();
+      }
+    }
+    repository.closePointInTime(pitId);
+
+    // Then
+    assertThat(ids).hasSize(SPECIMEN_COUNT * MEDIA_PER_SPECIMEN).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void testGetTargetMediaById() throws IOException {
+    // Given
+    var mediaIds = List.of(SyntheticCorpus.mediaId(3, 1), "https://doi.org/TEST/UNKNOWN",
+        SyntheticCorpus.mediaId(0, 0));
+
+    // When
+    var result = repository.getTargetMediaById(mediaIds);
+
+    // Then
+    assertThat(result).containsOnlyKeys(mediaIds.get(0), mediaIds.get(2));
+    assertThat(result.values()).containsExactly(
+        MAPPER.treeToValue(corpus.media(3 * MEDIA_PER_SPECIMEN + 1), DigitalMedia.class),
+        MAPPER.treeToValue(corpus.media(0), DigitalMedia.class));
+  }
+
+}
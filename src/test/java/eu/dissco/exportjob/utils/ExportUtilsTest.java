@@ -1,11 +1,8 @@
 package eu.dissco.exportjob.utils;
 
-
-import static eu.dissco.exportjob.service.DwcaService.EVENT_FUNCTIONS;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
-import eu.dissco.exportjob.exceptions.FailedProcessingException;
+import eu.dissco.exportjob.domain.DwcaRowSchema;
 import eu.dissco.exportjob.schema.Agent;
 import eu.dissco.exportjob.schema.Citation;
 import eu.dissco.exportjob.schema.DigitalSpecimen;
@@ -13,7 +10,11 @@ import eu.dissco.exportjob.schema.Event;
 import eu.dissco.exportjob.schema.Identifier;
 import eu.dissco.exportjob.schema.OdsHasRole;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import org.apache.commons.lang3.tuple.Pair;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -53,18 +54,12 @@ class ExportUtilsTest {
     return List.of(agent1, agent2);
   }
 
-  private static Stream<Arguments> sourceRetrieveTerm() {
+  private static Stream<Arguments> sourceMapTerms() {
     return Stream.of(
-        Arguments.of(
-            new DigitalSpecimen().withOdsHasEvents(List.of(new Event().withDwcSex("female"))),
-            "getDwcSex", "female"),
-        Arguments.of(new DigitalSpecimen(), "getDwcSex", null),
-        Arguments.of(
-            new DigitalSpecimen().withOdsHasEvents(List.of(new Event())), "getDwcSex", null),
-        Arguments.of(
-            new DigitalSpecimen().withOdsHasEvents(List.of(new Event().withDwcYear(1990))),
-            "getDwcYear",
-            "1990")
+        Arguments.of(new Event().withDwcSex("female").withDwcYear(1990),
+            new String[]{"female", "1990"}),
+        Arguments.of(new Event(), new String[]{null, null}),
+        Arguments.of(null, new String[]{null, null})
     );
   }
 
@@ -175,26 +170,18 @@ class ExportUtilsTest {
   }
 
   @ParameterizedTest
-  @MethodSource("sourceRetrieveTerm")
-  void testRetrieveTerm(DigitalSpecimen digitalSpecimen, String methodName, String expected)
-      throws FailedProcessingException {
+  @MethodSource("sourceMapTerms")
+  void testMapTerms(Event event, String[] expected) {
     // Given
+    List<Pair<Term, Function<Event, Object>>> terms = List.of(
+        Pair.of(DwcTerm.sex, Event::getDwcSex), Pair.of(DwcTerm.year, Event::getDwcYear));
+    var termRecord = new DwcaRowSchema(DwcTerm.Event, List.of(DwcTerm.sex, DwcTerm.year)).newRow();
 
     // When
-    var result = ExportUtils.retrieveTerm(digitalSpecimen, EVENT_FUNCTIONS, methodName);
+    ExportUtils.mapTerms(event, terms, termRecord);
 
     // Then
-    assertThat(result).isEqualTo(expected);
-  }
-
-  @Test
-  void testRetrieveTermException() {
-    // Given
-
-    // When / Then
-    assertThrows(FailedProcessingException.class,
-        () -> ExportUtils.retrieveTerm(new DigitalSpecimen().withOdsHasEvents(List.of(new Event())),
-            EVENT_FUNCTIONS, "unknownMethod"));
+    assertThat(termRecord.getValues()).isEqualTo(expected);
   }
 
   @ParameterizedTest
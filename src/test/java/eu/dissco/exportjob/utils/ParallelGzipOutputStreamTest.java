@@ -0,0 +1,91 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.DOI_1;
+import static eu.dissco.exportjob.utils.TestUtils.PHYS_ID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class ParallelGzipOutputStreamTest {
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private static byte[] givenCsv(int rows) {
+    var random = new Random(42);
+    var csv = new StringBuilder("dcterms:identifier,ods:physicalSpecimenID");
+    for (int i = 0; i < rows; i++) {
+      csv.append('\n').append(DOI_1).append(i).append(',').append(PHYS_ID_1)
+          .append(random.nextInt(1000));
+    }
+    return csv.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testMultipleBlocks() throws IOException {
+    // Given
+    var expected = givenCsv(100000);
+    var outputStream = new ByteArrayOutputStream();
+
+    // When
+    try (var gzipStream = new ParallelGzipOutputStream(outputStream, 4)) {
+      for (int offset = 0; offset < expected.length; offset += 1000) {
+        gzipStream.write(expected, offset, Math.min(1000, expected.length - offset));
+      }
+    }
+
+    // Then
+    assertThat(outputStream.size()).isLessThan(expected.length / 4);
+    assertThat(decompress(outputStream.toByteArray())).isEqualTo(expected);
+  }
+
+  @Test
+  void testSingleBytes() throws IOException {
+    // Given
+    var expected = givenCsv(10);
+    var outputStream = new ByteArrayOutputStream();
+
+    // When
+    try (var gzipStream = new ParallelGzipOutputStream(outputStream, 2)) {
+      for (var b : expected) {
+        gzipStream.write(b);
+      }
+    }
+
+    // Then
+    assertThat(decompress(outputStream.toByteArray())).isEqualTo(expected);
+  }
+
+  @Test
+  void testEmpty() throws IOException {
+    // Given
+    var outputStream = new ByteArrayOutputStream();
+
+    // When
+    new ParallelGzipOutputStream(outputStream, 1).close();
+
+    // Then
+    assertThat(decompress(outputStream.toByteArray())).isEmpty();
+  }
+
+  @Test
+  void testWriteAfterClose() throws IOException {
+    // Given
+    var gzipStream = new ParallelGzipOutputStream(new ByteArrayOutputStream(), 1);
+    gzipStream.close();
+
+    // When / Then
+    assertThrows(IOException.class, () -> gzipStream.write(1));
+  }
+
+}
@@ -0,0 +1,179 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_1;
+import static eu.dissco.exportjob.utils.TestUtils.ORG_2;
+import static eu.dissco.exportjob.utils.TestUtils.SPECIMEN_SCHEMA;
+import static eu.dissco.exportjob.utils.TestUtils.givenMediaJson;
+import static eu.dissco.exportjob.utils.TestUtils.givenSpecimenJson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * A deterministic corpus of synthetic digital specimens and their media for load tests. The
+ * documents are generated on request from their position, so a corpus of millions of specimens
+ * does not need to be held in memory, and the same position always gives the same document. Each
+ * specimen is a copy of the specimen of {@link TestUtils}, with its own identifiers, organisation
+ * and media. The enumerated properties listed in {@link #VARIED_ENUMS} cycle through the values
+ * allowed by {@code json-schema/digital-specimen.json}, so all documents stay valid against the
+ * schema.
+ */
+public class SyntheticCorpus {
+
+  public static final String SPECIMEN_PREFIX = "https://doi.org/SYNTH/S";
+  public static final String MEDIA_PREFIX = "https://doi.org/SYNTH/M";
+  static final List<String> ORGANISATIONS = List.of(ORG_1, ORG_2, "https://ror.org/039zvsn29",
+      "https://ror.org/01tv5y993");
+  static final List<String> VARIED_ENUMS = List.of("ods:topicDiscipline",
+      "ods:livingOrPreserved", "ods:physicalSpecimenIDType");
+  private static final Pattern SPECIMEN_ID = Pattern.compile(
+      Pattern.quote(SPECIMEN_PREFIX) + "(\\d{9})");
+  private static final Pattern MEDIA_ID = Pattern.compile(
+      Pattern.quote(MEDIA_PREFIX) + "(\\d{9})-(\\d{3})");
+  private static final int MAX_MEDIA_PER_SPECIMEN = 999;
+  private static final String HAS_DIGITAL_MEDIA = "hasDigitalMedia";
+  private static final String RELATIONSHIPS = "ods:hasEntityRelationships";
+
+  private final int specimenCount;
+  private final int mediaPerSpecimen;
+  private final ObjectNode specimenTemplate;
+  private final ObjectNode mediaRelationshipTemplate;
+  private final ObjectNode mediaTemplate;
+  private final Map<String, List<JsonNode>> enumValues;
+
+  public SyntheticCorpus(int specimenCount, int mediaPerSpecimen) throws IOException {
+    if (mediaPerSpecimen < 0 || mediaPerSpecimen > MAX_MEDIA_PER_SPECIMEN) {
+      throw new IllegalArgumentException(
+          "Media per specimen must be between 0 and " + MAX_MEDIA_PER_SPECIMEN);
+    }
+    this.specimenCount = specimenCount;
+    this.mediaPerSpecimen = mediaPerSpecimen;
+    this.specimenTemplate = (ObjectNode) givenSpecimenJson();
+    var relationships = (ArrayNode) specimenTemplate.get(RELATIONSHIPS);
+    this.mediaRelationshipTemplate = (ObjectNode) findMediaRelationship(relationships).deepCopy();
+    relationships.removeIf(this::isMediaRelationship);
+    this.mediaTemplate = (ObjectNode) givenMediaJson();
+    this.enumValues = readEnumValues();
+  }
+
+  private static Map<String, List<JsonNode>> readEnumValues() throws IOException {
+    var properties = MAPPER.readTree(new File(SPECIMEN_SCHEMA)).get("properties");
+    var values = new LinkedHashMap<String, List<JsonNode>>();
+    for (var field : VARIED_ENUMS) {
+      var enumValues = new ArrayList<JsonNode>();
+      properties.get(field).get("enum").forEach(enumValues::add);
+      values.put(field, enumValues);
+    }
+    return values;
+  }
+
+  public static String specimenId(int index) {
+    return SPECIMEN_PREFIX + "%09d".formatted(index);
+  }
+
+  public static String mediaId(int specimenIndex, int mediaIndex) {
+    return MEDIA_PREFIX + "%09d-%03d".formatted(specimenIndex, mediaIndex);
+  }
+
+  private JsonNode findMediaRelationship(ArrayNode relationships) {
+    for (var relationship : relationships) {
+      if (isMediaRelationship(relationship)) {
+        return relationship;
+      }
+    }
+    throw new IllegalStateException("Specimen template has no media relationship");
+  }
+
+  private boolean isMediaRelationship(JsonNode relationship) {
+    return HAS_DIGITAL_MEDIA.equals(relationship.path("dwc:relationshipOfResource").asText());
+  }
+
+  public int getSpecimenCount() {
+    return specimenCount;
+  }
+
+  public int getMediaCount() {
+    return specimenCount * mediaPerSpecimen;
+  }
+
+  public ObjectNode specimen(int index) {
+    var id = specimenId(index);
+    var physicalId = "SYNTH.%09d".formatted(index);
+    var organisation = ORGANISATIONS.get(index % ORGANISATIONS.size());
+    var specimen = specimenTemplate.deepCopy();
+    specimen.put("@id", id);
+    specimen.put("dcterms:identifier", id);
+    specimen.put("ods:physicalSpecimenID", physicalId);
+    specimen.put("ods:normalisedPhysicalSpecimenID", physicalId);
+    specimen.put("ods:organisationID", organisation);
+    for (var enumValue : enumValues.entrySet()) {
+      var values = enumValue.getValue();
+      specimen.set(enumValue.getKey(), values.get(index % values.size()));
+    }
+    var relationships = (ArrayNode) specimen.get(RELATIONSHIPS);
+    for (int i = 0; i < mediaPerSpecimen; i++) {
+      var mediaId = mediaId(index, i);
+      var relationship = mediaRelationshipTemplate.deepCopy();
+      relationship.put("dwc:relatedResourceID", mediaId.substring("https://doi.org/".length()));
+      relationship.put("ods:relatedResourceURI", mediaId);
+      relationships.add(relationship);
+    }
+    return specimen;
+  }
+
+  /*
+   * The media are numbered per specimen, media position i is media i % mediaPerSpecimen of
+   * specimen i / mediaPerSpecimen. The ids are zero-padded, so ordering the media by id orders
+   * them by position.
+   */
+  public ObjectNode media(int position) {
+    var specimenIndex = position / mediaPerSpecimen;
+    var id = mediaId(specimenIndex, position % mediaPerSpecimen);
+    var media = mediaTemplate.deepCopy();
+    media.put("@id", id);
+    media.put("dcterms:identifier", id);
+    media.put("ac:accessURI", "https://media.synthetic.org/" + id.substring(MEDIA_PREFIX.length())
+        + ".jpg");
+    media.put("ods:organisationID", ORGANISATIONS.get(specimenIndex % ORGANISATIONS.size()));
+    return media;
+  }
+
+  /*
+   * The position of a specimen in the corpus, empty when the id is not part of it
+   */
+  public Optional<Integer> specimenPosition(String id) {
+    var matcher = SPECIMEN_ID.matcher(id);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    var index = Integer.parseInt(matcher.group(1));
+    return index < specimenCount ? Optional.of(index) : Optional.empty();
+  }
+
+  /*
+   * The position of a media in the corpus, empty when the id is not part of it
+   */
+  public Optional<Integer> mediaPosition(String id) {
+    var matcher = MEDIA_ID.matcher(id);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    var specimenIndex = Integer.parseInt(matcher.group(1));
+    var mediaIndex = Integer.parseInt(matcher.group(2));
+    if (specimenIndex >= specimenCount || mediaIndex >= mediaPerSpecimen) {
+      return Optional.empty();
+    }
+    return Optional.of(specimenIndex * mediaPerSpecimen + mediaIndex);
+  }
+
+}
@@ -0,0 +1,82 @@
+package eu.dissco.exportjob.utils;
+
+import static eu.dissco.exportjob.utils.TestUtils.MAPPER;
+import static eu.dissco.exportjob.utils.TestUtils.SPECIMEN_SCHEMA;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import eu.dissco.exportjob.schema.DigitalSpecimen;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SyntheticCorpusTest {
+
+  @Test
+  void testSpecimenDeterministic() throws IOException {
+    // Given
+    var corpus = new SyntheticCorpus(1000, 2);
+
+    // When
+    var first = corpus.specimen(512);
+    var second = new SyntheticCorpus(1000, 2).specimen(512);
+
+    // Then
+    assertThat(first).isEqualTo(second).isNotEqualTo(corpus.specimen(513));
+    assertThat(first.get("dcterms:identifier").asText()).isEqualTo(
+        SyntheticCorpus.specimenId(512));
+  }
+
+  @Test
+  void testSpecimenValidAgainstSchema() throws IOException {
+    // Given
+    var schema = MAPPER.readTree(new File(SPECIMEN_SCHEMA));
+    var corpus = new SyntheticCorpus(20, 1);
+
+    // When
+    var specimens = IntStream.range(0, 20).mapToObj(corpus::specimen).toList();
+
+    // Then
+    assertThat(specimens).allSatisfy(specimen -> {
+      schema.get("required").forEach(field -> assertThat(specimen.has(field.asText())).isTrue());
+      specimen.fieldNames().forEachRemaining(
+          field -> assertThat(schema.get("properties").has(field)).isTrue());
+      SyntheticCorpus.VARIED_ENUMS.forEach(field -> assertThat(
+          schema.get("properties").get(field).get("enum")).contains(specimen.get(field)));
+    });
+    assertThat(specimens).extracting(specimen -> specimen.get("ods:topicDiscipline"))
+        .hasSameElementsAs(schema.get("properties").get("ods:topicDiscipline").get("enum"));
+  }
+
+  @Test
+  void testSpecimenMedia() throws IOException {
+    // Given
+    var corpus = new SyntheticCorpus(10, 3);
+    var specimen = MAPPER.treeToValue(corpus.specimen(7), DigitalSpecimen.class);
+
+    // When
+    var mediaIds = ExportUtils.getMediaIds(List.of(specimen));
+
+    // Then
+    assertThat(mediaIds).containsExactly(SyntheticCorpus.mediaId(7, 0),
+        SyntheticCorpus.mediaId(7, 1), SyntheticCorpus.mediaId(7, 2));
+    assertThat(mediaIds).allSatisfy(mediaId -> assertThat(
+        corpus.media(corpus.mediaPosition(mediaId).orElseThrow()).get("@id").asText())
+        .isEqualTo(mediaId));
+  }
+
+  @Test
+  void testPositionUnknown() throws IOException {
+    // Given
+    var corpus = new SyntheticCorpus(10, 3);
+
+    // When / Then
+    assertThat(corpus.specimenPosition(SyntheticCorpus.specimenId(10))).isEmpty();
+    assertThat(corpus.specimenPosition("https://doi.org/TEST/W4K-QC6-5H5")).isEmpty();
+    assertThat(corpus.mediaPosition(SyntheticCorpus.mediaId(2, 3))).isEmpty();
+    assertThat(corpus.specimenPosition(SyntheticCorpus.specimenId(9))).isEqualTo(Optional.of(9));
+  }
+
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.dissco.exportjob.domain.JobRequest;
 import eu.dissco.exportjob.domain.SearchParam;
 import eu.dissco.exportjob.domain.TargetType;
+import eu.dissco.exportjob.schema.DigitalMedia;
+import eu.dissco.exportjob.schema.DigitalSpecimen;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,6 +32,7 @@ public class TestUtils {
   public static final String PHYS_ID_FIELD = "ods:physicalSpecimenID";
   public static final String SOURCE_SYSTEM_ID = "https://hdl.handle.net/TEST/Z1M-8WG-DCD";
   public static final String TEMP_FILE_NAME = "src/test/resources/tmp.zip";
+  public static final String SPECIMEN_SCHEMA = "src/main/resources/json-schema/digital-specimen.json";
 
 
   public static JobRequest givenJobRequest() {
@@ -84,6 +87,18 @@ public class TestUtils {
     return List.of(ID_FIELD, PHYS_ID_FIELD);
   }
 
+  public static DigitalSpecimen givenSpecimen() throws JsonProcessingException {
+    return MAPPER.treeToValue(givenSpecimenJson(), DigitalSpecimen.class);
+  }
+
+  public static DigitalSpecimen givenMinimalSpecimen() throws JsonProcessingException {
+    return MAPPER.treeToValue(givenMinimalSpecimenJson(), DigitalSpecimen.class);
+  }
+
+  public static DigitalMedia givenMedia() throws JsonProcessingException {
+    return MAPPER.treeToValue(givenMediaJson(), DigitalMedia.class);
+  }
+
   public static JsonNode givenSpecimenJson() throws JsonProcessingException {
     return MAPPER.readTree(
         """